@@ -17,16 +17,30 @@
 package com.starm.beans;
 
 import com.starm.preprocessing.Preprocessor;
+import com.starm.preprocessing.TaggerCalibrator;
+import com.starm.preprocessing.TaggerModelProfile;
+import com.starm.preprocessing.tdm.FeatureScore;
 import com.starm.preprocessing.tdm.ListOfStringsToBinaryTDMUsing2DMatrix;
+import com.starm.preprocessing.tdm.NearDuplicateDetector;
+import com.starm.preprocessing.tdm.TDMRepresentation;
 import com.starm.preprocessing.tdm.WeightingScheme;
+import com.starm.processors.RunSummary;
 import com.starm.processors.SpatioTemporalDataFileOperations;
 import com.starm.processors.SpatioTemporalTransaction;
+import com.starm.processors.miners.ARMiner;
 import com.starm.processors.miners.FPGrowthBasedARMiner;
+import com.starm.processors.miners.FrequentItemSetStore;
+import com.starm.processors.miners.MiningEngine;
+import com.starm.processors.miners.NativeFPGrowthARMiner;
+import com.starm.processors.miners.RuleMetric;
 import java.io.InputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import javax.faces.application.FacesMessage;
 import javax.faces.bean.ManagedProperty;
 import javax.faces.context.FacesContext;
@@ -41,8 +55,21 @@ public class ARMBean {
 
     private Part file;
     private float minimumSupport;
+    // support the frequent itemsets are stored at for Re-threshold Rules, if lower than minimum support, 0 for minimum support
+    private float leastSupport;
     private float minimumConfidence;
+    // thresholds applied when rules are regenerated from frequent itemset store, 0 for no threshold
+    private float minimumLift;
+    private float minimumLeverage;
+    // number of best rules to mine, minimum support being the floor of the search, 0 to mine all rules at minimum support
+    private int topK = 0;
+    private RuleMetric topKRuleMetric = RuleMetric.CONFIDENCE;
     private float minimumIDFScore;
+    private TaggerModelProfile taggerModelProfile;
+    private boolean eliminateNearDuplicates;
+    private boolean synonymClustering;
+    private int maximumNumberOfTerms;
+    private FeatureScore featureScore;
 
     private GlobalConfigurationsBean globalConfigurationsBean;
 
@@ -62,7 +89,13 @@ public class ARMBean {
         SpatioTemporalTransaction[] spatioTemporalTransactions;
         Preprocessor preprocessor;
         ListOfStringsToBinaryTDMUsing2DMatrix tdmGenerator;
-        FPGrowthBasedARMiner miner;
+        MiningEngine miningEngine = getMiningEngine();
+        String jobKey;
+        NativeFPGrowthARMiner nativeMiner;
+        FPGrowthBasedARMiner wekaMiner;
+        ARMiner miner;
+        boolean arsMined;
+        RunSummary runSummary = new RunSummary();
 
         try {
             // read and validate parameters, read and manage uploaded file  
@@ -75,6 +108,13 @@ public class ARMBean {
                                 "Minimum support value should be greater than 0.",
                                 "Minimum support value should be greater than 0."));
 
+                return failureStatus;
+            } else if (leastSupport < 0) {
+                FacesContext.getCurrentInstance().addMessage("leastSupport",
+                        new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                                "Least support value should be greater than or equal to 0.",
+                                "Least support value should be greater than or equal to 0."));
+
                 return failureStatus;
             } else if (minimumConfidence <= 0) {
                 FacesContext.getCurrentInstance().addMessage("confidence",
@@ -108,8 +148,32 @@ public class ARMBean {
             globalConfigurationsBean.setDatasetFileNameAndExtension(datasetFileNameAndExtension);
 
             globalConfigurationsBean.setMinimumSupport(minimumSupport);
+            globalConfigurationsBean.setLeastSupport(leastSupport);
             globalConfigurationsBean.setMinimumConfidence(minimumConfidence);
             globalConfigurationsBean.setMinimumIDFScore(minimumIDFScore);
+            globalConfigurationsBean.setTaggerModelProfile(taggerModelProfile);
+            globalConfigurationsBean.setSynonymClustering(synonymClustering);
+            globalConfigurationsBean.setEliminateNearDuplicates(eliminateNearDuplicates);
+            globalConfigurationsBean.setMaximumNumberOfTerms(maximumNumberOfTerms);
+            globalConfigurationsBean.setFeatureScore(featureScore);
+
+            jobKey = createJobKey(datasetFileNameAndExtension);
+
+            runSummary.put("Dataset", datasetFileNameAndExtension);
+            runSummary.put("Tagger model profile", taggerModelProfile);
+            runSummary.put("Synonym clustering", synonymClustering);
+            runSummary.put("Minimum support", minimumSupport);
+            runSummary.put("Least support", leastSupport);
+            runSummary.put("Minimum confidence", minimumConfidence);
+            runSummary.put("Minimum IDF score", minimumIDFScore);
+            runSummary.put("Eliminate near-duplicates", eliminateNearDuplicates);
+            runSummary.put("Maximum number of terms", maximumNumberOfTerms);
+            runSummary.put("Feature score", featureScore);
+            runSummary.put("Mining engine", miningEngine);
+            runSummary.put("Top-k rules", topK);
+            if (topK > 0) {
+                runSummary.put("Top-k rule metric", topKRuleMetric);
+            }
 
             // perform transactions extraction, preprocessing, term-by-document matrix generation, association rule extraction
             // extract and save transactions from spatio temporal dataset
@@ -120,31 +184,80 @@ public class ARMBean {
                     globalConfigurationsBean.getTransactionsFilePath(), globalConfigurationsBean.getTransactionsFileNameAndExtension())) {
 
                 // preprocess transactions
-                preprocessor = new Preprocessor();
+                preprocessor = createPreprocessor();
 
                 // if preprocessing successful, construct term by document matrix
                 if (preprocessor.process(globalConfigurationsBean.getTransactionsFilePath(),
                         globalConfigurationsBean.getTransactionsFileNameAndExtension())) {
 
+                    recordPreprocessingSummary(preprocessor, runSummary);
+
                     // construct term by document matrix
-                    tdmGenerator = new ListOfStringsToBinaryTDMUsing2DMatrix();
+                    tdmGenerator = createTDMGenerator();
+                    tdmGenerator.setMinimumSupportForMining(getMiningSupport());
+                    tdmGenerator.setInMemoryInstances(globalConfigurationsBean.isInMemoryMining()
+                            && miningEngine == MiningEngine.WEKA);
+                    tdmGenerator.setInMemoryTransactions(globalConfigurationsBean.isInMemoryMining()
+                            && miningEngine == MiningEngine.NATIVE);
 
                     // if term by document matrix generation successful, then perform association rule extraction
                     if (tdmGenerator.convertTextFileToBinaryCSVBasedTDM(globalConfigurationsBean.getPpFilePath(),
                             globalConfigurationsBean.getPpFileNameAndExtension(), WeightingScheme.IDF,
                             this.minimumIDFScore, 4f, 2)) {
 
-                        // mine ARs
-                        miner = new FPGrowthBasedARMiner(this.minimumSupport,
-                                this.minimumConfidence,
-                                globalConfigurationsBean.getTdmFilePath(),
-                                globalConfigurationsBean.getTdmFileNameAndExtension(),
-                                globalConfigurationsBean.getRulesFilePath(),
-                                globalConfigurationsBean.getRulesFileNameAndExtension());
+                        recordTDMSummary(tdmGenerator, runSummary);
+
+                        // report size of TDM before mining, which drives mining time
+                        System.out.println(new Date().toString() + ": Mining " + tdmGenerator.getNumberOfRowsInTDM()
+                                + " transactions over " + tdmGenerator.getNumberOfColumnsInTDM() + " columns, of "
+                                + tdmGenerator.getNumberOfTermsBeforeSelection() + " terms...");
+
+                        if (tdmGenerator.getTdmTransactions() != null) {
+                            // mine ARs from transactions built in memory, while TDM files are saved in background
+                            nativeMiner = new NativeFPGrowthARMiner(this.minimumSupport,
+                                    this.minimumConfidence,
+                                    globalConfigurationsBean.getRulesFilePath(),
+                                    globalConfigurationsBean.getRulesFileNameAndExtension());
+                            nativeMiner.setParallelism(globalConfigurationsBean.getMiningParallelism());
+                            nativeMiner.setItemSetStore(globalConfigurationsBean.getItemSetStoreFilePath(), jobKey,
+                                    globalConfigurationsBean.getLeastSupport());
+                            nativeMiner.setTopK(topK, topKRuleMetric, minimumLift);
+                            nativeMiner.setBitmapTDM(tdmGenerator.getTdmBitmap());
+
+                            arsMined = nativeMiner.mine(tdmGenerator.getTdmTransactions(), tdmGenerator.getTdmTerms());
+                            miner = nativeMiner;
+
+                            // TDM files should be complete for download before returning
+                            runSummary.put("TDM files saved", tdmGenerator.getTdmFilesSaved().get());
+                        } else if (tdmGenerator.getTdmInstances() != null) {
+                            // mine ARs from Instances built in memory, while TDM files are saved in background
+                            wekaMiner = new FPGrowthBasedARMiner(this.minimumSupport,
+                                    this.minimumConfidence,
+                                    globalConfigurationsBean.getRulesFilePath(),
+                                    globalConfigurationsBean.getRulesFileNameAndExtension());
+
+                            arsMined = wekaMiner.mine(tdmGenerator.getTdmInstances());
+                            miner = wekaMiner;
+
+                            // TDM files should be complete for download before returning
+                            runSummary.put("TDM files saved", tdmGenerator.getTdmFilesSaved().get());
+                        } else {
+                            // mine ARs from sparse ARFF, which Weka loads without CSV type inference
+                            miner = createMiner(globalConfigurationsBean.getTdmFilePath(),
+                                    globalConfigurationsBean.getTdmArffFileNameAndExtension(), jobKey);
+
+                            arsMined = miner.mine();
+                        }
 
                         // if mining successful, return success status
-                        if (miner.mine()) {
+                        if (arsMined) {
+                            recordMiningSummary(miner, runSummary);
+                            globalConfigurationsBean.setJobKey(miner instanceof NativeFPGrowthARMiner && topK == 0 ? jobKey : null);
+
+
                             // this will return success status 
+                            runSummary.save(globalConfigurationsBean.getRunSummaryFilePath(),
+                                    globalConfigurationsBean.getRunSummaryFileNameAndExtension());
 
                         } else {
                             FacesContext.getCurrentInstance().addMessage("",
@@ -215,6 +328,7 @@ public class ARMBean {
         String datasetFileNameAndExtension;
         SpatioTemporalTransaction[] spatioTemporalTransactions;
         Preprocessor preprocessor;
+        RunSummary runSummary = new RunSummary();
 
         try {
             //  read and manage uploaded file  
@@ -236,6 +350,12 @@ public class ARMBean {
             // save configurations
             globalConfigurationsBean.setDatasetFilePath(datasetFilePath);
             globalConfigurationsBean.setDatasetFileNameAndExtension(datasetFileNameAndExtension);
+            globalConfigurationsBean.setTaggerModelProfile(taggerModelProfile);
+            globalConfigurationsBean.setSynonymClustering(synonymClustering);
+            
+            runSummary.put("Dataset", datasetFileNameAndExtension);
+            runSummary.put("Tagger model profile", taggerModelProfile);
+            runSummary.put("Synonym clustering", synonymClustering);
             
             // perform transactions extraction, preprocessing, 
             spatioTemporalTransactions = SpatioTemporalDataFileOperations.readAllTransactions(datasetFilePath, datasetFileNameAndExtension);
@@ -246,12 +366,18 @@ public class ARMBean {
                     globalConfigurationsBean.getTransactionsFileNameAndExtension())) {
 
                 // preprocess transactions
-                preprocessor = new Preprocessor();
+                preprocessor = createPreprocessor();
 
                 // if preprocessing successful, construct term by document matrix
                 if (preprocessor.process(globalConfigurationsBean.getTransactionsFilePath(),
                         globalConfigurationsBean.getTransactionsFileNameAndExtension())) {
 
+                    recordPreprocessingSummary(preprocessor, runSummary);
+
+                    // record the run settings
+                    runSummary.save(globalConfigurationsBean.getRunSummaryFilePath(),
+                            globalConfigurationsBean.getRunSummaryFileNameAndExtension());
+
                     // this is the success case
                     // add success message
                     FacesContext.getCurrentInstance().addMessage("",
@@ -292,6 +418,91 @@ public class ARMBean {
         return successStatus;
     }
 
+    /**
+     * Calibrates the tagger model profiles on a sample of the uploaded dataset. Reports 
+     * throughput and tag agreement for each profile, and selects the fastest profile 
+     * having acceptable agreement with the most accurate profile.
+     *
+     * @return stays on the same page i.e. always returns the failure case
+     */
+    public String calibrateTaggers() {
+        String failureStatus = "FAILURE";
+        String successStatus = "FAILURE";
+
+        InputStream is = null;
+        byte[] fileContents;
+        Path pathToSaveFileTo;
+        String datasetFilePath = globalConfigurationsBean.getLocalTempFolderPath();
+        String datasetFileNameAndExtension;
+        SpatioTemporalTransaction[] spatioTemporalTransactions;
+        List<String> transactions;
+        List<TaggerCalibrator.CalibrationResult> calibrationResults;
+
+        try {
+            // read and manage uploaded file  
+            // read uploaded file
+            datasetFileNameAndExtension = file.getSubmittedFileName();
+            fileContents = new byte[(int) file.getSize()];
+            is = file.getInputStream();
+            is.read(fileContents);
+
+            // save the read file
+            pathToSaveFileTo = FileSystems.getDefault().getPath(datasetFilePath, datasetFileNameAndExtension);
+            Files.deleteIfExists(pathToSaveFileTo);
+            pathToSaveFileTo = Files.write(pathToSaveFileTo, fileContents, StandardOpenOption.CREATE);
+
+            // clean up file handles
+            is.close();
+            fileContents = null;
+
+            // save configurations
+            globalConfigurationsBean.setDatasetFilePath(datasetFilePath);
+            globalConfigurationsBean.setDatasetFileNameAndExtension(datasetFileNameAndExtension);
+
+            // extract transactions from spatio temporal dataset
+            spatioTemporalTransactions = SpatioTemporalDataFileOperations.readAllTransactions(datasetFilePath, datasetFileNameAndExtension);
+            transactions = new ArrayList<>(spatioTemporalTransactions.length);
+
+            for (SpatioTemporalTransaction spatioTemporalTransaction : spatioTemporalTransactions) {
+                transactions.add(spatioTemporalTransaction.getTransaction());
+            }
+
+            // calibrate and report
+            calibrationResults = new TaggerCalibrator().calibrate(transactions, 
+                    globalConfigurationsBean.getTaggerCalibrationSampleSize());
+
+            for (TaggerCalibrator.CalibrationResult calibrationResult : calibrationResults) {
+                FacesContext.getCurrentInstance().addMessage("",
+                        new FacesMessage(FacesMessage.SEVERITY_INFO,
+                                calibrationResult.toString(),
+                                calibrationResult.toString()));
+            }
+
+            // select fastest acceptable profile
+            taggerModelProfile = TaggerCalibrator.selectFastestAcceptableProfile(calibrationResults,
+                    globalConfigurationsBean.getMinimumTaggerAgreement());
+            globalConfigurationsBean.setTaggerModelProfile(taggerModelProfile);
+
+            FacesContext.getCurrentInstance().addMessage("",
+                    new FacesMessage(FacesMessage.SEVERITY_INFO,
+                            "Selected tagger model profile: " + taggerModelProfile,
+                            "Selected tagger model profile: " + taggerModelProfile));
+
+        } catch (Exception e) {
+            System.err.println("Exception in calibrateTaggers() : " + e.getMessage());
+
+            FacesContext.getCurrentInstance().addMessage("",
+                    new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                            "Could not calibrate taggers due to some issue at the moment. Please try later.",
+                            "Could not calibrate taggers due to some issue at the moment. Please try later."));
+            e.printStackTrace();
+
+            return failureStatus;
+        }
+
+        return successStatus;
+    }
+
     /**
      * Does 1) Creates TDM from Preprocessed Transactions Data File. Assumes
      * that Preprocessing has been performed successfully.
@@ -322,6 +533,9 @@ public class ARMBean {
 
             // save idf score
             globalConfigurationsBean.setMinimumIDFScore(minimumIDFScore);
+            globalConfigurationsBean.setEliminateNearDuplicates(eliminateNearDuplicates);
+            globalConfigurationsBean.setMaximumNumberOfTerms(maximumNumberOfTerms);
+            globalConfigurationsBean.setFeatureScore(featureScore);
             
             // read and manage uploaded proprocessed file  
             // read uploaded file
@@ -340,18 +554,20 @@ public class ARMBean {
             fileContents = null;
 
             // construct term-by-document-matrix
-            tdmGenerator = new ListOfStringsToBinaryTDMUsing2DMatrix();
+            tdmGenerator = createTDMGenerator();
 
             // if term by document matrix generation successful
             if (tdmGenerator.convertTextFileToBinaryCSVBasedTDM(globalConfigurationsBean.getPpFilePath(),
                     globalConfigurationsBean.getPpFileNameAndExtension(), WeightingScheme.IDF,
                     this.minimumIDFScore, 4f, 2)) {
 
-                // this is the success case, so add success message
+                // this is the success case, so add success message, with size of TDM to be mined
                 FacesContext.getCurrentInstance().addMessage("",
                         new FacesMessage(FacesMessage.SEVERITY_INFO,
                                 "TDM created successfully.",
-                                "TDM created successfully."));
+                                "TDM created successfully, " + tdmGenerator.getNumberOfRowsInTDM() + " transactions, "
+                                + tdmGenerator.getNumberOfColumnsInTDM() + " of "
+                                + tdmGenerator.getNumberOfTermsBeforeSelection() + " terms."));
 
             } else {
                 FacesContext.getCurrentInstance().addMessage("",
@@ -391,8 +607,9 @@ public class ARMBean {
         byte[] fileContents;
         InputStream is;
         Path pathToSaveFileTo;
+        String jobKey;
         
-        FPGrowthBasedARMiner miner;
+        ARMiner miner;
 
         try {
             // read and validate parameters  
@@ -435,15 +652,13 @@ public class ARMBean {
             fileContents = null;
 
             // mine ARs
-            miner = new FPGrowthBasedARMiner(this.minimumSupport,
-                    this.minimumConfidence,
-                    globalConfigurationsBean.getTdmFilePath(),
-                    globalConfigurationsBean.getTdmFileNameAndExtension(),
-                    globalConfigurationsBean.getRulesFilePath(),
-                    globalConfigurationsBean.getRulesFileNameAndExtension());
+            jobKey = "TDM " + file.getSubmittedFileName() + " " + file.getSize();
+            miner = createMiner(globalConfigurationsBean.getTdmFilePath(),
+                    globalConfigurationsBean.getTdmFileNameAndExtension(), jobKey);
 
             // if mining successful, return success status
             if (miner.mine()){
+                globalConfigurationsBean.setJobKey(miner instanceof NativeFPGrowthARMiner && topK == 0 ? jobKey : null);
                 
                // success status 
                FacesContext.getCurrentInstance().addMessage("",
@@ -476,6 +691,96 @@ public class ARMBean {
 
     }
     
+    /**
+     * Regenerates association rules of the last mining job for the entered support, confidence, 
+     * lift and leverage thresholds, from its frequent itemset store, without re-mining. 
+     * Support should not be lower than the support the itemsets were mined at.
+     * 
+     * @return Success or Failure Case
+     */
+    public String rethresholdARs() {
+        String failureStatus = "FAILURE";
+        String successStatus = "SUCCESS";
+        String jobKey = globalConfigurationsBean.getJobKey();
+        Path storeFilePath;
+        FrequentItemSetStore frequentItemSetStore;
+        int numberOfRules;
+        long startTime = System.currentTimeMillis();
+
+        try {
+            // validate input
+            if (minimumSupport <= 0) {
+                FacesContext.getCurrentInstance().addMessage("support",
+                        new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                                "Minimum support value should be greater than 0.",
+                                "Minimum support value should be greater than 0."));
+
+                return failureStatus;
+            } else if (minimumConfidence <= 0) {
+                FacesContext.getCurrentInstance().addMessage("confidence",
+                        new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                                "Minimum confidence value should be greater than 0.",
+                                "Minimum confidence value should be greater than 0."));
+
+                return failureStatus;
+            }
+
+            if (jobKey == null || !Files.exists(storeFilePath = FrequentItemSetStore.getPath(
+                    globalConfigurationsBean.getItemSetStoreFilePath(), jobKey))) {
+                FacesContext.getCurrentInstance().addMessage("",
+                        new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                                "No frequent itemsets are stored, kindly extract association rules with the NATIVE engine first.",
+                                "No frequent itemsets are stored, kindly extract association rules with the NATIVE engine first."));
+
+                return failureStatus;
+            }
+
+            frequentItemSetStore = FrequentItemSetStore.load(storeFilePath);
+
+            if (NativeFPGrowthARMiner.toSupportCount(minimumSupport, frequentItemSetStore.getNumberOfTransactions())
+                    < frequentItemSetStore.getMinimumSupportCount()) {
+                FacesContext.getCurrentInstance().addMessage("support",
+                        new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                                "Frequent itemsets were mined at support of " + frequentItemSetStore.getMinimumSupportCount()
+                                + " transactions, kindly extract association rules again for lower support.",
+                                "Frequent itemsets were mined at support of " + frequentItemSetStore.getMinimumSupportCount()
+                                + " transactions, kindly extract association rules again for lower support."));
+
+                return failureStatus;
+            }
+
+            globalConfigurationsBean.setMinimumSupport(minimumSupport);
+            globalConfigurationsBean.setMinimumConfidence(minimumConfidence);
+
+            numberOfRules = frequentItemSetStore.generateRules(minimumSupport, minimumConfidence, minimumLift,
+                    minimumLeverage, FileSystems.getDefault().getPath(globalConfigurationsBean.getRulesFilePath(),
+                            globalConfigurationsBean.getRulesFileNameAndExtension()),
+                    globalConfigurationsBean.getMiningParallelism());
+
+            FacesContext.getCurrentInstance().addMessage("",
+                    new FacesMessage(FacesMessage.SEVERITY_INFO,
+                            numberOfRules + " association rules regenerated from "
+                            + frequentItemSetStore.getFrequentItemSets().size() + " stored frequent itemsets in "
+                            + (System.currentTimeMillis() - startTime) + " ms.",
+                            numberOfRules + " association rules regenerated from "
+                            + frequentItemSetStore.getFrequentItemSets().size() + " stored frequent itemsets in "
+                            + (System.currentTimeMillis() - startTime) + " ms."));
+
+        } catch (Exception e) {
+            System.err.println("Exception in rethresholdARs() : " + e.getMessage());
+
+            FacesContext.getCurrentInstance().addMessage("",
+                    new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                            "Could not regenerate ARs due to some issue at the moment. Please try later.",
+                            "Could not regenerate ARs due to some issue at the moment. Please try later."));
+            e.printStackTrace();
+
+            return failureStatus;
+        }
+
+        return successStatus;
+    }
+
     /**
      * Handles the success case for analyse association rules button
      * 
@@ -502,12 +807,195 @@ public class ARMBean {
         );
     }
 
+    /**
+     * Creates preprocessor, configured as per the options selected
+     *
+     * @return the preprocessor
+     */
+    private Preprocessor createPreprocessor() {
+        Preprocessor preprocessor = new Preprocessor();
+
+        preprocessor.setTaggerModelProfile(taggerModelProfile);
+        preprocessor.setSynonymClustering(synonymClustering);
+
+        return preprocessor;
+    }
+
+    /**
+     * Records the outcome of preprocessing in run summary
+     *
+     * @param preprocessor preprocessor after processing
+     * @param runSummary run summary to record into
+     */
+    private void recordPreprocessingSummary(Preprocessor preprocessor, RunSummary runSummary) {
+        runSummary.put("Terms before synonym replacement", preprocessor.getNumberOfTermsBeforeSynonymReplacement());
+        runSummary.put("Terms after synonym replacement", preprocessor.getNumberOfTermsAfterSynonymReplacement());
+    }
+
+    /**
+     * Creates key of a mining job of the dataset, from the options selected, which decide 
+     * the term-by-document matrix mined
+     *
+     * @param datasetFileNameAndExtension file name and extension of dataset file
+     * @return the job key
+     */
+    private String createJobKey(String datasetFileNameAndExtension) {
+        return datasetFileNameAndExtension + " " + taggerModelProfile + " " + synonymClustering + " "
+                + eliminateNearDuplicates + " " + minimumIDFScore + " " + maximumNumberOfTerms + " " + featureScore;
+    }
+
+    /**
+     * Creates association rule miner of the mining engine set in global configurations, 
+     * mining the dataset file into the rules file
+     *
+     * @param datasetFilePath folder path for dataset file
+     * @param datasetFileNameAndExtension file name and extension of dataset file
+     * @param jobKey key of the mining job, for its frequent itemset store
+     * @return the association rule miner
+     */
+    private ARMiner createMiner(String datasetFilePath, String datasetFileNameAndExtension, String jobKey) {
+        NativeFPGrowthARMiner nativeMiner;
+
+        if (getMiningEngine() == MiningEngine.WEKA) {
+            return new FPGrowthBasedARMiner(this.minimumSupport,
+                    this.minimumConfidence,
+                    datasetFilePath,
+                    datasetFileNameAndExtension,
+                    globalConfigurationsBean.getRulesFilePath(),
+                    globalConfigurationsBean.getRulesFileNameAndExtension());
+        }
+
+        nativeMiner = new NativeFPGrowthARMiner(this.minimumSupport,
+                this.minimumConfidence,
+                datasetFilePath,
+                datasetFileNameAndExtension,
+                globalConfigurationsBean.getRulesFilePath(),
+                globalConfigurationsBean.getRulesFileNameAndExtension());
+        nativeMiner.setParallelism(globalConfigurationsBean.getMiningParallelism());
+        nativeMiner.setItemSetStore(globalConfigurationsBean.getItemSetStoreFilePath(), jobKey,
+                globalConfigurationsBean.getLeastSupport());
+        nativeMiner.setTopK(topK, topKRuleMetric, minimumLift);
+
+        return nativeMiner;
+    }
+
+    /**
+     * Lowest support the itemsets of the run are mined at, so that terms are pruned from the 
+     * term-by-document matrix only if no itemset of the run, including those stored for 
+     * Re-threshold Rules, can contain them. As fractions and numbers of transactions cannot 
+     * be compared before the matrix is built, 0 is returned if minimum support and least 
+     * support are given in different forms.
+     *
+     * @return the lower of minimum support and least support, if least support is set, 
+     * minimum support otherwise, and for top-k mining, which keeps no frequent itemsets
+     */
+    private float getMiningSupport() {
+        if (topK > 0 || leastSupport <= 0) {
+            return minimumSupport;
+        } else if ((leastSupport > 1) != (minimumSupport > 1)) {
+            return 0;
+        }
+
+        return Math.min(minimumSupport, leastSupport);
+    }
+
+    /**
+     * Mining engine of the run, top-k mining being implemented by the native engine only
+     *
+     * @return the configured mining engine, or native engine for top-k mining
+     */
+    private MiningEngine getMiningEngine() {
+        return topK > 0 ? MiningEngine.NATIVE : globalConfigurationsBean.getMiningEngine();
+    }
+
+    /**
+     * Records figures reported by the miner into the run summary
+     *
+     * @param miner association rule miner of the run
+     * @param runSummary run summary to record into
+     */
+    private void recordMiningSummary(ARMiner miner, RunSummary runSummary) {
+        if (miner instanceof NativeFPGrowthARMiner) {
+            NativeFPGrowthARMiner nativeMiner = (NativeFPGrowthARMiner) miner;
+
+            runSummary.put("Frequent itemsets", nativeMiner.getNumberOfFrequentItemSets());
+            runSummary.put("Association rules", nativeMiner.getNumberOfRules());
+            runSummary.put("Mining threads", nativeMiner.getParallelism());
+            runSummary.put("Mining average parallelism", Math.round(nativeMiner.getAverageParallelism() * 100) / 100.0);
+            if (nativeMiner.getTopK() > 0) {
+                runSummary.put("Top-k support threshold (transactions)", nativeMiner.getTopKSupportCount());
+            }
+        } else {
+            runSummary.put("Mining threads", 1);
+        }
+    }
+
+    /**
+     * Creates term-by-document matrix generator, configured as per global configurations
+     *
+     * @return the term-by-document matrix generator
+     */
+    private ListOfStringsToBinaryTDMUsing2DMatrix createTDMGenerator() {
+        ListOfStringsToBinaryTDMUsing2DMatrix tdmGenerator = new ListOfStringsToBinaryTDMUsing2DMatrix();
+
+        tdmGenerator.setTdmRepresentation(globalConfigurationsBean.getTdmRepresentation());
+        tdmGenerator.setParallelism(globalConfigurationsBean.getTdmConstructionParallelism());
+        tdmGenerator.setNumberOfTermsToSelect(globalConfigurationsBean.getMaximumNumberOfTerms());
+        tdmGenerator.setFeatureScore(globalConfigurationsBean.getFeatureScore());
+        tdmGenerator.setOutOfCoreMemoryBudget(globalConfigurationsBean.getTdmOutOfCoreMemoryBudgetInMB() * 1024L * 1024L);
+
+        if (globalConfigurationsBean.isEliminateNearDuplicates()) {
+            tdmGenerator.setNearDuplicateDetector(new NearDuplicateDetector(128, 32,
+                    globalConfigurationsBean.getNearDuplicateSimilarityThreshold()));
+        }
+
+        return tdmGenerator;
+    }
+
+    /**
+     * Records the outcome of term-by-document matrix generation in run summary
+     *
+     * @param tdmGenerator term-by-document matrix generator after generation
+     * @param runSummary run summary to record into
+     */
+    private void recordTDMSummary(ListOfStringsToBinaryTDMUsing2DMatrix tdmGenerator, RunSummary runSummary) {
+        runSummary.put("TDM representation", tdmGenerator.getTdmRepresentationUsed());
+        runSummary.put("TDM rows", tdmGenerator.getNumberOfRowsInTDM());
+        runSummary.put("TDM columns", tdmGenerator.getNumberOfColumnsInTDM());
+        runSummary.put("TDM construction threads", tdmGenerator.getParallelism());
+        runSummary.put("Terms before pruning and feature selection", tdmGenerator.getNumberOfTermsBeforeSelection());
+
+        if (tdmGenerator.getTdmRepresentationUsed() == TDMRepresentation.BITMAP
+                && tdmGenerator.getMinimumSupportForMining() > 0) {
+            runSummary.put("Terms below minimum support", tdmGenerator.getNumberOfTermsBelowMinimumSupport());
+        }
+        if (tdmGenerator.getTdmPlanner() != null) {
+            runSummary.put("TDM planned heap (bytes)", tdmGenerator.getTdmPlanner().getPlannedBytes());
+            runSummary.put("TDM available heap (bytes)", tdmGenerator.getTdmPlanner().getAvailableBytes());
+        }
+        if (tdmGenerator.getTdmRepresentationUsed() == TDMRepresentation.OUT_OF_CORE) {
+            runSummary.put("TDM out-of-core memory budget (bytes)", tdmGenerator.getOutOfCoreMemoryBudget());
+        }
+        if (tdmGenerator.isNearDuplicatesCollapsed()) {
+            runSummary.put("Near-duplicate transactions removed",
+                    tdmGenerator.getNearDuplicateDetector().getNumberOfTransactionsRemoved());
+        } else if (tdmGenerator.getNearDuplicateDetector() != null) {
+            runSummary.put("Near-duplicate transactions removed", "not applied, out of core");
+        }
+    }
+
     /**
      * Creates a new instance of ARMBean
      */
     public ARMBean() {
         // lookup configurations bean
         globalConfigurationsBean = findBean("globalConfigurationsBean");
+
+        taggerModelProfile = globalConfigurationsBean.getTaggerModelProfile();
+        eliminateNearDuplicates = globalConfigurationsBean.isEliminateNearDuplicates();
+        synonymClustering = globalConfigurationsBean.isSynonymClustering();
+        maximumNumberOfTerms = globalConfigurationsBean.getMaximumNumberOfTerms();
+        featureScore = globalConfigurationsBean.getFeatureScore();
     }
 
     public Part getFile() {
@@ -526,6 +1014,14 @@ public class ARMBean {
         this.minimumSupport = minimumSupport;
     }
 
+    public float getLeastSupport() {
+        return leastSupport;
+    }
+
+    public void setLeastSupport(float leastSupport) {
+        this.leastSupport = leastSupport;
+    }
+
     public float getMinimumConfidence() {
         return minimumConfidence;
     }
@@ -534,6 +1030,22 @@ public class ARMBean {
         this.minimumConfidence = minimumConfidence;
     }
 
+    public float getMinimumLift() {
+        return minimumLift;
+    }
+
+    public void setMinimumLift(float minimumLift) {
+        this.minimumLift = minimumLift;
+    }
+
+    public float getMinimumLeverage() {
+        return minimumLeverage;
+    }
+
+    public void setMinimumLeverage(float minimumLeverage) {
+        this.minimumLeverage = minimumLeverage;
+    }
+
     public float getMinimumIDFScore() {
         return minimumIDFScore;
     }
@@ -542,4 +1054,72 @@ public class ARMBean {
         this.minimumIDFScore = minimumIDFScore;
     }
 
+    public TaggerModelProfile getTaggerModelProfile() {
+        return taggerModelProfile;
+    }
+
+    public void setTaggerModelProfile(TaggerModelProfile taggerModelProfile) {
+        this.taggerModelProfile = taggerModelProfile;
+    }
+
+    public boolean isEliminateNearDuplicates() {
+        return eliminateNearDuplicates;
+    }
+
+    public void setEliminateNearDuplicates(boolean eliminateNearDuplicates) {
+        this.eliminateNearDuplicates = eliminateNearDuplicates;
+    }
+
+    public boolean isSynonymClustering() {
+        return synonymClustering;
+    }
+
+    public void setSynonymClustering(boolean synonymClustering) {
+        this.synonymClustering = synonymClustering;
+    }
+
+    public int getMaximumNumberOfTerms() {
+        return maximumNumberOfTerms;
+    }
+
+    public void setMaximumNumberOfTerms(int maximumNumberOfTerms) {
+        this.maximumNumberOfTerms = maximumNumberOfTerms;
+    }
+
+    public FeatureScore getFeatureScore() {
+        return featureScore;
+    }
+
+    public void setFeatureScore(FeatureScore featureScore) {
+        this.featureScore = featureScore;
+    }
+
+    public TaggerModelProfile[] getTaggerModelProfiles() {
+        return TaggerModelProfile.values();
+    }
+
+    public FeatureScore[] getFeatureScores() {
+        return FeatureScore.values();
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public RuleMetric getTopKRuleMetric() {
+        return topKRuleMetric;
+    }
+
+    public void setTopKRuleMetric(RuleMetric topKRuleMetric) {
+        this.topKRuleMetric = topKRuleMetric;
+    }
+
+    public RuleMetric[] getRuleMetrics() {
+        return RuleMetric.values();
+    }
+
 }
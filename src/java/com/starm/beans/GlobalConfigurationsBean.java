@@ -16,6 +16,10 @@
  */
 package com.starm.beans;
 
+import com.starm.preprocessing.TaggerModelProfile;
+import com.starm.preprocessing.tdm.FeatureScore;
+import com.starm.preprocessing.tdm.TDMRepresentation;
+import com.starm.processors.miners.MiningEngine;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
@@ -39,6 +43,31 @@ public class GlobalConfigurationsBean {
     private float minimumConfidence;
     private float minimumIDFScore;
     
+    private TaggerModelProfile taggerModelProfile = TaggerModelProfile.BIDIRECTIONAL;
+    private int taggerCalibrationSampleSize = 200;
+    private float minimumTaggerAgreement = 0.97f;
+    
+    private boolean synonymClustering = false;
+    
+    private boolean eliminateNearDuplicates = false;
+    private float nearDuplicateSimilarityThreshold = 0.8f;
+    
+    // top-N feature selection of TDM columns, 0 to keep all terms remaining after pruning
+    private int maximumNumberOfTerms = 0;
+    private FeatureScore featureScore = FeatureScore.DOCUMENT_FREQUENCY;
+    
+    private TDMRepresentation tdmRepresentation = TDMRepresentation.AUTOMATIC;
+    // number of threads building term-by-document matrix rows, 1 for sequential construction
+    private int tdmConstructionParallelism = Runtime.getRuntime().availableProcessors();
+    // megabytes of heap for buffering postings by OUT_OF_CORE TDM representation
+    private int tdmOutOfCoreMemoryBudgetInMB = 64;
+    // if true, TDM is mined as Instances built in memory, and TDM files are saved in background
+    private boolean inMemoryMining = true;
+    // NATIVE mines int-encoded transactions by in-project FP-Growth, WEKA is kept as reference engine
+    private MiningEngine miningEngine = MiningEngine.NATIVE;
+    // number of threads mining frequent itemsets by NATIVE engine, 1 for sequential mining
+    private int miningParallelism = Runtime.getRuntime().availableProcessors();
+    
     private String transactionsFilePath;
     private String transactionsFileNameAndExtension = "angioplasty.org_v4_0_USA_t.txt";
     
@@ -48,10 +77,19 @@ public class GlobalConfigurationsBean {
     
     private String tdmFilePath;
     private String tdmFileNameAndExtension = "angioplasty.org_v4_0_USA_t_pp_TDM.csv";
+    private String tdmArffFileNameAndExtension = "angioplasty.org_v4_0_USA_t_pp_TDM.arff";
     
     private String rulesFilePath;
     private String rulesFileNameAndExtension = "angioplasty.org_v4_0_USA_t_pp_TDM_rules.txt";
     
+    // frequent itemsets of each job are stored in their own file, named after the job key
+    private String itemSetStoreFilePath;
+    // key of the last job mined by NATIVE engine, null if none
+    private String jobKey;
+    
+    private String runSummaryFilePath;
+    private String runSummaryFileNameAndExtension = "angioplasty.org_v4_0_USA_t_pp_TDM_rules_summary.txt";
+    
     private String temporalDataFilePath;
     private String temporalDataFileNameAndExtension = "temporalDataFile.txt";
     
@@ -124,6 +162,78 @@ public class GlobalConfigurationsBean {
         this.minimumIDFScore = minimumIDFScore;
     }
     
+    public TaggerModelProfile getTaggerModelProfile() {
+        return taggerModelProfile;
+    }
+    
+    public void setTaggerModelProfile(TaggerModelProfile taggerModelProfile) {
+        this.taggerModelProfile = taggerModelProfile;
+    }
+    
+    public int getTaggerCalibrationSampleSize() {
+        return taggerCalibrationSampleSize;
+    }
+    
+    public void setTaggerCalibrationSampleSize(int taggerCalibrationSampleSize) {
+        this.taggerCalibrationSampleSize = taggerCalibrationSampleSize;
+    }
+    
+    public float getMinimumTaggerAgreement() {
+        return minimumTaggerAgreement;
+    }
+    
+    public void setMinimumTaggerAgreement(float minimumTaggerAgreement) {
+        this.minimumTaggerAgreement = minimumTaggerAgreement;
+    }
+    
+    public TDMRepresentation getTdmRepresentation() {
+        return tdmRepresentation;
+    }
+    
+    public void setTdmRepresentation(TDMRepresentation tdmRepresentation) {
+        this.tdmRepresentation = tdmRepresentation;
+    }
+    
+    public boolean isSynonymClustering() {
+        return synonymClustering;
+    }
+    
+    public void setSynonymClustering(boolean synonymClustering) {
+        this.synonymClustering = synonymClustering;
+    }
+    
+    public boolean isEliminateNearDuplicates() {
+        return eliminateNearDuplicates;
+    }
+    
+    public void setEliminateNearDuplicates(boolean eliminateNearDuplicates) {
+        this.eliminateNearDuplicates = eliminateNearDuplicates;
+    }
+    
+    public int getMaximumNumberOfTerms() {
+        return maximumNumberOfTerms;
+    }
+    
+    public void setMaximumNumberOfTerms(int maximumNumberOfTerms) {
+        this.maximumNumberOfTerms = maximumNumberOfTerms;
+    }
+    
+    public FeatureScore getFeatureScore() {
+        return featureScore;
+    }
+    
+    public void setFeatureScore(FeatureScore featureScore) {
+        this.featureScore = featureScore;
+    }
+    
+    public float getNearDuplicateSimilarityThreshold() {
+        return nearDuplicateSimilarityThreshold;
+    }
+    
+    public void setNearDuplicateSimilarityThreshold(float nearDuplicateSimilarityThreshold) {
+        this.nearDuplicateSimilarityThreshold = nearDuplicateSimilarityThreshold;
+    }
+    
     public String getTransactionsFilePath() {
         return transactionsFilePath;
     }
@@ -172,6 +282,54 @@ public class GlobalConfigurationsBean {
         this.tdmFileNameAndExtension = tdmFileNameAndExtension;
     }
     
+    public int getTdmConstructionParallelism() {
+        return tdmConstructionParallelism;
+    }
+    
+    public void setTdmConstructionParallelism(int tdmConstructionParallelism) {
+        this.tdmConstructionParallelism = tdmConstructionParallelism;
+    }
+    
+    public int getTdmOutOfCoreMemoryBudgetInMB() {
+        return tdmOutOfCoreMemoryBudgetInMB;
+    }
+    
+    public void setTdmOutOfCoreMemoryBudgetInMB(int tdmOutOfCoreMemoryBudgetInMB) {
+        this.tdmOutOfCoreMemoryBudgetInMB = tdmOutOfCoreMemoryBudgetInMB;
+    }
+    
+    public boolean isInMemoryMining() {
+        return inMemoryMining;
+    }
+    
+    public void setInMemoryMining(boolean inMemoryMining) {
+        this.inMemoryMining = inMemoryMining;
+    }
+    
+    public MiningEngine getMiningEngine() {
+        return miningEngine;
+    }
+    
+    public void setMiningEngine(MiningEngine miningEngine) {
+        this.miningEngine = miningEngine;
+    }
+    
+    public int getMiningParallelism() {
+        return miningParallelism;
+    }
+    
+    public void setMiningParallelism(int miningParallelism) {
+        this.miningParallelism = miningParallelism;
+    }
+    
+    public String getTdmArffFileNameAndExtension() {
+        return tdmArffFileNameAndExtension;
+    }
+    
+    public void setTdmArffFileNameAndExtension(String tdmArffFileNameAndExtension) {
+        this.tdmArffFileNameAndExtension = tdmArffFileNameAndExtension;
+    }
+    
     public String getRulesFilePath() {
         return rulesFilePath;
     }
@@ -188,6 +346,38 @@ public class GlobalConfigurationsBean {
         this.rulesFileNameAndExtension = rulesFileNameAndExtension;
     }
     
+    public String getItemSetStoreFilePath() {
+        return itemSetStoreFilePath;
+    }
+    
+    public void setItemSetStoreFilePath(String itemSetStoreFilePath) {
+        this.itemSetStoreFilePath = itemSetStoreFilePath;
+    }
+    
+    public String getJobKey() {
+        return jobKey;
+    }
+    
+    public void setJobKey(String jobKey) {
+        this.jobKey = jobKey;
+    }
+    
+    public String getRunSummaryFilePath() {
+        return runSummaryFilePath;
+    }
+    
+    public void setRunSummaryFilePath(String runSummaryFilePath) {
+        this.runSummaryFilePath = runSummaryFilePath;
+    }
+    
+    public String getRunSummaryFileNameAndExtension() {
+        return runSummaryFileNameAndExtension;
+    }
+    
+    public void setRunSummaryFileNameAndExtension(String runSummaryFileNameAndExtension) {
+        this.runSummaryFileNameAndExtension = runSummaryFileNameAndExtension;
+    }
+    
     public Charset getDatasetFileCharset() {
         return datasetFileCharset;
     }
@@ -289,6 +479,8 @@ public class GlobalConfigurationsBean {
         this.setPpFilePath(localTempFolderPath);
         this.setTdmFilePath(localTempFolderPath);
         this.setRulesFilePath(localTempFolderPath);
+        this.setRunSummaryFilePath(localTempFolderPath);
+        this.setItemSetStoreFilePath(localTempFolderPath);
         
     }
     
@@ -19,6 +19,8 @@ package com.starm.beans;
 import com.starm.processors.AssociationRuleScrapper;
 import com.starm.processors.KMLWriter;
 import com.starm.processors.SpatioTemporalTransaction;
+import com.starm.processors.miners.AssociationRuleStore;
+import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -66,17 +68,24 @@ public class GlobalDataBean {
     }
 
     /**
-     * Reads the association rules, and prepares them for user agent
+     * Reads the association rules from the association rule store of the rules file, 
+     * and prepares them for user agent
+     * 
+     * @see com.starm.processors.miners.AssociationRuleStore
      * 
      * @return the association rules as array of Strings, or status messages if rules could not be found or loaded
      */
     public String[] getRules() {
+        AssociationRuleStore ruleStore;
+
         try {
             // read rules using global configurations bean
-            Path rulesFilePath = FileSystems.getDefault().getPath(globalConfigurationsBean.getRulesFilePath(),
-                    globalConfigurationsBean.getRulesFileNameAndExtension());
+            ruleStore = openRuleStore();
 
-            this.rules = Files.readAllLines(rulesFilePath).toArray(new String[0]);
+            this.rules = new String[ruleStore.size()];
+            for (int i = 0; i < rules.length; i++) {
+                rules[i] = ruleStore.format(i);
+            }
 
         } catch (Exception ex) {
             Logger.getLogger(GlobalDataBean.class.getName()).log(Level.SEVERE, null, ex);
@@ -87,6 +96,14 @@ public class GlobalDataBean {
         return rules;
     }
 
+    /**
+     * Opens the association rule store of the rules file, importing the rules file if it has no store
+     */
+    private AssociationRuleStore openRuleStore() throws IOException {
+        return AssociationRuleStore.openForRulesFile(FileSystems.getDefault().getPath(
+                globalConfigurationsBean.getRulesFilePath(), globalConfigurationsBean.getRulesFileNameAndExtension()));
+    }
+
     
     public void setRules(String[] rules) {
         this.rules = rules;
@@ -95,16 +112,24 @@ public class GlobalDataBean {
     /**
      * Updates the spatial, temporal, and spatio-temporal data files
      * 
-     * @param rule the rule for which the files should be updates
+     * @param ruleIndex index of the rule, in the association rule store, for which the files should be updated
      * @return string representation suggesting the UI agent to stay on the same page
      */
-    public String updateDataFiles(String rule) {
+    public String updateDataFiles(int ruleIndex) {
         String[] transactionsSupportingRule;
         SpatioTemporalTransaction[] stTransactionsSupportingRule;
+        AssociationRuleStore ruleStore;
+        String rule = "#" + ruleIndex;
 
         try {
+            // read items of the rule from the store, without parsing the rule
+            ruleStore = openRuleStore();
+            rule = ruleStore.format(ruleIndex);
+
             // fetch spatio temporal transactions supporting the rule
-            transactionsSupportingRule = AssociationRuleScrapper.retrieveSpatioTemporalTransactions(rule,
+            transactionsSupportingRule = AssociationRuleScrapper.retrieveSpatioTemporalTransactions(
+                    ruleStore.getPresentItems(ruleIndex),
+                    ruleStore.getAbsentItems(ruleIndex),
                     globalConfigurationsBean.getPpFilePath(),
                     globalConfigurationsBean.getPpFileNameAndExtension(),
                     globalConfigurationsBean.getPpFileCharset(),
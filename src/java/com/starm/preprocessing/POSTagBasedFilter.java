@@ -16,6 +16,8 @@
  */
 package com.starm.preprocessing;
 
+import java.util.Arrays;
+
 /**
  * Provides functionality for POS tags based filtration.
  * 
@@ -56,6 +58,32 @@ public class POSTagBasedFilter {
         return filteredTextToReturn;
     }
 
+    /**
+     * Performs POS tag based filtration on a tagged transaction
+     * 
+     * @param taggedTransaction POS tagged transaction to be filtered
+     * @return the filtered transaction
+     */
+    public static TaggedTransaction applyPOSBasedFilter(TaggedTransaction taggedTransaction) {
+        String[] tokens = taggedTransaction.getTokens();
+        String[] tags = taggedTransaction.getTags();
+        String[] keptTokens = new String[tokens.length];
+        String[] keptTags = new String[tags.length];
+        int numberOfKeptTokens = 0;
+
+        // perform filtration
+        for (int i = 0; i < tokens.length; i++) {
+            if (keepTag(tags[i])) {
+                keptTokens[numberOfKeptTokens] = tokens[i];
+                keptTags[numberOfKeptTokens] = tags[i];
+                ++numberOfKeptTokens;
+            }
+        }
+
+        return new TaggedTransaction(Arrays.copyOf(keptTokens, numberOfKeptTokens),
+                Arrays.copyOf(keptTags, numberOfKeptTokens));
+    }
+
     /**
      * Tests whether the token should be kept (not filtered out)
      * 
@@ -68,6 +96,17 @@ public class POSTagBasedFilter {
 
         pos = posTaggedToken.substring(posTaggedToken.indexOf("_") + 1, posTaggedToken.length());
 
+        return keepTag(pos);
+    }
+
+    /**
+     * Tests whether the token having the given POS tag should be kept (not filtered out)
+     * 
+     * @param pos POS tag of the token
+     * @return true if token is worth keeping for further processing,
+     * false if token should be discarded
+     */
+    private static boolean keepTag(String pos) {
         if (pos.equalsIgnoreCase("$")
                 || pos.equalsIgnoreCase("``")
                 || pos.equalsIgnoreCase("''")
@@ -16,7 +16,16 @@
  */
 package com.starm.preprocessing;
 
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.TaggedWord;
 import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Provides functionality for POS tagging using the MaxentTagger (Stanford POS Tagger)
@@ -25,15 +34,29 @@ import edu.stanford.nlp.tagger.maxent.MaxentTagger;
  */
 public class PosTagger {
 
-    // MaxentTagger instance variable initialized as null
+    // MaxentTagger instance variable initialized as null, default tagger, reloaded on first use after models folder changes
     private static MaxentTagger tagger = null;
     // path from which to load model
     private static String modelPath = null;
+    // folder from which to load the models of model profiles
+    private static String modelsFolderPath = "E:/wasif/myMSCS/thesis/implementation/posTagger/stanford-postagger-full-2014-01-04/models/";
+    // taggers loaded so far, per model profile
+    private static final Map<TaggerModelProfile, MaxentTagger> taggersByProfile = new EnumMap<>(TaggerModelProfile.class);
+    // cheap model profile, used when tagging a transaction exceeds its time budget
+    private static TaggerModelProfile fallbackModelProfile = TaggerModelProfile.LEFT3WORDS;
+    // maximum number of characters handed to the tagger at once
+    private static int maximumChunkLength = 1000;
+    // time budget for tagging a single transaction, in milliseconds
+    private static long timeBudgetPerTransaction = 2000;
+    // number of transactions tokenized and tagged together by posTagTransactions
+    private static int batchSize = 100;
+    // token and tag buffers, reused by each thread across transactions
+    private static final ThreadLocal<TaggingBuffers> taggingBuffers = ThreadLocal.withInitial(TaggingBuffers::new);
     
     // static initializations
     static {
-        modelPath = "E:/wasif/myMSCS/thesis/implementation/posTagger/stanford-postagger-full-2014-01-04/models/english-bidirectional-distsim.tagger";
-        tagger = new MaxentTagger(modelPath);
+        modelPath = modelsFolderPath + TaggerModelProfile.BIDIRECTIONAL.getModelFileName();
+        tagger = getTagger(TaggerModelProfile.BIDIRECTIONAL);
     }
 
     /**
@@ -59,16 +82,280 @@ public class PosTagger {
      * @return Part of Speech Tagged String 
      */
     public String tagString(String stringToTag) {
-        return tagger.tagString(stringToTag);
+        return getDefaultTagger().tagString(stringToTag);
     }
  
     /**
-     * POS tags the stringToTag
+     * POS tags the stringToTag. <br /><br />
+     * 
+     * Strings longer than maximumChunkLength are split into sentences, and the sentences 
+     * are tagged in chunks of at most maximumChunkLength characters. Once tagging the 
+     * string exceeds timeBudgetPerTransaction, the remaining chunks are tagged using 
+     * the cheap fallback tagger, so that tagging latency per transaction stays bounded.
+     * 
      * @param stringToTag string to be POS tagged
      * @return Part of Speech Tagged String 
      */
     public static String posTagString(String stringToTag) {
-        return tagger.tagString(stringToTag);
+        return posTagString(stringToTag, getDefaultTagger());
+    }
+
+    /**
+     * POS tags the stringToTag using the model of the given profile
+     * 
+     * @param stringToTag string to be POS tagged
+     * @param modelProfile model profile to tag with
+     * @return Part of Speech Tagged String 
+     * @see #posTagString(java.lang.String) 
+     */
+    public static String posTagString(String stringToTag, TaggerModelProfile modelProfile) {
+        return posTagString(stringToTag, getTagger(modelProfile));
+    }
+
+    /**
+     * POS tags the stringToTag in chunks, using primaryTagger until the time budget is exceeded
+     */
+    private static String posTagString(String stringToTag, MaxentTagger primaryTagger) {
+        long startTime;
+        List<String> chunks;
+        StringBuilder taggedStringToReturn;
+        MaxentTagger taggerToUse = primaryTagger;
+
+        // short strings are tagged as they are
+        if (stringToTag == null || stringToTag.length() <= maximumChunkLength) {
+            return primaryTagger.tagString(stringToTag);
+        }
+
+        startTime = System.currentTimeMillis();
+        chunks = SentenceSplitter.splitIntoChunks(stringToTag, maximumChunkLength);
+        taggedStringToReturn = new StringBuilder(stringToTag.length() * 2);
+
+        for (int i = 0; i < chunks.size(); i++) {
+            // switch to cheap tagger once the time budget is exceeded
+            if (taggerToUse == primaryTagger
+                    && System.currentTimeMillis() - startTime > timeBudgetPerTransaction) {
+                System.out.println(new Date() + ": Time budget exceeded, tagging remaining "
+                        + (chunks.size() - i) + " of " + chunks.size() + " chunks using fallback tagger.");
+                taggerToUse = getFallbackTagger();
+            }
+
+            if (taggedStringToReturn.length() > 0) {
+                taggedStringToReturn.append(' ');
+            }
+            taggedStringToReturn.append(taggerToUse.tagString(chunks.get(i)).trim());
+        }
+
+        return taggedStringToReturn.toString();
+    }
+
+    /**
+     * POS tags the transactions in batches of batchSize transactions
+     * 
+     * @param transactions transactions to be POS tagged
+     * @return tagged transactions, in the same order as transactions
+     */
+    public static TaggedTransaction[] posTagTransactions(List<String> transactions) {
+        return posTagTransactions(transactions, batchSize);
+    }
+
+    /**
+     * POS tags the transactions in batches of the given size. Larger batches improve 
+     * throughput, smaller batches reduce the latency of each batch.
+     * 
+     * @param transactions transactions to be POS tagged
+     * @param batchSizeToUse number of transactions to tag together, should be greater than 0
+     * @return tagged transactions, in the same order as transactions
+     */
+    public static TaggedTransaction[] posTagTransactions(List<String> transactions, int batchSizeToUse) {
+        return posTagTransactions(transactions, batchSizeToUse, null);
+    }
+
+    /**
+     * POS tags the transactions in batches of the given size, using the model of the given profile
+     * 
+     * @param transactions transactions to be POS tagged
+     * @param batchSizeToUse number of transactions to tag together, should be greater than 0
+     * @param modelProfile model profile to tag with, null for the default model
+     * @return tagged transactions, in the same order as transactions
+     */
+    public static TaggedTransaction[] posTagTransactions(List<String> transactions, int batchSizeToUse,
+            TaggerModelProfile modelProfile) {
+        TaggedTransaction[] taggedTransactionsToReturn = new TaggedTransaction[transactions.size()];
+        TaggedTransaction[] taggedBatch;
+        int batchEnd;
+
+        for (int batchStart = 0; batchStart < transactions.size(); batchStart += batchSizeToUse) {
+            batchEnd = Math.min(batchStart + batchSizeToUse, transactions.size());
+            taggedBatch = posTagBatch(transactions.subList(batchStart, batchEnd), modelProfile);
+
+            System.arraycopy(taggedBatch, 0, taggedTransactionsToReturn, batchStart, taggedBatch.length);
+        }
+
+        return taggedTransactionsToReturn;
+    }
+
+    /**
+     * POS tags a block of transactions. All transactions of the block are tokenized 
+     * first, then tagged sentence by sentence using per-thread buffers. Sentences are 
+     * chunked and the time budget is applied per transaction, as for posTagString().
+     * 
+     * @param batch block of transactions to be POS tagged
+     * @return tagged transactions, in the same order as batch
+     */
+    public static TaggedTransaction[] posTagBatch(List<String> batch) {
+        return posTagBatch(batch, null);
+    }
+
+    /**
+     * POS tags a block of transactions using the model of the given profile
+     * 
+     * @param batch block of transactions to be POS tagged
+     * @param modelProfile model profile to tag with, null for the default model
+     * @return tagged transactions, in the same order as batch
+     * @see #posTagBatch(java.util.List) 
+     */
+    public static TaggedTransaction[] posTagBatch(List<String> batch, TaggerModelProfile modelProfile) {
+        MaxentTagger primaryTagger = (modelProfile == null) ? getDefaultTagger() : getTagger(modelProfile);
+        long startTime = System.currentTimeMillis();
+        long elapsedTime;
+        long numberOfTokens = 0;
+        List<List<List<HasWord>>> tokenizedBatch = new ArrayList<>(batch.size());
+        TaggedTransaction[] taggedBatchToReturn = new TaggedTransaction[batch.size()];
+
+        // tokenize whole batch
+        for (String transaction : batch) {
+            tokenizedBatch.add(tokenize(transaction));
+        }
+
+        // tag each transaction
+        for (int i = 0; i < tokenizedBatch.size(); i++) {
+            taggedBatchToReturn[i] = tagSentences(tokenizedBatch.get(i), primaryTagger);
+            numberOfTokens += taggedBatchToReturn[i].size();
+        }
+
+        elapsedTime = Math.max(1, System.currentTimeMillis() - startTime);
+        System.out.println(new Date() + ": Tagged batch of " + batch.size() + " transactions, "
+                + numberOfTokens + " tokens in " + elapsedTime + " ms ("
+                + (numberOfTokens * 1000 / elapsedTime) + " tokens/sec).");
+
+        return taggedBatchToReturn;
+    }
+
+    /**
+     * Tokenizes the text into sentences of tokens
+     * 
+     * @param textToTokenize text to be tokenized
+     * @return list of sentences, each sentence being list of tokens
+     */
+    private static List<List<HasWord>> tokenize(String textToTokenize) {
+        if (textToTokenize == null || textToTokenize.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return MaxentTagger.tokenizeText(new StringReader(textToTokenize));
+    }
+
+    /**
+     * Tags the tokenized sentences of a single transaction
+     * 
+     * @param sentences tokenized sentences of the transaction
+     * @param primaryTagger tagger to use until the time budget is exceeded
+     * @return the tagged transaction
+     */
+    private static TaggedTransaction tagSentences(List<List<HasWord>> sentences, MaxentTagger primaryTagger) {
+        TaggingBuffers buffers = taggingBuffers.get();
+        long startTime = System.currentTimeMillis();
+        MaxentTagger taggerToUse = primaryTagger;
+
+        buffers.clear();
+
+        for (List<HasWord> sentence : sentences) {
+            for (List<HasWord> chunk : chunkSentence(sentence)) {
+                // switch to cheap tagger once the time budget is exceeded
+                if (taggerToUse == primaryTagger
+                        && System.currentTimeMillis() - startTime > timeBudgetPerTransaction) {
+                    System.out.println(new Date() + ": Time budget exceeded, tagging remaining sentences using fallback tagger.");
+                    taggerToUse = getFallbackTagger();
+                }
+
+                for (TaggedWord taggedWord : taggerToUse.tagSentence(chunk)) {
+                    buffers.tokens.add(taggedWord.word());
+                    buffers.tags.add(taggedWord.tag());
+                }
+            }
+        }
+
+        return new TaggedTransaction(buffers.tokens.toArray(new String[buffers.tokens.size()]),
+                buffers.tags.toArray(new String[buffers.tags.size()]));
+    }
+
+    /**
+     * Splits a tokenized sentence into chunks of at most maximumChunkLength characters
+     * 
+     * @param sentence tokenized sentence
+     * @return chunks of the sentence, as views of sentence
+     */
+    private static List<List<HasWord>> chunkSentence(List<HasWord> sentence) {
+        List<List<HasWord>> chunksToReturn = new ArrayList<>();
+        int chunkStart = 0;
+        int chunkLength = 0;
+
+        for (int i = 0; i < sentence.size(); i++) {
+            int tokenLength = sentence.get(i).word().length() + 1;
+
+            if (chunkLength + tokenLength > maximumChunkLength && i > chunkStart) {
+                chunksToReturn.add(sentence.subList(chunkStart, i));
+                chunkStart = i;
+                chunkLength = 0;
+            }
+            chunkLength += tokenLength;
+        }
+
+        if (chunkStart < sentence.size()) {
+            chunksToReturn.add(sentence.subList(chunkStart, sentence.size()));
+        }
+
+        return chunksToReturn;
+    }
+
+    /**
+     * Finds the tagger for the model profile, loads the model on first use
+     * 
+     * @param modelProfile model profile for which to find the tagger
+     * @return the tagger for the model profile
+     */
+    public static synchronized MaxentTagger getTagger(TaggerModelProfile modelProfile) {
+        MaxentTagger taggerToReturn = taggersByProfile.get(modelProfile);
+
+        if (taggerToReturn == null) {
+            System.out.println(new Date() + ": Loading tagger model profile " + modelProfile);
+            taggerToReturn = new MaxentTagger(modelsFolderPath + modelProfile.getModelFileName());
+            taggersByProfile.put(modelProfile, taggerToReturn);
+        }
+
+        return taggerToReturn;
+    }
+
+    /**
+     * Finds the default tagger, loads the BIDIRECTIONAL model from the models folder 
+     * if the models folder has changed since it was loaded
+     * 
+     * @return the default tagger
+     */
+    private static synchronized MaxentTagger getDefaultTagger() {
+        if (tagger == null) {
+            modelPath = modelsFolderPath + TaggerModelProfile.BIDIRECTIONAL.getModelFileName();
+            tagger = getTagger(TaggerModelProfile.BIDIRECTIONAL);
+        }
+
+        return tagger;
+    }
+
+    /**
+     * @return the tagger for the fallback model profile
+     */
+    private static MaxentTagger getFallbackTagger() {
+        return getTagger(fallbackModelProfile);
     }
     
     /**
@@ -95,4 +382,60 @@ public class PosTagger {
         return posTagRemovedString;
     }
 
-}
\ No newline at end of file
+    public static int getMaximumChunkLength() {
+        return maximumChunkLength;
+    }
+
+    public static void setMaximumChunkLength(int maximumChunkLength) {
+        PosTagger.maximumChunkLength = maximumChunkLength;
+    }
+
+    public static long getTimeBudgetPerTransaction() {
+        return timeBudgetPerTransaction;
+    }
+
+    public static void setTimeBudgetPerTransaction(long timeBudgetPerTransaction) {
+        PosTagger.timeBudgetPerTransaction = timeBudgetPerTransaction;
+    }
+
+    public static int getBatchSize() {
+        return batchSize;
+    }
+
+    public static void setBatchSize(int batchSize) {
+        PosTagger.batchSize = batchSize;
+    }
+
+    public static TaggerModelProfile getFallbackModelProfile() {
+        return fallbackModelProfile;
+    }
+
+    public static void setFallbackModelProfile(TaggerModelProfile fallbackModelProfile) {
+        PosTagger.fallbackModelProfile = fallbackModelProfile;
+    }
+
+    public static String getModelsFolderPath() {
+        return modelsFolderPath;
+    }
+
+    public static synchronized void setModelsFolderPath(String modelsFolderPath) {
+        PosTagger.modelsFolderPath = modelsFolderPath;
+        PosTagger.taggersByProfile.clear();
+        PosTagger.tagger = null;
+    }
+
+    /**
+     * Token and tag buffers, reused across transactions by a single thread
+     */
+    private static class TaggingBuffers {
+
+        private final List<String> tokens = new ArrayList<>(256);
+        private final List<String> tags = new ArrayList<>(256);
+
+        private void clear() {
+            tokens.clear();
+            tags.clear();
+        }
+    }
+
+}
@@ -57,6 +57,16 @@ import java.util.logging.Logger;
  */
 public class Preprocessor {
 
+    // model profile used for POS tagging
+    private TaggerModelProfile taggerModelProfile = TaggerModelProfile.BIDIRECTIONAL;
+
+    // if true, collapse classes of WordNet synonyms into canonical terms, instead of only replacing base forms
+    private boolean synonymClustering = false;
+
+    // vocabulary size before and after synonym replacement, for reporting
+    private int numberOfTermsBeforeSynonymReplacement = 0;
+    private int numberOfTermsAfterSynonymReplacement = 0;
+
     /**
      * Preprocesses the input file and saves in the same folder with file name
      * extended with _pp postfix. Considers the input file to be of charset StandardCharsets.ISO_8859_1
@@ -87,7 +97,9 @@ public class Preprocessor {
         HashMap<String, String> uniqueTermsIndex = new HashMap<>();
         Path outputFilePath = null;
         String transaction = null;
-        Map synonymReplacementMap;
+        TaggedTransaction[] taggedBatch;
+        int batchEnd;
+        Map<String, String> synonymReplacementMap;
         Logger logger = Logger.getLogger(Preprocessor.class.getName());
 
         System.out.println(new Date() + ": Reading all lines...");
@@ -105,64 +117,86 @@ public class Preprocessor {
         CharactersAnalysis.printUniqueCharacters(transactions);
         System.out.println(new Date() + ": Printed all characters...");
 
-        // preprocess each transaction
-        for (int i = 0; i < transactions.size(); i++) {
-            // get transaction
-            transaction = transactions.get(i);
+        // preprocess transactions in batches, POS tagging a whole batch at a time
+        for (int batchStart = 0; batchStart < transactions.size(); batchStart += PosTagger.getBatchSize()) {
+            batchEnd = Math.min(batchStart + PosTagger.getBatchSize(), transactions.size());
 
-            System.out.println("Preprocessing transaction: " + (i + 1) + " out of " + transactions.size() + " for " + fileNameAndExtension);
-            System.out.println("-------------------------------------------");
-            System.out.println(new Date() + ": Normalizing: " + transaction);
+            // normalize each transaction of the batch
+            for (int i = batchStart; i < batchEnd; i++) {
+                // get transaction
+                transaction = transactions.get(i);
 
-            // normalize case
-            transaction = Normalizer.normalize(transaction);
+                System.out.println(new Date() + ": Normalizing: " + transaction);
 
-            // normalize slashes
-            transaction = Normalizer.normalizeSlashes(transaction);
-            System.out.println(new Date() + ": Normalized: " + transaction);
+                // normalize case
+                transaction = Normalizer.normalize(transaction);
 
-            System.out.println(new Date() + ": POS Tagging: " + transaction);
+                // normalize slashes
+                transaction = Normalizer.normalizeSlashes(transaction);
+                System.out.println(new Date() + ": Normalized: " + transaction);
+
+                // update transactions
+                transactions.set(i, transaction);
+            }
+
+            System.out.println(new Date() + ": POS Tagging transactions: " + (batchStart + 1) + " to " + batchEnd);
 
             // pos tag
-            transaction = PosTagger.posTagString(transaction);
-            System.out.println(new Date() + ": POS Tagged: " + transaction);
+            taggedBatch = PosTagger.posTagBatch(transactions.subList(batchStart, batchEnd), taggerModelProfile);
+            System.out.println(new Date() + ": POS Tagged transactions: " + (batchStart + 1) + " to " + batchEnd);
 
-            System.out.println(new Date() + ": Filtering: " + transaction);
+            // preprocess each transaction of the batch
+            for (int i = batchStart; i < batchEnd; i++) {
+                System.out.println("Preprocessing transaction: " + (i + 1) + " out of " + transactions.size() + " for " + fileNameAndExtension);
+                System.out.println("-------------------------------------------");
 
-            // apply pos tag based filter
-            transaction = POSTagBasedFilter.applyPOSBasedFilter(transaction);
-            System.out.println(new Date() + ": Filtered: " + transaction);
+                System.out.println(new Date() + ": Filtering: " + taggedBatch[i - batchStart].toTaggedString("_"));
 
-            System.out.println(new Date() + ": Cleaning: " + transaction);
+                // apply pos tag based filter
+                transaction = POSTagBasedFilter.applyPOSBasedFilter(taggedBatch[i - batchStart]).toTaggedString("_");
+                System.out.println(new Date() + ": Filtered: " + transaction);
 
-            // clean
-            transaction = Cleaner.cleanString(transaction, "_");
-            System.out.println(new Date() + ": Cleaned: " + transaction);
+                System.out.println(new Date() + ": Cleaning: " + transaction);
 
-            System.out.println(new Date() + ": Lemmatizing: " + transaction);
+                // clean
+                transaction = Cleaner.cleanString(transaction, "_");
+                System.out.println(new Date() + ": Cleaned: " + transaction);
 
-            // lemmatize
-            transaction = Lemmatizer.lemmatizeString(transaction, "_");
-            System.out.println(new Date() + ": Lemmatized: " + transaction);
+                System.out.println(new Date() + ": Lemmatizing: " + transaction);
 
-            System.out.println(new Date() + ": Removing stop words: " + transaction);
+                // lemmatize
+                transaction = Lemmatizer.lemmatizeString(transaction, "_");
+                System.out.println(new Date() + ": Lemmatized: " + transaction);
 
-            // remove stop words
-            transaction = StopWordRemover.removeStopWords(transaction, "_");
-            System.out.println(new Date() + ": Stop words removed: " + transaction);
+                System.out.println(new Date() + ": Removing stop words: " + transaction);
 
-            // add to unique terms index
-            // index contains terms as well as their pos tags
-            uniqueTermsIndex.putAll(SynonymReplacer.stringToMap(transaction, " ", "_"));
+                // remove stop words
+                transaction = StopWordRemover.removeStopWords(transaction, "_");
+                System.out.println(new Date() + ": Stop words removed: " + transaction);
 
-            System.out.println("-------------------------------------------");
+                // add to unique terms index
+                // index contains terms as well as their pos tags
+                uniqueTermsIndex.putAll(SynonymReplacer.stringToMap(transaction, " ", "_"));
 
-            // update transactions
-            transactions.set(i, transaction);
+                System.out.println("-------------------------------------------");
+
+                // update transactions
+                transactions.set(i, transaction);
+            }
         }
 
         // build synonym replacement map
-        synonymReplacementMap = SynonymReplacer.buildSynonymReplacementMap(uniqueTermsIndex);
+        if (synonymClustering) {
+            synonymReplacementMap = SynonymReplacer.buildSynonymClusterMap(uniqueTermsIndex);
+        } else {
+            synonymReplacementMap = SynonymReplacer.buildSynonymReplacementMap(uniqueTermsIndex);
+        }
+
+        numberOfTermsBeforeSynonymReplacement = uniqueTermsIndex.size();
+        numberOfTermsAfterSynonymReplacement = SynonymReplacer.countTermsAfterReplacement(uniqueTermsIndex.keySet(),
+                synonymReplacementMap);
+        System.out.println(new Date() + ": Synonym replacement reduces " + numberOfTermsBeforeSynonymReplacement
+                + " terms to " + numberOfTermsAfterSynonymReplacement + " terms.");
 
         // post-process each transaction 
         // replace synonyms
@@ -224,6 +258,30 @@ public class Preprocessor {
         return processSuccessStatus = true;
     }
 
+    public TaggerModelProfile getTaggerModelProfile() {
+        return taggerModelProfile;
+    }
+
+    public void setTaggerModelProfile(TaggerModelProfile taggerModelProfile) {
+        this.taggerModelProfile = taggerModelProfile;
+    }
+
+    public boolean isSynonymClustering() {
+        return synonymClustering;
+    }
+
+    public void setSynonymClustering(boolean synonymClustering) {
+        this.synonymClustering = synonymClustering;
+    }
+
+    public int getNumberOfTermsBeforeSynonymReplacement() {
+        return numberOfTermsBeforeSynonymReplacement;
+    }
+
+    public int getNumberOfTermsAfterSynonymReplacement() {
+        return numberOfTermsAfterSynonymReplacement;
+    }
+
     /**
      * @param args the command line arguments
      */
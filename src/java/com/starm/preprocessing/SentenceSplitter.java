@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides sentence segmentation and chunking of long texts, so that the
+ * POS tagger is never handed an unbounded run-on post
+ *
+ * @author Wasif Altaf
+ */
+public class SentenceSplitter {
+
+    private SentenceSplitter() {
+    }
+
+    /**
+     * Splits the text into sentences. A sentence ends at one or more of '.', '!' or '?'
+     * followed by white space, or at a line break.
+     *
+     * @param textToSplit text to be split into sentences
+     * @return list of trimmed, non-empty sentences
+     */
+    public static List<String> splitIntoSentences(String textToSplit) {
+        List<String> sentencesToReturn = new ArrayList<>();
+        int sentenceStart = 0;
+        char c;
+
+        if (textToSplit == null) {
+            return sentencesToReturn;
+        }
+
+        for (int i = 0; i < textToSplit.length(); i++) {
+            c = textToSplit.charAt(i);
+
+            if (c == '\n' || c == '\r') {
+                addSentence(sentencesToReturn, textToSplit.substring(sentenceStart, i));
+                sentenceStart = i + 1;
+            } else if ((c == '.' || c == '!' || c == '?')
+                    && (i + 1 == textToSplit.length() || Character.isWhitespace(textToSplit.charAt(i + 1)))) {
+                addSentence(sentencesToReturn, textToSplit.substring(sentenceStart, i + 1));
+                sentenceStart = i + 1;
+            }
+        }
+
+        // remaining text without sentence terminator
+        if (sentenceStart < textToSplit.length()) {
+            addSentence(sentencesToReturn, textToSplit.substring(sentenceStart));
+        }
+
+        return sentencesToReturn;
+    }
+
+    /**
+     * Splits the text into chunks of at most maximumChunkLength characters.
+     * Sentences are packed together into a chunk as long as they fit,
+     * sentences longer than maximumChunkLength are broken at white space
+     * (or hard broken if they contain no white space).
+     *
+     * @param textToSplit text to be split into chunks
+     * @param maximumChunkLength maximum number of characters in a chunk, should be greater than 0
+     * @return list of chunks
+     */
+    public static List<String> splitIntoChunks(String textToSplit, int maximumChunkLength) {
+        List<String> chunksToReturn = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder(maximumChunkLength);
+
+        for (String sentence : splitIntoSentences(textToSplit)) {
+            // sentence fits in the chunk in hand
+            if (chunk.length() + sentence.length() + 1 <= maximumChunkLength) {
+                if (chunk.length() > 0) {
+                    chunk.append(' ');
+                }
+                chunk.append(sentence);
+                continue;
+            }
+
+            // flush the chunk in hand
+            if (chunk.length() > 0) {
+                chunksToReturn.add(chunk.toString());
+                chunk.setLength(0);
+            }
+
+            if (sentence.length() <= maximumChunkLength) {
+                chunk.append(sentence);
+            } else {
+                // run-on sentence, break it at white space
+                chunksToReturn.addAll(breakLongSentence(sentence, maximumChunkLength));
+            }
+        }
+
+        if (chunk.length() > 0) {
+            chunksToReturn.add(chunk.toString());
+        }
+
+        return chunksToReturn;
+    }
+
+    /**
+     * Breaks a sentence longer than maximumChunkLength at the last white space
+     * before the limit
+     *
+     * @param sentence sentence to be broken
+     * @param maximumChunkLength maximum number of characters in a piece
+     * @return the pieces of the sentence
+     */
+    private static List<String> breakLongSentence(String sentence, int maximumChunkLength) {
+        List<String> piecesToReturn = new ArrayList<>();
+        int start = 0;
+        int end;
+
+        while (start < sentence.length()) {
+            end = Math.min(start + maximumChunkLength, sentence.length());
+
+            if (end < sentence.length()) {
+                int lastSpace = sentence.lastIndexOf(' ', end);
+
+                if (lastSpace > start) {
+                    end = lastSpace;
+                }
+            }
+
+            addSentence(piecesToReturn, sentence.substring(start, end));
+            start = end;
+        }
+
+        return piecesToReturn;
+    }
+
+    /**
+     * Adds the trimmed sentence to the list if it is not empty
+     */
+    private static void addSentence(List<String> sentences, String sentence) {
+        sentence = sentence.trim();
+
+        if (!sentence.isEmpty()) {
+            sentences.add(sentence);
+        }
+    }
+
+}
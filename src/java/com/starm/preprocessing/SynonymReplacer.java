@@ -16,8 +16,14 @@
  */
 package com.starm.preprocessing;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Provides synonym replacement functionality 
@@ -26,6 +32,8 @@ import java.util.Map;
  */
 public class SynonymReplacer {
 
+    private static String wordNetHomePath = "E:\\wasif\\myMSCS\\thesis\\implementation\\wordnet\\WordNet-3.0";
+
     /**
      * Performs synonym replacement using words contained in synonym replacement map
      * 
@@ -110,12 +118,11 @@ public class SynonymReplacer {
      * and POS tags for respective words as values
      * @return the synonym replacement map containing words and keys, and their replacements as values 
      */
-    public static HashMap buildSynonymReplacementMap(HashMap<String, String> uniqueTermsIndex) {
+    public static HashMap<String, String> buildSynonymReplacementMap(HashMap<String, String> uniqueTermsIndex) {
         HashMap<String, String> synonymReplacementMap = new HashMap<>();
         String word;
         String posTag;
-        String wnhome = "E:\\wasif\\myMSCS\\thesis\\implementation\\wordnet\\WordNet-3.0";
-        WordNetDictionary dictionary = new WordNetDictionary(wnhome);
+        WordNetDictionary dictionary = new WordNetDictionary(wordNetHomePath);
         String[] baseForms;
         String[] synonyms;
 
@@ -238,4 +245,148 @@ public class SynonymReplacer {
 
         return synonymReplacementMap;
     }
+
+    /**
+     * Builds synonym cluster map by grouping the terms of unique terms index into 
+     * equivalence classes. Two terms fall in the same class if one is a base form 
+     * of the other, or if one is a synonym or derivationally related form of the other 
+     * as per WordNet synsets. Each class is replaced by one canonical term, the shortest 
+     * term of the class, ties broken alphabetically. <br /><br />
+     * 
+     * Unlike buildSynonymReplacementMap(), links are followed transitively, so that 
+     * a whole group of synonyms collapses into a single term-by-document matrix column.
+     * 
+     * @param uniqueTermsIndex unique terms index containing words as keys, 
+     * and POS tags for respective words as values
+     * @return the synonym cluster map containing words as keys, and canonical terms of their 
+     * classes as values, only for words which are not canonical terms themselves
+     */
+    public static HashMap<String, String> buildSynonymClusterMap(HashMap<String, String> uniqueTermsIndex) {
+        HashMap<String, String> synonymClusterMap = new HashMap<>();
+        WordNetDictionary dictionary = new WordNetDictionary(wordNetHomePath);
+        List<String> terms = new ArrayList<>(uniqueTermsIndex.keySet());
+        Map<String, Integer> termIds = new HashMap<>();
+        int[] parent;
+        String[] canonicalTerms;
+        String[] baseForms;
+        String[] synonyms;
+        String term;
+        int root;
+
+        System.out.println(new Date() + ": Building synonym clusters for " + terms.size() + " terms...");
+
+        // sorted, so that clusters and canonical terms do not depend on hash order
+        Collections.sort(terms);
+        parent = new int[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            termIds.put(terms.get(i), i);
+            parent[i] = i;
+        }
+
+        try {
+            for (int i = 0; i < terms.size(); i++) {
+                term = terms.get(i);
+
+                // base form links
+                baseForms = dictionary.getBaseFormCandidates(term);
+                if (baseForms != null) {
+                    for (String baseForm : baseForms) {
+                        unionTerms(parent, termIds, i, baseForm);
+                    }
+                }
+
+                // synonym and derivational links
+                synonyms = dictionary.findSynonyms(term, uniqueTermsIndex.get(term));
+                if (synonyms != null) {
+                    for (String synonym : synonyms) {
+                        unionTerms(parent, termIds, i, synonym);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Exception in SynonymReplacer while building synonym cluster map.");
+            e.printStackTrace();
+        }
+
+        // pick canonical term of each class, the shortest and then alphabetically first term
+        canonicalTerms = new String[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            root = findRoot(parent, i);
+            term = terms.get(i);
+
+            if (canonicalTerms[root] == null
+                    || term.length() < canonicalTerms[root].length()
+                    || (term.length() == canonicalTerms[root].length() && term.compareTo(canonicalTerms[root]) < 0)) {
+                canonicalTerms[root] = term;
+            }
+        }
+
+        for (int i = 0; i < terms.size(); i++) {
+            term = terms.get(i);
+            root = findRoot(parent, i);
+
+            if (!term.equals(canonicalTerms[root])) {
+                synonymClusterMap.put(term, canonicalTerms[root]);
+            }
+        }
+
+        System.out.println(new Date() + ": Built synonym clusters, " + terms.size() + " terms reduced to "
+                + (terms.size() - synonymClusterMap.size()) + " terms.");
+
+        return synonymClusterMap;
+    }
+
+    /**
+     * Counts the distinct terms remaining after applying the replacement map to the terms
+     * 
+     * @param terms terms before replacement
+     * @param replacementMap map containing words and their replacements
+     * @return number of distinct terms after replacement
+     */
+    public static int countTermsAfterReplacement(Set<String> terms, Map<String, String> replacementMap) {
+        Set<String> replacedTerms = new HashSet<>();
+
+        for (String term : terms) {
+            replacedTerms.add(replacementMap.containsKey(term) ? replacementMap.get(term) : term);
+        }
+
+        return replacedTerms.size();
+    }
+
+    /**
+     * Merges the class of term i with the class of the related word, if the related 
+     * word is contained in the terms index
+     */
+    private static void unionTerms(int[] parent, Map<String, Integer> termIds, int i, String relatedWord) {
+        Integer j = termIds.get(relatedWord.toLowerCase());
+
+        if (j != null) {
+            int rootOfI = findRoot(parent, i);
+            int rootOfJ = findRoot(parent, j);
+
+            if (rootOfI != rootOfJ) {
+                parent[Math.max(rootOfI, rootOfJ)] = Math.min(rootOfI, rootOfJ);
+            }
+        }
+    }
+
+    /**
+     * Finds the root of the class of term i, compressing the path on the way
+     */
+    private static int findRoot(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+
+        return i;
+    }
+
+    public static String getWordNetHomePath() {
+        return wordNetHomePath;
+    }
+
+    public static void setWordNetHomePath(String wordNetHomePath) {
+        SynonymReplacer.wordNetHomePath = wordNetHomePath;
+    }
 }
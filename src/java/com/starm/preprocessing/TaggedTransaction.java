@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing;
+
+/**
+ * POS tagged transaction, held as parallel arrays of tokens and their POS tags
+ *
+ * @author Wasif Altaf
+ */
+public class TaggedTransaction {
+
+    private final String[] tokens;
+    private final String[] tags;
+
+    /**
+     * Constructs TaggedTransaction from parallel arrays of tokens and tags
+     *
+     * @param tokens tokens of the transaction
+     * @param tags POS tags of the tokens, should be of same length as tokens
+     */
+    public TaggedTransaction(String[] tokens, String[] tags) {
+        this.tokens = tokens;
+        this.tags = tags;
+    }
+
+    /**
+     * @return number of tokens in the transaction
+     */
+    public int size() {
+        return tokens.length;
+    }
+
+    /**
+     * Converts the transaction into POS tagged String, such as produced by MaxentTagger.tagString()
+     *
+     * @param posTagSeparatorChar the char(s) with which to separate token and POS tag
+     * @return space separated POS tagged String
+     */
+    public String toTaggedString(String posTagSeparatorChar) {
+        StringBuilder taggedStringToReturn = new StringBuilder(tokens.length * 12);
+
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0) {
+                taggedStringToReturn.append(' ');
+            }
+            taggedStringToReturn.append(tokens[i]).append(posTagSeparatorChar).append(tags[i]);
+        }
+
+        return taggedStringToReturn.toString();
+    }
+
+    public String[] getTokens() {
+        return tokens;
+    }
+
+    public String[] getTags() {
+        return tags;
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Calibrates the tagger model profiles on a sample of a corpus. Each profile tags 
+ * the same sample, and is reported with its throughput (tokens/sec) and its tag 
+ * agreement with the most accurate profile, so that the fastest acceptable 
+ * profile can be picked per dataset.
+ * 
+ * @see com.starm.preprocessing.TaggerModelProfile
+ * 
+ * @author Wasif Altaf
+ */
+public class TaggerCalibrator {
+
+    /**
+     * Calibrates all the tagger model profiles on a sample of the transactions
+     * 
+     * @param transactions transactions from which to take the sample
+     * @param sampleSize number of transactions to sample
+     * @return calibration results, one for each model profile, in the order of TaggerModelProfile.values()
+     */
+    public List<CalibrationResult> calibrate(List<String> transactions, int sampleSize) {
+        List<CalibrationResult> resultsToReturn = new ArrayList<>();
+        List<List<List<HasWord>>> tokenizedSample = new ArrayList<>();
+        TaggerModelProfile[] profiles = TaggerModelProfile.values();
+        TaggerModelProfile referenceProfile = profiles[profiles.length - 1];
+        List<String> referenceTags;
+        List<String> tags;
+
+        // sample and tokenize once, so that all profiles tag the same tokens
+        for (String transaction : sample(transactions, sampleSize)) {
+            transaction = Normalizer.normalizeSlashes(Normalizer.normalize(transaction));
+
+            if (transaction != null && !transaction.trim().isEmpty()) {
+                tokenizedSample.add(MaxentTagger.tokenizeText(new StringReader(transaction)));
+            }
+        }
+
+        System.out.println(new Date() + ": Calibrating taggers on " + tokenizedSample.size() + " transactions...");
+
+        // tag with reference profile first
+        referenceTags = new ArrayList<>();
+        CalibrationResult referenceResult = tagSample(referenceProfile, tokenizedSample, referenceTags);
+        referenceResult.agreement = 1.0f;
+
+        for (TaggerModelProfile profile : profiles) {
+            if (profile == referenceProfile) {
+                resultsToReturn.add(referenceResult);
+                continue;
+            }
+
+            tags = new ArrayList<>(referenceTags.size());
+            CalibrationResult result = tagSample(profile, tokenizedSample, tags);
+            result.agreement = calculateAgreement(referenceTags, tags);
+
+            resultsToReturn.add(result);
+        }
+
+        for (CalibrationResult result : resultsToReturn) {
+            System.out.println(new Date() + ": " + result);
+        }
+
+        return resultsToReturn;
+    }
+
+    /**
+     * Selects the fastest model profile whose tag agreement with the most accurate
+     * profile is at least minimumAgreement
+     * 
+     * @param results calibration results
+     * @param minimumAgreement minimum acceptable agreement, between 0 and 1
+     * @return the fastest acceptable model profile, or the most accurate profile if no profile is acceptable
+     */
+    public static TaggerModelProfile selectFastestAcceptableProfile(List<CalibrationResult> results, float minimumAgreement) {
+        CalibrationResult selectedResult = null;
+        TaggerModelProfile[] profiles = TaggerModelProfile.values();
+
+        for (CalibrationResult result : results) {
+            if (result.agreement >= minimumAgreement
+                    && (selectedResult == null || result.tokensPerSecond > selectedResult.tokensPerSecond)) {
+                selectedResult = result;
+            }
+        }
+
+        return (selectedResult == null) ? profiles[profiles.length - 1] : selectedResult.profile;
+    }
+
+    /**
+     * Tags the tokenized sample using the model profile, and measures tagging throughput
+     * 
+     * @param profile model profile to tag with
+     * @param tokenizedSample tokenized sample
+     * @param tags list to which to add tags of all tokens, in order
+     * @return calibration result without agreement
+     */
+    private CalibrationResult tagSample(TaggerModelProfile profile, List<List<List<HasWord>>> tokenizedSample, List<String> tags) {
+        CalibrationResult result = new CalibrationResult(profile);
+        MaxentTagger tagger = PosTagger.getTagger(profile);
+        long startTime = System.currentTimeMillis();
+
+        for (List<List<HasWord>> sentences : tokenizedSample) {
+            for (List<HasWord> sentence : sentences) {
+                for (TaggedWord taggedWord : tagger.tagSentence(sentence)) {
+                    tags.add(taggedWord.tag());
+                }
+            }
+        }
+
+        result.numberOfTokens = tags.size();
+        result.milliseconds = Math.max(1, System.currentTimeMillis() - startTime);
+        result.tokensPerSecond = result.numberOfTokens * 1000f / result.milliseconds;
+
+        return result;
+    }
+
+    /**
+     * Calculates the fraction of tokens for which tags agree with reference tags
+     * 
+     * @param referenceTags tags assigned by the reference profile
+     * @param tags tags assigned to the same tokens by another profile
+     * @return agreement between 0 and 1
+     */
+    private static float calculateAgreement(List<String> referenceTags, List<String> tags) {
+        int agreeingTags = 0;
+        int numberOfTags = Math.min(referenceTags.size(), tags.size());
+
+        if (numberOfTags == 0) {
+            return 1.0f;
+        }
+
+        for (int i = 0; i < numberOfTags; i++) {
+            if (referenceTags.get(i).equals(tags.get(i))) {
+                ++agreeingTags;
+            }
+        }
+
+        return (float) agreeingTags / Math.max(referenceTags.size(), tags.size());
+    }
+
+    /**
+     * Takes evenly spaced sample from the transactions
+     * 
+     * @param transactions transactions from which to sample
+     * @param sampleSize number of transactions to sample
+     * @return the sampled transactions
+     */
+    public static List<String> sample(List<String> transactions, int sampleSize) {
+        List<String> sampleToReturn = new ArrayList<>(sampleSize);
+        double step;
+
+        if (sampleSize >= transactions.size()) {
+            return new ArrayList<>(transactions);
+        }
+
+        step = (double) transactions.size() / sampleSize;
+        for (int i = 0; i < sampleSize; i++) {
+            sampleToReturn.add(transactions.get((int) (i * step)));
+        }
+
+        return sampleToReturn;
+    }
+
+    /**
+     * Calibration result of a tagger model profile
+     */
+    public static class CalibrationResult {
+
+        private final TaggerModelProfile profile;
+        private long numberOfTokens;
+        private long milliseconds;
+        private float tokensPerSecond;
+        private float agreement;
+
+        private CalibrationResult(TaggerModelProfile profile) {
+            this.profile = profile;
+        }
+
+        public TaggerModelProfile getProfile() {
+            return profile;
+        }
+
+        public long getNumberOfTokens() {
+            return numberOfTokens;
+        }
+
+        public long getMilliseconds() {
+            return milliseconds;
+        }
+
+        public float getTokensPerSecond() {
+            return tokensPerSecond;
+        }
+
+        public float getAgreement() {
+            return agreement;
+        }
+
+        @Override
+        public String toString() {
+            return profile + ": " + numberOfTokens + " tokens in " + milliseconds + " ms, "
+                    + Math.round(tokensPerSecond) + " tokens/sec, agreement " + Math.round(agreement * 10000) / 100f + "%";
+        }
+    }
+
+    /**
+     * Calibrates the tagger model profiles on a sample of the transactions file
+     * 
+     * @param args folder path, file name and extension, and optionally sample size of the transactions file
+     */
+    public static void main(String[] args) {
+        String filePath = "E:\\wasif\\myMSCS\\thesis\\experimentation\\spatiotemporal";
+        String fileNameAndExtension = "angioplasty.org_v4_0_USA_t.txt";
+        int sampleSize = 200;
+        List<CalibrationResult> results;
+
+        if (args.length >= 2) {
+            filePath = args[0];
+            fileNameAndExtension = args[1];
+        }
+        if (args.length >= 3) {
+            sampleSize = Integer.parseInt(args[2]);
+        }
+
+        try {
+            results = new TaggerCalibrator().calibrate(Files.readAllLines(FileSystems.getDefault().getPath(filePath, fileNameAndExtension),
+                    StandardCharsets.ISO_8859_1), sampleSize);
+
+            System.out.println("Fastest profile with at least 97% agreement : "
+                    + selectFastestAcceptableProfile(results, 0.97f));
+        } catch (IOException ex) {
+            Logger.getLogger(TaggerCalibrator.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+}
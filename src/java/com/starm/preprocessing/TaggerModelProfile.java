@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing;
+
+/**
+ * Named Stanford POS Tagger models, ordered from fastest to most accurate
+ * 
+ * @author Wasif Altaf
+ */
+public enum TaggerModelProfile {
+
+    LEFT3WORDS("english-left3words-distsim.tagger"),
+    BIDIRECTIONAL("english-bidirectional-distsim.tagger");
+
+    private final String modelFileName;
+
+    private TaggerModelProfile(String modelFileName) {
+        this.modelFileName = modelFileName;
+    }
+
+    public String getModelFileName() {
+        return modelFileName;
+    }
+
+}
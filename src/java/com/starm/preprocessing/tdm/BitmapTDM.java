@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.List;
+
+/**
+ * Binary term-by-document matrix held as compressed bitmaps, for BINARY and IDF weighting, 
+ * whose weight of a term is the same in all transactions containing it. <br /><br />
+ * 
+ * Each row bitmap holds the terms contained in a transaction, and each column bitmap 
+ * holds the transactions containing a term. Support of a term is the cardinality of its 
+ * column bitmap, a constant time lookup, which pruning uses to drop terms below minimum 
+ * support, and NativeFPGrowthARMiner uses for support of items.
+ *
+ * @see com.starm.preprocessing.tdm.CompressedBitmap
+ * 
+ * @author Wasif Altaf
+ */
+public class BitmapTDM {
+
+    private final CompressedBitmap[] rowBitmaps;
+    private final CompressedBitmap[] columnBitmaps;
+
+    /**
+     * Constructs empty BitmapTDM
+     *
+     * @param numberOfRows number of rows i.e. transactions
+     * @param numberOfColumns number of columns i.e. terms
+     */
+    public BitmapTDM(int numberOfRows, int numberOfColumns) {
+        rowBitmaps = new CompressedBitmap[numberOfRows];
+        columnBitmaps = new CompressedBitmap[numberOfColumns];
+
+        for (int i = 0; i < numberOfRows; i++) {
+            rowBitmaps[i] = new CompressedBitmap();
+        }
+        for (int j = 0; j < numberOfColumns; j++) {
+            columnBitmaps[j] = new CompressedBitmap();
+        }
+    }
+
+    /**
+     * Creates BitmapTDM from list of bag of words
+     *
+     * @param listOfBagOfWords list of bag of words, one per row
+     * @param termDictionary dictionary of all terms contained, IDs being the column indexes
+     * @return the bitmap term-by-document matrix
+     */
+    public static BitmapTDM fromListOfBagOfWords(List<List<String>> listOfBagOfWords, TermDictionary termDictionary) {
+        BitmapTDM tdmToReturn = new BitmapTDM(listOfBagOfWords.size(), termDictionary.size());
+
+        for (int i = 0; i < listOfBagOfWords.size(); i++) {
+            for (String term : listOfBagOfWords.get(i)) {
+                tdmToReturn.set(i, termDictionary.getId(term));
+            }
+        }
+
+        return tdmToReturn;
+    }
+
+    /**
+     * Creates BitmapTDM from the non-zero entries of sparse term-by-document matrix
+     *
+     * @param sparseTDM sparse term-by-document matrix
+     * @return the bitmap term-by-document matrix
+     */
+    public static BitmapTDM fromSparseTDM(SparseTDM sparseTDM) {
+        BitmapTDM tdmToReturn = new BitmapTDM(sparseTDM.getNumberOfRows(), sparseTDM.getNumberOfColumns());
+
+        for (int i = 0; i < sparseTDM.getNumberOfRows(); i++) {
+            for (int k = sparseTDM.getRowStart(i); k < sparseTDM.getRowEnd(i); k++) {
+                if (sparseTDM.getValues()[k] != 0) {
+                    tdmToReturn.set(i, sparseTDM.getColumnIndexes()[k]);
+                }
+            }
+        }
+
+        return tdmToReturn;
+    }
+
+    /**
+     * Marks the term as contained in the transaction
+     *
+     * @param row row index
+     * @param column column index
+     */
+    public final void set(int row, int column) {
+        if (rowBitmaps[row].add(column)) {
+            columnBitmaps[column].add(row);
+        }
+    }
+
+    /**
+     * @param row row index
+     * @param column column index
+     * @return true if the transaction contains the term, false otherwise
+     */
+    public boolean get(int row, int column) {
+        return rowBitmaps[row].contains(column);
+    }
+
+    /**
+     * @return number of rows i.e. transactions
+     */
+    public int getNumberOfRows() {
+        return rowBitmaps.length;
+    }
+
+    /**
+     * @return number of columns i.e. terms
+     */
+    public int getNumberOfColumns() {
+        return columnBitmaps.length;
+    }
+
+    /**
+     * @param row row index
+     * @return number of terms contained in the transaction
+     */
+    public int getNumberOfTermsInRow(int row) {
+        return rowBitmaps[row].getCardinality();
+    }
+
+    /**
+     * @param column column index
+     * @return number of transactions containing the term
+     */
+    public int getSupport(int column) {
+        return columnBitmaps[column].getCardinality();
+    }
+
+    /**
+     * Creates a compacted copy containing only the rows and columns to keep, renumbered in their order
+     *
+     * @param rowsToKeep true for each row to keep
+     * @param columnsToKeep true for each column to keep
+     * @return the compacted bitmap term-by-document matrix
+     */
+    public BitmapTDM compact(boolean[] rowsToKeep, boolean[] columnsToKeep) {
+        return compact(rowsToKeep, columnsToKeep, new boolean[columnBitmaps.length]);
+    }
+
+    /**
+     * Creates a compacted copy containing only the rows and columns to keep, renumbered in their order, 
+     * the columns to clear being kept without any transactions
+     *
+     * @param rowsToKeep true for each row to keep
+     * @param columnsToKeep true for each column to keep
+     * @param columnsToClear true for each column to keep empty
+     * @return the compacted bitmap term-by-document matrix
+     */
+    public BitmapTDM compact(boolean[] rowsToKeep, boolean[] columnsToKeep, boolean[] columnsToClear) {
+        int[] newColumnIndexes = new int[columnBitmaps.length];
+        int numberOfRemainingRows = 0;
+        int numberOfRemainingColumns = 0;
+        BitmapTDM tdmToReturn;
+        int row = 0;
+
+        for (int j = 0; j < columnBitmaps.length; j++) {
+            newColumnIndexes[j] = columnsToKeep[j] ? numberOfRemainingColumns++ : -1;
+        }
+        for (int i = 0; i < rowBitmaps.length; i++) {
+            if (rowsToKeep[i]) {
+                ++numberOfRemainingRows;
+            }
+        }
+
+        tdmToReturn = new BitmapTDM(numberOfRemainingRows, numberOfRemainingColumns);
+        for (int i = 0; i < rowBitmaps.length; i++) {
+            if (!rowsToKeep[i]) {
+                continue;
+            }
+
+            for (int column : rowBitmaps[i].toArray()) {
+                if (newColumnIndexes[column] != -1 && !columnsToClear[column]) {
+                    tdmToReturn.set(row, newColumnIndexes[column]);
+                }
+            }
+            ++row;
+        }
+
+        return tdmToReturn;
+    }
+
+    /**
+     * @return approximate number of bytes used by the bitmaps
+     */
+    public long getSizeInBytes() {
+        long sizeToReturn = 0;
+
+        for (CompressedBitmap bitmap : rowBitmaps) {
+            sizeToReturn += bitmap.getSizeInBytes();
+        }
+        for (CompressedBitmap bitmap : columnBitmaps) {
+            sizeToReturn += bitmap.getSizeInBytes();
+        }
+
+        return sizeToReturn;
+    }
+
+    /**
+     * @param row row index
+     * @return bitmap of the terms contained in the transaction
+     */
+    public CompressedBitmap getRowBitmap(int row) {
+        return rowBitmaps[row];
+    }
+
+    /**
+     * @param column column index
+     * @return bitmap of the transactions containing the term
+     */
+    public CompressedBitmap getColumnBitmap(int column) {
+        return columnBitmaps[column];
+    }
+
+}
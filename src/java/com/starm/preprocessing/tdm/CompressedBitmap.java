@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of non-negative ints, in roaring bitmap style. <br /><br />
+ * 
+ * Values are grouped by their high 16 bits into containers. A container holding 
+ * at most 4096 values keeps them as a sorted char array, a fuller container keeps 
+ * them as a 65536 bit bitmap. Sparse sets thus take about 2 bytes per value, dense 
+ * sets at most 1 bit per possible value, and cardinality is kept up to date so that 
+ * it is a constant time lookup.
+ *
+ * @author Wasif Altaf
+ */
+public class CompressedBitmap {
+
+    // beyond this many values, a bitmap container is smaller than an array container
+    private static final int MAXIMUM_ARRAY_CONTAINER_SIZE = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int numberOfContainers = 0;
+    private int cardinality = 0;
+
+    /**
+     * Adds the value to the bitmap
+     *
+     * @param value non-negative value to add
+     * @return true if the value was added, false if it was already contained
+     */
+    public boolean add(int value) {
+        char key = (char) (value >>> 16);
+        int index = findContainer(key);
+
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+
+        int cardinalityBefore = containers[index].getCardinality();
+        containers[index] = containers[index].add((char) value);
+
+        if (containers[index].getCardinality() > cardinalityBefore) {
+            ++cardinality;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @param value value to look up
+     * @return true if the value is contained, false otherwise
+     */
+    public boolean contains(int value) {
+        int index = findContainer((char) (value >>> 16));
+
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * @return number of values contained
+     */
+    public int getCardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return the values contained, in ascending order
+     */
+    public int[] toArray() {
+        int[] valuesToReturn = new int[cardinality];
+        int position = 0;
+
+        for (int i = 0; i < numberOfContainers; i++) {
+            position = containers[i].toArray(valuesToReturn, position, keys[i] << 16);
+        }
+
+        return valuesToReturn;
+    }
+
+    /**
+     * @return approximate number of bytes used by the containers
+     */
+    public long getSizeInBytes() {
+        long sizeToReturn = keys.length * 2L + containers.length * 8L;
+
+        for (int i = 0; i < numberOfContainers; i++) {
+            sizeToReturn += containers[i].getSizeInBytes();
+        }
+
+        return sizeToReturn;
+    }
+
+    /**
+     * Finds the container of the key by binary search
+     *
+     * @return index of the container, or -(insertion point) - 1 if there is no container for the key
+     */
+    private int findContainer(char key) {
+        // values are mostly added in ascending order, check the last container first
+        if (numberOfContainers > 0 && keys[numberOfContainers - 1] == key) {
+            return numberOfContainers - 1;
+        }
+
+        return Arrays.binarySearch(keys, 0, numberOfContainers, key);
+    }
+
+    /**
+     * Inserts the container at index, keeping keys sorted
+     */
+    private void insertContainer(int index, char key, Container container) {
+        if (numberOfContainers == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            containers = Arrays.copyOf(containers, containers.length * 2);
+        }
+
+        System.arraycopy(keys, index, keys, index + 1, numberOfContainers - index);
+        System.arraycopy(containers, index, containers, index + 1, numberOfContainers - index);
+        keys[index] = key;
+        containers[index] = container;
+        ++numberOfContainers;
+    }
+
+    /**
+     * Container of the low 16 bits of values sharing the same high 16 bits
+     */
+    private static abstract class Container {
+
+        /**
+         * @return this container, or a converted container if this one became too full
+         */
+        abstract Container add(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int getCardinality();
+
+        /**
+         * Writes the values, combined with the high bits, from position onwards
+         *
+         * @return position after the last value written
+         */
+        abstract int toArray(int[] values, int position, int highBits);
+
+        abstract long getSizeInBytes();
+    }
+
+    /**
+     * Sorted array of at most MAXIMUM_ARRAY_CONTAINER_SIZE values
+     */
+    private static class ArrayContainer extends Container {
+
+        private char[] values = new char[4];
+        private int size = 0;
+
+        @Override
+        Container add(char value) {
+            int index;
+
+            // values are mostly added in ascending order
+            if (size > 0 && values[size - 1] < value) {
+                index = size;
+            } else {
+                index = Arrays.binarySearch(values, 0, size, value);
+                if (index >= 0) {
+                    return this;
+                }
+                index = -index - 1;
+            }
+
+            if (size == MAXIMUM_ARRAY_CONTAINER_SIZE) {
+                return toBitmapContainer().add(value);
+            }
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, MAXIMUM_ARRAY_CONTAINER_SIZE));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            ++size;
+
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int getCardinality() {
+            return size;
+        }
+
+        @Override
+        int toArray(int[] valuesToFill, int position, int highBits) {
+            for (int i = 0; i < size; i++) {
+                valuesToFill[position++] = highBits | values[i];
+            }
+
+            return position;
+        }
+
+        @Override
+        long getSizeInBytes() {
+            return values.length * 2L + 16;
+        }
+
+        private BitmapContainer toBitmapContainer() {
+            BitmapContainer containerToReturn = new BitmapContainer();
+
+            for (int i = 0; i < size; i++) {
+                containerToReturn.add(values[i]);
+            }
+
+            return containerToReturn;
+        }
+    }
+
+    /**
+     * Bitmap of all 65536 possible values
+     */
+    private static class BitmapContainer extends Container {
+
+        private final long[] words = new long[1024];
+        private int cardinality = 0;
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                ++cardinality;
+            }
+
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int getCardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int toArray(int[] valuesToFill, int position, int highBits) {
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+
+                while (word != 0) {
+                    valuesToFill[position++] = highBits | (w << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+
+            return position;
+        }
+
+        @Override
+        long getSizeInBytes() {
+            return words.length * 8L + 16;
+        }
+    }
+
+}
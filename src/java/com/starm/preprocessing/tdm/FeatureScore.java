@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+/**
+ * Scores by which terms are ranked for top-N feature selection
+ * 
+ * <ul>
+ * <li>DOCUMENT_FREQUENCY: number of transactions containing the term, keeps the terms 
+ * most likely to form frequent itemsets</li>
+ * <li>COLLECTION_FREQUENCY: number of occurrences of the term in all transactions</li>
+ * <li>IDF: inverse document frequency, keeps the rarest terms</li>
+ * <li>CF_IDF: collection frequency times IDF, favours terms occurring often in few transactions</li>
+ * </ul>
+ * 
+ * @author Wasif Altaf
+ */
+public enum FeatureScore {
+    DOCUMENT_FREQUENCY, COLLECTION_FREQUENCY, IDF, CF_IDF
+}
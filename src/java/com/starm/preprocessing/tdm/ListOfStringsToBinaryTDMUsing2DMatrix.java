@@ -16,6 +16,8 @@
  */
 package com.starm.preprocessing.tdm;
 
+import com.starm.processors.miners.NativeFPGrowthARMiner;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.FileSystems;
@@ -23,15 +25,21 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import weka.core.Instances;
 
 /**
  * Methods to load list of strings from file and convert the list of strings
@@ -56,7 +64,7 @@ import java.util.stream.Collectors;
  * <li>Save Tokenized String as a List of Tokens or Words as Strings i.e.
  * BagOfWords.</li>
  * 
- * <li>Add Tokens to TI List if TI List does not already contain them. </li>
+ * <li>Add Tokens to TI if TI does not already contain them. TI is a hash based term dictionary, so each check takes constant time. </li>
  * 
  * <li>Use TI List to create comma separated TI </li>
  * </ol>
@@ -96,19 +104,79 @@ import java.util.stream.Collectors;
  */
 public class ListOfStringsToBinaryTDMUsing2DMatrix {
 
+    // near-duplicate detector to collapse near-duplicate transactions, null to keep all transactions
+    private NearDuplicateDetector nearDuplicateDetector = null;
+    // true if the last conversion collapsed near-duplicate transactions, they are not collapsed by OUT_OF_CORE representation
+    private boolean nearDuplicatesCollapsed = false;
+
+    // in-memory representation of term-by-document matrix
+    private TDMRepresentation tdmRepresentation = TDMRepresentation.SPARSE;
+
+    // representation actually used by the last conversion, BITMAP falls back to SPARSE for TF and TFIDF weighting
+    private TDMRepresentation tdmRepresentationUsed = null;
+
+    // planner of the last conversion, null unless AUTOMATIC representation is set
+    private TDMPlanner tdmPlanner = null;
+
+    // minimum support at which the TDM will be mined, fraction of transactions, or number of transactions 
+    // if greater than 1, 0 to keep all terms. Only used by BITMAP representation.
+    private float minimumSupportForMining = 0;
+    private int numberOfTermsBelowMinimumSupport = 0;
+
+    // if true, term-by-document matrix is also saved as Weka sparse ARFF, with _TDM.arff suffix
+    private boolean arffExport = true;
+
+    // number of threads building term-by-document matrix rows, 1 for sequential construction
+    private int parallelism = 1;
+
+    // top-N feature selection, 0 to keep all terms remaining after term pruning
+    private int numberOfTermsToSelect = 0;
+    private FeatureScore featureScore = FeatureScore.DOCUMENT_FREQUENCY;
+    private int numberOfTermsBeforeSelection = 0;
+
+    // bytes of heap for buffering postings by OUT_OF_CORE representation
+    private long outOfCoreMemoryBudget = 64L * 1024 * 1024;
+
+    // if true, term-by-document matrix is converted into Weka Instances for mining in memory, 
+    // and CSV and ARFF files are saved in background
+    private boolean inMemoryInstances = false;
+    private Instances tdmInstances = null;
+    // if true, term-by-document matrix is converted into int-encoded transactions for mining in memory 
+    // by NativeFPGrowthARMiner, instead of Instances, and files are saved in background
+    private boolean inMemoryTransactions = false;
+    private int[][] tdmTransactions = null;
+    private BitmapTDM tdmBitmap = null;
+    private List<String> tdmTerms = null;
+    private Future<Boolean> tdmFilesSaved = null;
+
+    // size of the saved term-by-document matrix, for reporting
+    private int numberOfRowsInTDM = 0;
+    private int numberOfColumnsInTDM = 0;
     
     /**
      * Converts the text file to binary CSV based term-by-document matrix, 
      * 
      * <ol>
      * <li>Reads all lines from input file</li>
+     * <li>Collapses near-duplicate transactions, if near-duplicate detector is set, 
+     * and saves the cluster map with _TDM_clusters.txt suffix</li>
      * <li>Creates unique terms index from the list of bag of words created from lines read</li>
-     * <li>Converts list of bag of words into 2-dimensional array</li>
-     * <li>Marks items and transactions for pruning in 2-dimensional array</li>
+     * <li>Keeps the top-N terms by feature score, if number of terms to select is set</li>
+     * <li>Chooses DENSE, SPARSE, BITMAP or OUT_OF_CORE representation from estimated and available heap, 
+     * if AUTOMATIC representation is set. If OUT_OF_CORE is chosen after near-duplicate transactions 
+     * are collapsed, the collapsed transactions are built out of core, so that the rows match the cluster map.</li>
+     * <li>Converts list of bag of words into sparse matrix, or into bitmaps if bitmap representation 
+     * is set and weighting is BINARY or IDF, or into 2-dimensional array if dense representation is set</li>
      * <li>Prunes items and transactions</li>
+     * <li>Converts the term-by-document matrix into Weka Instances, if in-memory Instances is set, 
+     * or into int-encoded transactions, if in-memory transactions is set</li>
      * <li>Saves the index and 2-dimensional array</li>
+     * <li>Saves the term-by-document matrix as Weka sparse ARFF with _TDM.arff suffix, if ARFF export is set</li>
      * </ol>
      * 
+     * If in-memory Instances or transactions is set, the files are saved in background, see getTdmFilesSaved(). 
+     * If OUT_OF_CORE representation is set, see convertTextFileToTDMOutOfCore().
+     * 
      * @param filePath input folder path
      * @param fileNameAndExtension input file name and extension
      * @param weightingScheme weighting scheme to be used for term-by-document matrix
@@ -116,8 +184,8 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
      * @param pruneValueUpperLimit upper bound for prune value
      * @param minimumNumberOfItems minimum number of items required by a transaction
      * 
-     * @return true if term-by-document matrix has been saved successfully, false if 
-     * term-by-document matrix could not be saved successfully.
+     * @return true if term-by-document matrix has been saved successfully, or converted into Instances 
+     * or transactions if in-memory Instances or transactions is set, false otherwise.
      */
     public boolean convertTextFileToBinaryCSVBasedTDM(String filePath,
             String fileNameAndExtension,
@@ -129,11 +197,18 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
         List<String> allTranscations = null;
         List<List<String>> listOfBagOfWords = null;
         float[][] frequenciesTable = null;
+        SparseTDM sparseTDM = null;
+        BitmapTDM bitmapTDM = null;
         List<String> uniqueTermsIndex = null;
-        String commaSeparatedUniqueTermsIndex = null;
-        String commaSeparatedTDMFrequenciesTable = null;
-        String csvFileNameAndExtension = null;
-        Path pathOfCSVFileToCreate = null;
+
+        nearDuplicatesCollapsed = false;
+
+        if (tdmRepresentation == TDMRepresentation.OUT_OF_CORE) {
+            tdmPlanner = null;
+
+            return this.convertTextFileToTDMOutOfCore(filePath, fileNameAndExtension, weightingScheme,
+                    pruneValueLowerLimit, pruneValueUpperLimit, minimumNumberOfItems);
+        }
 
         try {
             // real all transactions
@@ -144,43 +219,127 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
             allTranscations = null;
             System.gc();
 
-            uniqueTermsIndex = createUniqueTermsIndexAsListOfStrings(listOfBagOfWords);
+            // collapse near-duplicate transactions
+            if (nearDuplicateDetector != null) {
+                listOfBagOfWords = nearDuplicateDetector.collapse(listOfBagOfWords);
+                nearDuplicateDetector.saveClusterMap(FileSystems.getDefault().getPath(filePath,
+                        fileNameAndExtension.substring(0, fileNameAndExtension.lastIndexOf(".")) + "_TDM_clusters.txt"));
+                nearDuplicatesCollapsed = true;
+            }
 
-            frequenciesTable
-                    = this.convertListOfBagOfWordsIntoBinaryTDMAs2DArray(listOfBagOfWords,
-                            uniqueTermsIndex,
-                            weightingScheme);
+            uniqueTermsIndex = createUniqueTermsIndexAsListOfStrings(listOfBagOfWords);
 
-            // mark for pruning
-            frequenciesTable = this.prune2DArrayAndUniqueTermsIndexAsList(frequenciesTable,
-                    uniqueTermsIndex,
-                    pruneValueLowerLimit,
-                    pruneValueUpperLimit,
-                    minimumNumberOfItems);
+            // keep top-N terms
+            numberOfTermsBeforeSelection = uniqueTermsIndex.size();
+            if (numberOfTermsToSelect > 0) {
+                uniqueTermsIndex = this.selectTopTermsOfListOfBagOfWords(listOfBagOfWords, uniqueTermsIndex,
+                        weightingScheme, pruneValueLowerLimit, pruneValueUpperLimit);
+            }
 
-            /*
-             * convert uniqueTermsIndex and frequenciesTable into strings and save
-             */
-            commaSeparatedUniqueTermsIndex = this.convertUniqueTermsIndexListIntoCommaSeparatedTermsIndex(uniqueTermsIndex);
-            commaSeparatedUniqueTermsIndex += "\n";
+            tdmRepresentationUsed = tdmRepresentation;
+            tdmPlanner = null;
+            if (tdmRepresentation == TDMRepresentation.AUTOMATIC) {
+                tdmRepresentationUsed = this.planTDMRepresentation(listOfBagOfWords, uniqueTermsIndex, weightingScheme);
+
+                if (tdmRepresentationUsed == TDMRepresentation.OUT_OF_CORE && nearDuplicatesCollapsed) {
+                    return this.convertCollapsedTransactionsToTDMOutOfCore(listOfBagOfWords, filePath,
+                            fileNameAndExtension, weightingScheme, pruneValueLowerLimit, pruneValueUpperLimit,
+                            minimumNumberOfItems);
+                } else if (tdmRepresentationUsed == TDMRepresentation.OUT_OF_CORE) {
+                    // release transactions, they are read again from file
+                    listOfBagOfWords = null;
+                    uniqueTermsIndex = null;
+                    System.gc();
+
+                    return this.convertTextFileToTDMOutOfCore(filePath, fileNameAndExtension, weightingScheme,
+                            pruneValueLowerLimit, pruneValueUpperLimit, minimumNumberOfItems);
+                }
+            }
+            if (tdmRepresentationUsed == TDMRepresentation.BITMAP && !isBitmapWeighting(weightingScheme)) {
+                System.out.println(new Date().toString() + ": BITMAP representation only holds BINARY and IDF weighting, "
+                        + "using SPARSE for " + weightingScheme + " weighting.");
+                tdmRepresentationUsed = TDMRepresentation.SPARSE;
+            }
 
-            // change the name of output file and write the title index
-            csvFileNameAndExtension = fileNameAndExtension.substring(0, fileNameAndExtension.lastIndexOf(".")) + "_TDM.csv";
+            if (tdmRepresentationUsed == TDMRepresentation.BITMAP) {
+                bitmapTDM = BitmapTDM.fromListOfBagOfWords(listOfBagOfWords,
+                        TermDictionary.fromUniqueTerms(uniqueTermsIndex));
+
+                // prune
+                bitmapTDM = this.pruneBitmapTDMAndUniqueTermsIndexAsList(bitmapTDM,
+                        uniqueTermsIndex,
+                        weightingScheme,
+                        pruneValueLowerLimit,
+                        pruneValueUpperLimit,
+                        minimumNumberOfItems);
+            } else if (tdmRepresentationUsed == TDMRepresentation.SPARSE) {
+                sparseTDM = this.convertListOfBagOfWordsIntoSparseTDM(listOfBagOfWords,
+                        uniqueTermsIndex,
+                        weightingScheme);
+
+                // prune
+                sparseTDM = this.pruneSparseTDMAndUniqueTermsIndexAsList(sparseTDM,
+                        uniqueTermsIndex,
+                        pruneValueLowerLimit,
+                        pruneValueUpperLimit,
+                        minimumNumberOfItems);
+            } else {
+                frequenciesTable
+                        = this.convertListOfBagOfWordsIntoBinaryTDMAs2DArray(listOfBagOfWords,
+                                uniqueTermsIndex,
+                                weightingScheme);
+
+                // prune
+                frequenciesTable = this.prune2DArrayAndUniqueTermsIndexAsListUsingBitmasks(frequenciesTable,
+                        uniqueTermsIndex,
+                        pruneValueLowerLimit,
+                        pruneValueUpperLimit,
+                        minimumNumberOfItems);
+            }
 
-            // write title index to the file
-            pathOfCSVFileToCreate = FileSystems.getDefault().getPath(filePath, csvFileNameAndExtension);
-            Files.deleteIfExists(pathOfCSVFileToCreate);
-            pathOfCSVFileToCreate = Files.write(pathOfCSVFileToCreate, commaSeparatedUniqueTermsIndex.getBytes(),
-                    StandardOpenOption.CREATE);
+            if (tdmRepresentationUsed == TDMRepresentation.BITMAP) {
+                numberOfRowsInTDM = bitmapTDM.getNumberOfRows();
+            } else if (tdmRepresentationUsed == TDMRepresentation.SPARSE) {
+                numberOfRowsInTDM = sparseTDM.getNumberOfRows();
+            } else {
+                numberOfRowsInTDM = frequenciesTable.length;
+            }
+            numberOfColumnsInTDM = uniqueTermsIndex.size();
+
+            tdmInstances = null;
+            tdmTransactions = null;
+            tdmBitmap = null;
+            tdmTerms = null;
+
+            if (inMemoryTransactions) {
+                // build transactions for mining, keeping bitmaps for support counting, and save files in background
+                tdmTransactions = this.convertTDMToTransactions(frequenciesTable, sparseTDM, bitmapTDM);
+                tdmBitmap = bitmapTDM;
+                tdmTerms = uniqueTermsIndex;
+                tdmFilesSaved = this.saveTDMFilesInBackground(filePath, fileNameAndExtension, frequenciesTable,
+                        sparseTDM, bitmapTDM, uniqueTermsIndex);
+
+                processCompletedSuccessfully = tdmTransactions != null;
+            } else if (inMemoryInstances) {
+                // build Instances for mining, and save files in background
+                tdmInstances = this.convertTDMToInstances(frequenciesTable, sparseTDM, bitmapTDM, uniqueTermsIndex,
+                        fileNameAndExtension.substring(0, fileNameAndExtension.lastIndexOf(".")) + "_TDM");
+                tdmFilesSaved = this.saveTDMFilesInBackground(filePath, fileNameAndExtension, frequenciesTable,
+                        sparseTDM, bitmapTDM, uniqueTermsIndex);
+
+                processCompletedSuccessfully = tdmInstances != null;
+            } else {
+                tdmFilesSaved = null;
 
-            // carry out pruning and save 
-            processCompletedSuccessfully = this.save2DArrayToOutputFileAsCSV(frequenciesTable, pathOfCSVFileToCreate);
+                processCompletedSuccessfully = this.saveTDMFiles(filePath, fileNameAndExtension, frequenciesTable,
+                        sparseTDM, bitmapTDM, uniqueTermsIndex);
+            }
 
             // clean up extra lists
             listOfBagOfWords = null;
             frequenciesTable = null;
-            commaSeparatedTDMFrequenciesTable = null;
-            commaSeparatedUniqueTermsIndex = null;
+            sparseTDM = null;
+            bitmapTDM = null;
 
             System.gc();
 
@@ -193,6 +352,204 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
     }
 
     
+    /**
+     * Keeps the top-N terms by feature score among the terms which term pruning would not prune, 
+     * removing the others from each bag of words. Document frequency, collection frequency and 
+     * IDF of all terms are calculated in a single pass over list of bag of words. Transactions are 
+     * not removed, so IDF scores and term pruning of the terms kept are unchanged.
+     * 
+     * @see com.starm.preprocessing.tdm.VocabularyStatistics
+     *
+     * @param listOfBagOfWords list of bag of words, terms not kept are removed from each
+     * @param uniqueTermsIndexAsList sorted unique terms
+     * @param weightingSchemeToUse weighting scheme to be used for term-by-document matrix
+     * @param termPruneMinValue lower bound for prune value
+     * @param termPruneMaxValue upper bound for prune value
+     * @return sorted unique terms kept
+     */
+    public List<String> selectTopTermsOfListOfBagOfWords(List<List<String>> listOfBagOfWords,
+            List<String> uniqueTermsIndexAsList, WeightingScheme weightingSchemeToUse,
+            float termPruneMinValue, float termPruneMaxValue) {
+        System.out.println(new Date().toString() + ": Selecting top " + numberOfTermsToSelect + " terms by " + featureScore + "...");
+        TermDictionary termDictionary = TermDictionary.fromUniqueTerms(uniqueTermsIndexAsList);
+        VocabularyStatistics vocabularyStatistics;
+        boolean[] termsSelected;
+        List<String> termsToReturn = new ArrayList<>();
+
+        // one pass for DF, CF and smallest and largest count of all terms
+        vocabularyStatistics = VocabularyStatistics.fromListOfBagOfWords(listOfBagOfWords, termDictionary);
+        termsSelected = vocabularyStatistics.selectTerms(numberOfTermsToSelect, featureScore, weightingSchemeToUse,
+                termPruneMinValue, termPruneMaxValue);
+
+        for (int j = 0; j < uniqueTermsIndexAsList.size(); j++) {
+            if (termsSelected[j]) {
+                termsToReturn.add(uniqueTermsIndexAsList.get(j));
+            }
+        }
+
+        for (List<String> bagOfWords : listOfBagOfWords) {
+            bagOfWords.removeIf(term -> !termsSelected[termDictionary.getId(term)]);
+        }
+
+        System.out.println(new Date().toString() + ": Done selecting terms, " + termsToReturn.size() + " of "
+                + uniqueTermsIndexAsList.size() + " terms kept.");
+
+        return termsToReturn;
+    }
+
+    /**
+     * Chooses representation of term-by-document matrix from heap estimated for the 
+     * transactions and terms, and heap available
+     * 
+     * @see com.starm.preprocessing.tdm.TDMPlanner
+     *
+     * @param listOfBagOfWords list of bag of words, one per transaction
+     * @param uniqueTermsIndexAsList unique terms
+     * @param weightingScheme weighting scheme to be used for term-by-document matrix
+     * @return DENSE, SPARSE, BITMAP or OUT_OF_CORE
+     */
+    private TDMRepresentation planTDMRepresentation(List<List<String>> listOfBagOfWords,
+            List<String> uniqueTermsIndexAsList, WeightingScheme weightingScheme) {
+        long numberOfTokens = 0;
+
+        for (List<String> bagOfWords : listOfBagOfWords) {
+            numberOfTokens += bagOfWords.size();
+        }
+
+        System.gc();
+        tdmPlanner = new TDMPlanner(outOfCoreMemoryBudget);
+
+        return tdmPlanner.plan(listOfBagOfWords.size(), uniqueTermsIndexAsList.size(),
+                listOfBagOfWords.isEmpty() ? 0 : (double) numberOfTokens / listOfBagOfWords.size(),
+                inMemoryInstances || inMemoryTransactions, isBitmapWeighting(weightingScheme));
+    }
+
+    /**
+     * Converts the text file to term-by-document matrix out of core, within the memory budget, 
+     * and saves it as CSV with _TDM.csv suffix, and as Weka sparse ARFF with _TDM.arff suffix 
+     * if ARFF export is set. Near-duplicate transactions are not collapsed, as they are only 
+     * collapsed in memory, and Instances are not built in memory.
+     * 
+     * @see com.starm.preprocessing.tdm.OutOfCoreTDMBuilder
+     * 
+     * @param filePath input folder path
+     * @param fileNameAndExtension input file name and extension
+     * @param weightingScheme weighting scheme to be used for term-by-document matrix
+     * @param pruneValueLowerLimit lower bound for prune value
+     * @param pruneValueUpperLimit upper bound for prune value
+     * @param minimumNumberOfItems minimum number of items required by a transaction
+     * 
+     * @return true if term-by-document matrix has been saved successfully, false otherwise
+     */
+    public boolean convertTextFileToTDMOutOfCore(String filePath,
+            String fileNameAndExtension,
+            WeightingScheme weightingScheme,
+            float pruneValueLowerLimit,
+            float pruneValueUpperLimit,
+            int minimumNumberOfItems) {
+        if (nearDuplicateDetector != null) {
+            System.out.println(new Date().toString() + ": Near-duplicate transactions are not collapsed out of core.");
+        }
+        nearDuplicatesCollapsed = false;
+
+        return this.buildTDMOutOfCore(FileSystems.getDefault().getPath(filePath, fileNameAndExtension), filePath,
+                fileNameAndExtension, weightingScheme, pruneValueLowerLimit, pruneValueUpperLimit, minimumNumberOfItems);
+    }
+
+    /**
+     * Writes the collapsed transactions to a temporary file next to the input file, one space 
+     * separated transaction per line, and builds the term-by-document matrix out of core from it, 
+     * so that rows of the term-by-document matrix match the saved cluster map. The temporary 
+     * file is deleted afterwards.
+     * 
+     * @param listOfBagOfWords collapsed transactions, with terms not selected removed
+     * @param filePath input folder path
+     * @param fileNameAndExtension input file name and extension
+     * @param weightingScheme weighting scheme to be used for term-by-document matrix
+     * @param pruneValueLowerLimit lower bound for prune value
+     * @param pruneValueUpperLimit upper bound for prune value
+     * @param minimumNumberOfItems minimum number of items required by a transaction
+     * @return true if term-by-document matrix has been saved successfully, false otherwise
+     * @throws IOException in case the collapsed transactions could not be written
+     */
+    private boolean convertCollapsedTransactionsToTDMOutOfCore(List<List<String>> listOfBagOfWords,
+            String filePath,
+            String fileNameAndExtension,
+            WeightingScheme weightingScheme,
+            float pruneValueLowerLimit,
+            float pruneValueUpperLimit,
+            int minimumNumberOfItems) throws IOException {
+        int numberOfTermsOfInputFile = numberOfTermsBeforeSelection;
+        Path pathOfCollapsedFile = Files.createTempFile(FileSystems.getDefault().getPath(filePath).toAbsolutePath(),
+                "tdm_collapsed", ".txt");
+        boolean processCompletedSuccessfully;
+
+        System.out.println(new Date().toString() + ": Building collapsed transactions out of core...");
+
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(pathOfCollapsedFile, Charset.defaultCharset())) {
+                for (List<String> bagOfWords : listOfBagOfWords) {
+                    writer.write(String.join(" ", bagOfWords));
+                    writer.newLine();
+                }
+            }
+            listOfBagOfWords.clear();
+            System.gc();
+
+            processCompletedSuccessfully = this.buildTDMOutOfCore(pathOfCollapsedFile, filePath, fileNameAndExtension,
+                    weightingScheme, pruneValueLowerLimit, pruneValueUpperLimit, minimumNumberOfItems);
+        } finally {
+            Files.deleteIfExists(pathOfCollapsedFile);
+        }
+
+        // terms of the input file, the collapsed transactions only hold the terms selected
+        numberOfTermsBeforeSelection = numberOfTermsOfInputFile;
+
+        return processCompletedSuccessfully;
+    }
+
+    /**
+     * Builds term-by-document matrix of the text file out of core, and saves it with the 
+     * suffixes of the input file
+     */
+    private boolean buildTDMOutOfCore(Path pathOfInputFile,
+            String filePath,
+            String fileNameAndExtension,
+            WeightingScheme weightingScheme,
+            float pruneValueLowerLimit,
+            float pruneValueUpperLimit,
+            int minimumNumberOfItems) {
+        String fileNameWithoutExtension = fileNameAndExtension.substring(0, fileNameAndExtension.lastIndexOf("."));
+        OutOfCoreTDMBuilder outOfCoreTDMBuilder = new OutOfCoreTDMBuilder(outOfCoreMemoryBudget);
+        boolean processCompletedSuccessfully;
+
+        outOfCoreTDMBuilder.setNumberOfTermsToSelect(numberOfTermsToSelect);
+        outOfCoreTDMBuilder.setFeatureScore(featureScore);
+
+        tdmRepresentationUsed = TDMRepresentation.OUT_OF_CORE;
+        tdmInstances = null;
+        tdmTransactions = null;
+        tdmBitmap = null;
+        tdmTerms = null;
+        tdmFilesSaved = null;
+
+        processCompletedSuccessfully = outOfCoreTDMBuilder.build(
+                pathOfInputFile,
+                FileSystems.getDefault().getPath(filePath, fileNameWithoutExtension + "_TDM.csv"),
+                arffExport ? FileSystems.getDefault().getPath(filePath, fileNameWithoutExtension + "_TDM.arff") : null,
+                fileNameWithoutExtension + "_TDM",
+                weightingScheme,
+                pruneValueLowerLimit,
+                pruneValueUpperLimit,
+                minimumNumberOfItems);
+
+        numberOfRowsInTDM = outOfCoreTDMBuilder.getNumberOfRows();
+        numberOfColumnsInTDM = outOfCoreTDMBuilder.getNumberOfColumns();
+        numberOfTermsBeforeSelection = outOfCoreTDMBuilder.getNumberOfTerms();
+
+        return processCompletedSuccessfully;
+    }
+
     /**
      * Reads all lines as list of Strings
      * 
@@ -305,7 +662,10 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
      * @param listOfBagOfWords list of bags of words from which to find IDF score 
      * @param term word for which IDF score is to be found
      * @return the IDF score value
+     * @deprecated deprecated due to lower performance, as it scans all bags of words for each term,
+     * use calculateIDFScores() with document frequencies counted in a single pass instead
      */
+    @Deprecated
     public float calculateIDF(List<List<String>> listOfBagOfWords, String term) {
         float idfToReturn = 0;
         float documentsContainingTheTerm = 0;
@@ -324,6 +684,69 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
         return idfToReturn;
     }
 
+    /**
+     * Calculates IDF scores of all terms from their document frequencies
+     * 
+     * @param documentFrequencies number of documents containing each term
+     * @param totalNumberOfDocuments number of documents in the collection
+     * @return IDF score of each term, log10(totalNumberOfDocuments / documentFrequency)
+     */
+    public float[] calculateIDFScores(int[] documentFrequencies, int totalNumberOfDocuments) {
+        float[] idfScoresToReturn = new float[documentFrequencies.length];
+
+        for (int j = 0; j < documentFrequencies.length; j++) {
+            idfScoresToReturn[j] = (float) Math.log10((float) totalNumberOfDocuments / (float) documentFrequencies[j]);
+        }
+
+        return idfScoresToReturn;
+    }
+
+    /**
+     * Applies weighting scheme to term counts, in place, in a single sweep
+     * 
+     * @param termCounts term counts, replaced by term weights
+     * @param from position of first term count
+     * @param to position after last term count
+     * @param columnIndexes column index of each term count, null if position is the column index
+     * @param idfScores IDF score of each column, required for IDF and TFIDF weighting
+     * @param weightingSchemeToUse weighting scheme to be applied
+     */
+    private static void applyWeightingScheme(float[] termCounts, int from, int to, int[] columnIndexes,
+            float[] idfScores, WeightingScheme weightingSchemeToUse) {
+
+        // scheme is tested once per sweep, leaving a simple loop per scheme
+        if (weightingSchemeToUse == WeightingScheme.BINARY) {
+            for (int k = from; k < to; k++) {
+                if (termCounts[k] != 0) {
+                    termCounts[k] = 1;
+                }
+            }
+        } else if (weightingSchemeToUse == WeightingScheme.TFIDF) {
+            if (columnIndexes == null) {
+                for (int k = from; k < to; k++) {
+                    termCounts[k] *= idfScores[k];
+                }
+            } else {
+                for (int k = from; k < to; k++) {
+                    termCounts[k] *= idfScores[columnIndexes[k]];
+                }
+            }
+        } else if (weightingSchemeToUse == WeightingScheme.IDF) {
+            if (columnIndexes == null) {
+                for (int k = from; k < to; k++) {
+                    if (termCounts[k] != 0) {
+                        termCounts[k] = idfScores[k];
+                    }
+                }
+            } else {
+                for (int k = from; k < to; k++) {
+                    termCounts[k] = idfScores[columnIndexes[k]];
+                }
+            }
+        }
+        // TF weights are the term counts themselves
+    }
+
     /**
      * Converts list of bag of words into term-by-document matrix as 2D array. 
      * 
@@ -337,40 +760,26 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
         System.out.println(new Date().toString() + ": Converting list of tokenized strings into binary TDM as 2D Array...");
         float[][] binaryTermDocumentMatrixToReturn = new float[listOfBagOfWords.size()][uniqueTermsIndexAsList.size()];
         HashMap<String, Float> idfCalculationsMap = new HashMap(listOfBagOfWords.size());
+        TermDictionary termDictionary = TermDictionary.fromUniqueTerms(uniqueTermsIndexAsList);
+        int[] documentFrequencies;
+        float[] idfScores = null;
 
-        // for each of the bag of words
-        for (int i = 0; i < listOfBagOfWords.size(); i++) {
-            List<String> bagOfWords = listOfBagOfWords.get(i);
-            System.out.println(new Date().toString() + ": Converting transaction : " + i);
+        // count term frequencies per document, and document frequencies, in one pass
+        documentFrequencies = new TDMRowPartitionBuilder(listOfBagOfWords, termDictionary, parallelism)
+                .fillDenseRows(binaryTermDocumentMatrixToReturn);
 
-            // update frequencies 
-            for (String term : bagOfWords) {
-                // find the index of term in uniqueTermsIndexAsList
-                int indexOfTermInUniqueTermsIndex = uniqueTermsIndexAsList.indexOf(term);
-
-                // update frequency
-                if (weightingSchemeToUse == WeightingScheme.BINARY) {
-                    binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex] = 1;
-                } else if (weightingSchemeToUse == WeightingScheme.TF) {
-                    ++binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex];
-                } else if (weightingSchemeToUse == WeightingScheme.TFIDF) {
-                    if (idfCalculationsMap.containsKey(term)) {
-                        binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex] = Collections.frequency(bagOfWords, term) * idfCalculationsMap.get(term);
-                    } else {
-                        binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex] = calculateIDF(listOfBagOfWords, term);
-                        idfCalculationsMap.put(term, binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex]);
-                        binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex] *= Collections.frequency(bagOfWords, term);
-                    }
-                } else if (weightingSchemeToUse == WeightingScheme.IDF) {
-                    if (idfCalculationsMap.containsKey(term)) {
-                        binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex] = idfCalculationsMap.get(term);
-                    } else {
-                        binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex] = calculateIDF(listOfBagOfWords, term);
-                        idfCalculationsMap.put(term, binaryTermDocumentMatrixToReturn[i][indexOfTermInUniqueTermsIndex]);
-                    }
-                }
+        if (weightingSchemeToUse == WeightingScheme.IDF || weightingSchemeToUse == WeightingScheme.TFIDF) {
+            idfScores = this.calculateIDFScores(documentFrequencies, listOfBagOfWords.size());
+
+            for (int j = 0; j < idfScores.length; j++) {
+                idfCalculationsMap.put(uniqueTermsIndexAsList.get(j), idfScores[j]);
             }
         }
+
+        // apply weighting scheme
+        for (float[] row : binaryTermDocumentMatrixToReturn) {
+            applyWeightingScheme(row, 0, row.length, null, idfScores, weightingSchemeToUse);
+        }
         System.gc();
 
         System.out.println(new Date().toString() + ": Done converting list of tokenized strings into binary TDM as 2D Array...");
@@ -396,6 +805,329 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
         return binaryTermDocumentMatrixToReturn;
     }
 
+    /**
+     * Converts list of bag of words into term-by-document matrix in compressed sparse row form. 
+     * Document frequencies of all terms are counted in the same pass over the transactions, 
+     * for IDF and TFIDF weighting.
+     * 
+     * @param listOfBagOfWords list of bag of words which are to be converted into term-by-document matrix
+     * @param uniqueTermsIndexAsList sorted list of unique terms contained in list of bag of words
+     * @param weightingSchemeToUse weighting scheme to be used for calculating term-by-document matrix values
+     * @return the sparse term-by-document matrix, with columns in order of uniqueTermsIndexAsList
+     */
+    public SparseTDM convertListOfBagOfWordsIntoSparseTDM(List<List<String>> listOfBagOfWords,
+            List<String> uniqueTermsIndexAsList, WeightingScheme weightingSchemeToUse) {
+        System.out.println(new Date().toString() + ": Converting list of tokenized strings into sparse TDM...");
+        TermDictionary termDictionary = TermDictionary.fromUniqueTerms(uniqueTermsIndexAsList);
+        TDMRowPartitionBuilder.SparseRows sparseRows;
+        int[] rowPointers;
+        int[] columnIndexes;
+        int[] termCounts;
+        int[] documentFrequencies;
+        float[] values;
+        float[] idfScores = null;
+        int numberOfEntries;
+
+        // collect distinct terms of each bag of words in column order with their counts, and document frequencies
+        sparseRows = new TDMRowPartitionBuilder(listOfBagOfWords, termDictionary, parallelism).buildSparseRows();
+        rowPointers = sparseRows.getRowPointers();
+        columnIndexes = sparseRows.getColumnIndexes();
+        termCounts = sparseRows.getTermCounts();
+        documentFrequencies = sparseRows.getDocumentFrequencies();
+        numberOfEntries = sparseRows.getNumberOfEntries();
+
+        // calculate IDF scores from document frequencies
+        if (weightingSchemeToUse == WeightingScheme.IDF || weightingSchemeToUse == WeightingScheme.TFIDF) {
+            idfScores = this.calculateIDFScores(documentFrequencies, listOfBagOfWords.size());
+        }
+
+        // apply weighting scheme
+        values = new float[numberOfEntries];
+        for (int k = 0; k < numberOfEntries; k++) {
+            values[k] = termCounts[k];
+        }
+        applyWeightingScheme(values, 0, numberOfEntries, columnIndexes, idfScores, weightingSchemeToUse);
+
+        System.out.println(new Date().toString() + ": Done converting list of tokenized strings into sparse TDM, "
+                + listOfBagOfWords.size() + " rows, " + uniqueTermsIndexAsList.size() + " columns, "
+                + numberOfEntries + " entries.");
+
+        return new SparseTDM(rowPointers, Arrays.copyOf(columnIndexes, numberOfEntries), values,
+                uniqueTermsIndexAsList.size());
+    }
+
+    /**
+     * Prunes items and transactions from sparse term-by-document matrix by using 
+     * the term prune values provided by user
+     * 
+     * <ol>
+     * <li>Prunes those terms which have a value less than termPruneMinValue or greater 
+     * than termPruneMaxValue in any transaction, and deletes them from uniqueTermsIndexAsList.</li>
+     * <li>Prunes transactions as prune2DArrayAndUniqueTermsIndexAsList() does, which counts every 
+     * column of a transaction as present, so that transactions are pruned only if the matrix has 
+     * less than minimumNumberOfItemsInTransaction columns.</li>
+     * </ol>
+     * 
+     * @param sparseTDMToPrune sparse term-by-document matrix to prune
+     * @param uniqueTermsIndexAsList unique terms index as list of strings
+     * @param termPruneMinValue lower bound of term prune value
+     * @param termPruneMaxValue upper bound of term prune value
+     * @param minimumNumberOfItemsInTransaction minimum number of terms in transaction 
+     * 
+     * @return the sparse term-by-document matrix containing only remaining transactions and terms,
+     * with columns renumbered in order of updated uniqueTermsIndexAsList
+     */
+    public SparseTDM pruneSparseTDMAndUniqueTermsIndexAsList(SparseTDM sparseTDMToPrune,
+            List<String> uniqueTermsIndexAsList, float termPruneMinValue, float termPruneMaxValue,
+            float minimumNumberOfItemsInTransaction) {
+        System.out.println(new Date().toString() + ": Started pruning sparse TDM ... ");
+        int[] columnIndexes = sparseTDMToPrune.getColumnIndexes();
+        float[] values = sparseTDMToPrune.getValues();
+        boolean[] termsToPruneOut = new boolean[sparseTDMToPrune.getNumberOfColumns()];
+        int[] newColumnIndexes = new int[sparseTDMToPrune.getNumberOfColumns()];
+        int[] numberOfTermsPresent = new int[sparseTDMToPrune.getNumberOfRows()];
+        boolean keepTransactions = sparseTDMToPrune.getNumberOfColumns() >= minimumNumberOfItemsInTransaction;
+        List<String> remainingTerms = new ArrayList<>();
+        int[] prunedRowPointers;
+        int[] prunedColumnIndexes;
+        float[] prunedValues;
+        int numberOfRemainingRows = 0;
+        int numberOfRemainingEntries = 0;
+        int row;
+
+        // term prune preprocessing
+        for (int k = 0; k < values.length; k++) {
+            if (values[k] != 0 && (values[k] < termPruneMinValue || values[k] > termPruneMaxValue)) {
+                termsToPruneOut[columnIndexes[k]] = true;
+            }
+        }
+
+        // renumber remaining terms
+        for (int j = 0; j < termsToPruneOut.length; j++) {
+            if (termsToPruneOut[j]) {
+                newColumnIndexes[j] = -1;
+            } else {
+                newColumnIndexes[j] = remainingTerms.size();
+                remainingTerms.add(uniqueTermsIndexAsList.get(j));
+            }
+        }
+
+        // transaction prune preprocessing, count the terms remaining after term pruning
+        for (int i = 0; i < numberOfTermsPresent.length; i++) {
+            for (int k = sparseTDMToPrune.getRowStart(i); k < sparseTDMToPrune.getRowEnd(i); k++) {
+                if (values[k] != 0 && newColumnIndexes[columnIndexes[k]] != -1) {
+                    ++numberOfTermsPresent[i];
+                }
+            }
+
+            if (keepTransactions) {
+                ++numberOfRemainingRows;
+                numberOfRemainingEntries += numberOfTermsPresent[i];
+            }
+        }
+
+        // copy remaining transactions and terms
+        prunedRowPointers = new int[numberOfRemainingRows + 1];
+        prunedColumnIndexes = new int[numberOfRemainingEntries];
+        prunedValues = new float[numberOfRemainingEntries];
+        row = 0;
+        numberOfRemainingEntries = 0;
+
+        for (int i = 0; i < numberOfTermsPresent.length; i++) {
+            if (!keepTransactions) {
+                continue;
+            }
+
+            for (int k = sparseTDMToPrune.getRowStart(i); k < sparseTDMToPrune.getRowEnd(i); k++) {
+                if (values[k] != 0 && newColumnIndexes[columnIndexes[k]] != -1) {
+                    prunedColumnIndexes[numberOfRemainingEntries] = newColumnIndexes[columnIndexes[k]];
+                    prunedValues[numberOfRemainingEntries] = values[k];
+                    ++numberOfRemainingEntries;
+                }
+            }
+            prunedRowPointers[++row] = numberOfRemainingEntries;
+        }
+
+        System.out.println(new Date().toString() + ": Pruned " + (uniqueTermsIndexAsList.size() - remainingTerms.size())
+                + " terms and " + (numberOfTermsPresent.length - numberOfRemainingRows) + " transactions.");
+
+        // update uniqueTermsIndexAsList
+        uniqueTermsIndexAsList.clear();
+        uniqueTermsIndexAsList.addAll(remainingTerms);
+        System.out.println(new Date().toString() + ": Size of remaining uniqueTermsIndexList : " + uniqueTermsIndexAsList.size());
+
+        System.out.println(new Date().toString() + ": Completed pruning sparse TDM ... ");
+
+        return new SparseTDM(prunedRowPointers, prunedColumnIndexes, prunedValues, remainingTerms.size());
+    }
+
+    /**
+     * Appends sparse term-by-document matrix to output CSV file, writing y for 
+     * the terms contained in a transaction and leaving other cells empty
+     * 
+     * @param sparseTDMToSave sparse term-by-document matrix to save, already pruned
+     * @param pathOfOutputFileToSaveTermFrequencies path of output file, already containing the header
+     * @return true if file saves, false if file could not be saved
+     */
+    public boolean saveSparseTDMToOutputFileAsCSV(SparseTDM sparseTDMToSave,
+            Path pathOfOutputFileToSaveTermFrequencies) {
+        System.out.println(new Date().toString() + ": Saving sparse TDM to output file...\nSparse TDM Contains: "
+                + sparseTDMToSave.getNumberOfRows() + " rows.");
+
+        try (TDMCSVWriter writer = new TDMCSVWriter(pathOfOutputFileToSaveTermFrequencies)) {
+            writeSparseRows(sparseTDMToSave, writer);
+        } catch (IOException e) {
+            System.err.println("Couldn't save sparse TDM to output file.");
+            e.printStackTrace();
+
+            return false;
+        }
+
+        System.out.println(new Date().toString() + ": Done Saving sparse TDM to Output file...");
+
+        return true;
+    }
+
+    /**
+     * Prunes items and transactions from bitmap term-by-document matrix. The weight of a term is 
+     * the same in all transactions containing it, 1 for BINARY weighting, and its IDF score from 
+     * its column bitmap cardinality for IDF weighting, so pruning gives the same matrix as 
+     * pruneSparseTDMAndUniqueTermsIndexAsList() does.
+     * 
+     * <ol>
+     * <li>Prunes those terms whose weight is less than termPruneMinValue or greater than 
+     * termPruneMaxValue, and clears those terms whose weight is 0, as sparse entries of 0 are dropped.</li>
+     * <li>Prunes transactions as prune2DArrayAndUniqueTermsIndexAsList() does, which counts every 
+     * column of a transaction as present, so that transactions are pruned only if the matrix has 
+     * less than minimumNumberOfItemsInTransaction columns.</li>
+     * <li>If minimumSupportForMining is set, prunes those terms whose support, counted 
+     * from column bitmap cardinalities, is below minimum support in the remaining transactions. 
+     * Such terms can not appear in any frequent itemset, and transactions are not pruned 
+     * again, so that supports of the remaining itemsets are unchanged.</li>
+     * </ol>
+     * 
+     * @param bitmapTDMToPrune bitmap term-by-document matrix to prune
+     * @param uniqueTermsIndexAsList unique terms index as list of strings
+     * @param weightingSchemeToUse BINARY or IDF weighting scheme of term-by-document matrix
+     * @param termPruneMinValue lower bound of term prune value
+     * @param termPruneMaxValue upper bound of term prune value
+     * @param minimumNumberOfItemsInTransaction minimum number of terms in transaction 
+     * 
+     * @return the bitmap term-by-document matrix containing only remaining transactions and terms,
+     * with columns renumbered in order of updated uniqueTermsIndexAsList
+     */
+    public BitmapTDM pruneBitmapTDMAndUniqueTermsIndexAsList(BitmapTDM bitmapTDMToPrune,
+            List<String> uniqueTermsIndexAsList, WeightingScheme weightingSchemeToUse, float termPruneMinValue,
+            float termPruneMaxValue, float minimumNumberOfItemsInTransaction) {
+        System.out.println(new Date().toString() + ": Started pruning bitmap TDM ... ");
+        boolean[] columnsToKeep = new boolean[bitmapTDMToPrune.getNumberOfColumns()];
+        boolean[] columnsToClear = new boolean[bitmapTDMToPrune.getNumberOfColumns()];
+        boolean[] rowsToKeep = new boolean[bitmapTDMToPrune.getNumberOfRows()];
+        int[] supportOfColumn = new int[bitmapTDMToPrune.getNumberOfColumns()];
+        float[] weightOfColumn;
+        int minimumSupportCount;
+        List<String> remainingTerms = new ArrayList<>();
+
+        // weight of each term, from its support for IDF weighting
+        for (int j = 0; j < supportOfColumn.length; j++) {
+            supportOfColumn[j] = bitmapTDMToPrune.getSupport(j);
+        }
+        if (weightingSchemeToUse == WeightingScheme.IDF) {
+            weightOfColumn = this.calculateIDFScores(supportOfColumn, bitmapTDMToPrune.getNumberOfRows());
+        } else {
+            weightOfColumn = new float[supportOfColumn.length];
+            Arrays.fill(weightOfColumn, 1);
+        }
+
+        // term pruning by prune values, terms contained in no transaction having no weight to prune
+        for (int j = 0; j < columnsToKeep.length; j++) {
+            columnsToClear[j] = supportOfColumn[j] > 0 && weightOfColumn[j] == 0;
+            columnsToKeep[j] = supportOfColumn[j] == 0 || columnsToClear[j]
+                    || (weightOfColumn[j] >= termPruneMinValue && weightOfColumn[j] <= termPruneMaxValue);
+
+            if (columnsToKeep[j]) {
+                remainingTerms.add(uniqueTermsIndexAsList.get(j));
+            }
+        }
+
+        // transaction pruning
+        Arrays.fill(rowsToKeep, bitmapTDMToPrune.getNumberOfColumns() >= minimumNumberOfItemsInTransaction);
+        bitmapTDMToPrune = bitmapTDMToPrune.compact(rowsToKeep, columnsToKeep, columnsToClear);
+        System.out.println(new Date().toString() + ": Pruned " + (uniqueTermsIndexAsList.size() - remainingTerms.size())
+                + " terms and " + (rowsToKeep.length - bitmapTDMToPrune.getNumberOfRows()) + " transactions.");
+        uniqueTermsIndexAsList.clear();
+        uniqueTermsIndexAsList.addAll(remainingTerms);
+
+        // term pruning by support in remaining transactions
+        numberOfTermsBelowMinimumSupport = 0;
+        if (minimumSupportForMining > 0) {
+            minimumSupportCount = NativeFPGrowthARMiner.toSupportCount(minimumSupportForMining,
+                    bitmapTDMToPrune.getNumberOfRows());
+            columnsToKeep = new boolean[bitmapTDMToPrune.getNumberOfColumns()];
+            rowsToKeep = new boolean[bitmapTDMToPrune.getNumberOfRows()];
+            Arrays.fill(rowsToKeep, true);
+            remainingTerms = new ArrayList<>();
+
+            for (int j = 0; j < columnsToKeep.length; j++) {
+                columnsToKeep[j] = bitmapTDMToPrune.getSupport(j) >= minimumSupportCount;
+
+                if (columnsToKeep[j]) {
+                    remainingTerms.add(uniqueTermsIndexAsList.get(j));
+                } else {
+                    ++numberOfTermsBelowMinimumSupport;
+                }
+            }
+
+            bitmapTDMToPrune = bitmapTDMToPrune.compact(rowsToKeep, columnsToKeep);
+            uniqueTermsIndexAsList.clear();
+            uniqueTermsIndexAsList.addAll(remainingTerms);
+            System.out.println(new Date().toString() + ": Pruned " + numberOfTermsBelowMinimumSupport
+                    + " terms below minimum support count of " + minimumSupportCount);
+        }
+
+        System.out.println(new Date().toString() + ": Size of remaining uniqueTermsIndexList : " + uniqueTermsIndexAsList.size()
+                + ", remaining transactions : " + bitmapTDMToPrune.getNumberOfRows());
+        System.out.println(new Date().toString() + ": Completed pruning bitmap TDM ... ");
+
+        return bitmapTDMToPrune;
+    }
+
+    /**
+     * @param weightingScheme weighting scheme of term-by-document matrix
+     * @return true if BITMAP representation holds the weighting scheme, the weight of a term 
+     * being the same in all transactions containing it
+     */
+    private static boolean isBitmapWeighting(WeightingScheme weightingScheme) {
+        return weightingScheme == WeightingScheme.BINARY || weightingScheme == WeightingScheme.IDF;
+    }
+
+    /**
+     * Appends bitmap term-by-document matrix to output CSV file, writing y for 
+     * the terms contained in a transaction and leaving other cells empty
+     * 
+     * @param bitmapTDMToSave bitmap term-by-document matrix to save, already pruned
+     * @param pathOfOutputFileToSaveTermFrequencies path of output file, already containing the header
+     * @return true if file saves, false if file could not be saved
+     */
+    public boolean saveBitmapTDMToOutputFileAsCSV(BitmapTDM bitmapTDMToSave,
+            Path pathOfOutputFileToSaveTermFrequencies) {
+        System.out.println(new Date().toString() + ": Saving bitmap TDM to output file...\nBitmap TDM Contains: "
+                + bitmapTDMToSave.getNumberOfRows() + " rows.");
+
+        try (TDMCSVWriter writer = new TDMCSVWriter(pathOfOutputFileToSaveTermFrequencies)) {
+            writeBitmapRows(bitmapTDMToSave, writer);
+        } catch (IOException e) {
+            System.err.println("Couldn't save bitmap TDM to output file.");
+            e.printStackTrace();
+
+            return false;
+        }
+
+        System.out.println(new Date().toString() + ": Done Saving bitmap TDM to Output file...");
+
+        return true;
+    }
+
     /**
      * Creates sorted unique terms index as list of Strings
      * 
@@ -404,20 +1136,10 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
      */
     public List<String> createUniqueTermsIndexAsListOfStrings(List<List<String>> transactions) {
         System.out.println(new Date().toString() + ": Creating unique terms index as list of string using tokenized transactions...");
-        List<String> uniqueTermsIndex = new ArrayList<>();
-
-        for (Iterator<List<String>> it = transactions.iterator(); it.hasNext();) {
-            List<String> transaction = it.next();
-            for (String token : transaction) {
-                // if uniqueTermsIndex does not contain token, then add it
-                if (uniqueTermsIndex.contains(token) == false) {
-                    uniqueTermsIndex.add(token);
-                }
-            }
-        }
+        List<String> uniqueTermsIndex;
 
-        // Sort uniqueTermsIndex
-        Collections.sort(uniqueTermsIndex);
+        // term dictionary adds each token only once, and sorts the unique terms
+        uniqueTermsIndex = TermDictionary.fromListOfBagOfWords(transactions).getTermsAsList();
         System.out.println(new Date().toString() + ": Size of Index : " + uniqueTermsIndex.size());
 
         System.gc();
@@ -438,20 +1160,10 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
     public String createUniqueTermsCommaSeparatedIndex(List<List<String>> transactions) {
         System.out.println(new Date().toString() + ": Creating unique terms comma separated index using tokenized transactions...");
         String commaSeparatedTermsIndexToReturn = "";
-        List<String> uniqueTermsIndex = new ArrayList<>();
-
-        for (Iterator<List<String>> it = transactions.iterator(); it.hasNext();) {
-            List<String> transaction = it.next();
-            for (String token : transaction) {
-                // if uniqueTermsIndex does not contain token, then add it
-                if (uniqueTermsIndex.contains(token) == false) {
-                    uniqueTermsIndex.add(token);
-                }
-            }
-        }
+        List<String> uniqueTermsIndex;
 
-        // Sort uniqueTermsIndex
-        Collections.sort(uniqueTermsIndex);
+        // term dictionary adds each token only once, and sorts the unique terms
+        uniqueTermsIndex = TermDictionary.fromListOfBagOfWords(transactions).getTermsAsList();
         System.out.println(new Date().toString() + ": Size of Index : " + uniqueTermsIndex.size());
 
         // Convert uniqueTermsIndex to commaSeparatedTermsIndexToReturn
@@ -481,18 +1193,7 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
      */
     public String convertUniqueTermsIndexListIntoCommaSeparatedTermsIndex(List<String> uniqueTermsIndex) {
         System.out.println(new Date().toString() + ": Converting unique terms sorted list into comma separated index...");
-        String commaSeparatedTermsIndexToReturn = "";
-
-        // Convert uniqueTermsIndex to commaSeparatedTermsIndexToReturn
-        for (Iterator<String> u = uniqueTermsIndex.iterator(); u.hasNext();) {
-            String term = u.next();
-
-            if (u.hasNext()) {
-                commaSeparatedTermsIndexToReturn += term + ",";
-            } else {
-                commaSeparatedTermsIndexToReturn += term;
-            }
-        }
+        String commaSeparatedTermsIndexToReturn = String.join(",", uniqueTermsIndex);
         
         System.out.println(new Date().toString() + ": Done converting unique terms sorted list into comma separated index...");
         System.out.println("Index:" + commaSeparatedTermsIndexToReturn);
@@ -518,45 +1219,278 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
         System.out.println(new Date().toString() + ": Saving 2D Array to output file...\n2D Array Contains: "
                 + twoDimensionalArrayToConvert.length + " rows.");
         boolean processCompleted = false;
-        String commaSeparatedTermFrequencies = null;
 
-        for (int i = 0; i < twoDimensionalArrayToConvert.length; i++) {
-            System.out.println(new Date().toString() + ": Converting row number " + i);
+        try (TDMCSVWriter writer = new TDMCSVWriter(pathOfOutputFileToSaveTermFrequencies)) {
+            writeDenseRows(twoDimensionalArrayToConvert, writer);
 
-            // transaction pruning
-            if (twoDimensionalArrayToConvert[i][0] == -2) {
-                System.out.println(new Date().toString() + ": skipping row number " + i);
-                continue;
-            }
-            commaSeparatedTermFrequencies = "";
+            processCompleted = true;
+            System.out.println(new Date().toString() + ": Done Saving 2D Array to Output file, "
+                    + writer.getNumberOfRowsWritten() + " rows written.");
+        } catch (IOException e) {
+            System.err.println("Couldn't save 2D Array to output file.");
+            e.printStackTrace();
+        }
 
-            for (int j = 0; j < twoDimensionalArrayToConvert[i].length; j++) {
-                // item pruning
-                if (twoDimensionalArrayToConvert[i][j] == -1) {
-                    continue;
-                }
+        return processCompleted;
+    }
 
-                if (twoDimensionalArrayToConvert[i][j] == 0) {
-                    commaSeparatedTermFrequencies += ",";
-                } else {
-                    commaSeparatedTermFrequencies += "y,";
+    /**
+     * Saves the index and term-by-document matrix as CSV with _TDM.csv suffix, 
+     * and as Weka sparse ARFF with _TDM.arff suffix if ARFF export is set. 
+     * Only one of the matrices is expected to be non-null.
+     *
+     * @param filePath folder path of input file, in which to save
+     * @param fileNameAndExtension input file name and extension
+     * @param twoDimensionalArrayToSave pruned 2-dimensional array, or null
+     * @param sparseTDMToSave pruned sparse term-by-document matrix, or null
+     * @param bitmapTDMToSave pruned bitmap term-by-document matrix, or null
+     * @param uniqueTermsIndexAsList terms, in column order
+     * @return true if files were saved successfully, false otherwise
+     * @throws IOException if CSV file could not be created
+     */
+    private boolean saveTDMFiles(String filePath, String fileNameAndExtension, float[][] twoDimensionalArrayToSave,
+            SparseTDM sparseTDMToSave, BitmapTDM bitmapTDMToSave, List<String> uniqueTermsIndexAsList) throws IOException {
+        boolean filesSavedSuccessfully;
+        String commaSeparatedUniqueTermsIndex;
+        String fileNameWithoutExtension = fileNameAndExtension.substring(0, fileNameAndExtension.lastIndexOf("."));
+        Path pathOfCSVFileToCreate;
+
+        /*
+         * convert uniqueTermsIndex into string and save, followed by rows
+         */
+        commaSeparatedUniqueTermsIndex = this.convertUniqueTermsIndexListIntoCommaSeparatedTermsIndex(uniqueTermsIndexAsList);
+        commaSeparatedUniqueTermsIndex += "\n";
+
+        // write title index to the file
+        pathOfCSVFileToCreate = FileSystems.getDefault().getPath(filePath, fileNameWithoutExtension + "_TDM.csv");
+        Files.deleteIfExists(pathOfCSVFileToCreate);
+        pathOfCSVFileToCreate = Files.write(pathOfCSVFileToCreate, commaSeparatedUniqueTermsIndex.getBytes(),
+                StandardOpenOption.CREATE);
+
+        if (bitmapTDMToSave != null) {
+            filesSavedSuccessfully = this.saveBitmapTDMToOutputFileAsCSV(bitmapTDMToSave, pathOfCSVFileToCreate);
+        } else if (sparseTDMToSave != null) {
+            filesSavedSuccessfully = this.saveSparseTDMToOutputFileAsCSV(sparseTDMToSave, pathOfCSVFileToCreate);
+        } else {
+            filesSavedSuccessfully = this.save2DArrayToOutputFileAsCSV(twoDimensionalArrayToSave, pathOfCSVFileToCreate);
+        }
+
+        // save sparse ARFF for mining
+        if (filesSavedSuccessfully && arffExport) {
+            filesSavedSuccessfully = this.saveTDMToOutputFileAsARFF(twoDimensionalArrayToSave, sparseTDMToSave,
+                    bitmapTDMToSave, uniqueTermsIndexAsList,
+                    FileSystems.getDefault().getPath(filePath, fileNameWithoutExtension + "_TDM.arff"));
+        }
+
+        return filesSavedSuccessfully;
+    }
+
+    /**
+     * Saves the term-by-document matrix files on a background thread, 
+     * so that mining of in-memory Instances need not wait for them
+     *
+     * @see #saveTDMFiles
+     * 
+     * @return future result of saving, true if files were saved successfully
+     */
+    private Future<Boolean> saveTDMFilesInBackground(String filePath, String fileNameAndExtension,
+            float[][] twoDimensionalArrayToSave, SparseTDM sparseTDMToSave, BitmapTDM bitmapTDMToSave,
+            List<String> uniqueTermsIndexAsList) {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            return executor.submit(() -> {
+                try {
+                    return this.saveTDMFiles(filePath, fileNameAndExtension, twoDimensionalArrayToSave,
+                            sparseTDMToSave, bitmapTDMToSave, uniqueTermsIndexAsList);
+                } catch (IOException ex) {
+                    Logger.getLogger(ListOfStringsToBinaryTDMUsing2DMatrix.class.getName()).log(Level.SEVERE, null, ex);
+                    System.err.println("Failed. Could not save TDM files.");
+
+                    return false;
                 }
+            });
+        } finally {
+            // thread exits once files are saved
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Converts the term-by-document matrix into Weka Instances, each transaction being a 
+     * SparseInstance holding value y for the terms it contains, as loaded from sparse ARFF. 
+     * Only one of the matrices is expected to be non-null.
+     *
+     * @param twoDimensionalArrayToConvert pruned 2-dimensional array, or null
+     * @param sparseTDMToConvert pruned sparse term-by-document matrix, or null
+     * @param bitmapTDMToConvert pruned bitmap term-by-document matrix, or null
+     * @param uniqueTermsIndexAsList terms, in column order
+     * @param relationName name of the relation
+     * @return the Instances, null if conversion failed
+     */
+    public Instances convertTDMToInstances(float[][] twoDimensionalArrayToConvert, SparseTDM sparseTDMToConvert,
+            BitmapTDM bitmapTDMToConvert, List<String> uniqueTermsIndexAsList, String relationName) {
+        TDMInstancesWriter writer;
+        int numberOfRows;
+
+        System.out.println(new Date().toString() + ": Converting TDM into Instances...");
+
+        if (bitmapTDMToConvert != null) {
+            numberOfRows = bitmapTDMToConvert.getNumberOfRows();
+        } else if (sparseTDMToConvert != null) {
+            numberOfRows = sparseTDMToConvert.getNumberOfRows();
+        } else {
+            numberOfRows = twoDimensionalArrayToConvert.length;
+        }
+
+        writer = new TDMInstancesWriter(relationName, uniqueTermsIndexAsList, numberOfRows);
+
+        try {
+            if (bitmapTDMToConvert != null) {
+                writeBitmapRows(bitmapTDMToConvert, writer);
+            } else if (sparseTDMToConvert != null) {
+                writeSparseRows(sparseTDMToConvert, writer);
+            } else {
+                writeDenseRows(twoDimensionalArrayToConvert, writer);
             }
-            System.out.println(new Date().toString() + ": Converted row number " + i);
-            // start new line for each of new line
-            commaSeparatedTermFrequencies = commaSeparatedTermFrequencies.substring(0, commaSeparatedTermFrequencies.lastIndexOf(","));
-            commaSeparatedTermFrequencies += "\n";
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Couldn't convert TDM into Instances.");
+            e.printStackTrace();
 
-            // call method to append the update
-            ListOfStringsToBinaryTDMUsing2DMatrix
-                    .appendContentVector(pathOfOutputFileToSaveTermFrequencies, commaSeparatedTermFrequencies);
+            return null;
         }
-        
-        processCompleted = true;
-        System.out.println(new Date().toString() + ": Done Saving 2D Array to Output file...");
-        System.gc();
 
-        return processCompleted;
+        System.out.println(new Date().toString() + ": Done converting TDM into Instances, "
+                + writer.getNumberOfRowsWritten() + " rows.");
+
+        return writer.getInstances();
+    }
+
+    /**
+     * Converts the term-by-document matrix into int-encoded transactions, each transaction being 
+     * the sorted column indexes of the terms it contains. Only one of the matrices is expected 
+     * to be non-null.
+     *
+     * @param twoDimensionalArrayToConvert pruned 2-dimensional array, or null
+     * @param sparseTDMToConvert pruned sparse term-by-document matrix, or null
+     * @param bitmapTDMToConvert pruned bitmap term-by-document matrix, or null
+     * @return the transactions, null if conversion failed
+     */
+    public int[][] convertTDMToTransactions(float[][] twoDimensionalArrayToConvert, SparseTDM sparseTDMToConvert,
+            BitmapTDM bitmapTDMToConvert) {
+        TDMTransactionsWriter writer;
+        int numberOfRows;
+
+        System.out.println(new Date().toString() + ": Converting TDM into transactions...");
+
+        if (bitmapTDMToConvert != null) {
+            numberOfRows = bitmapTDMToConvert.getNumberOfRows();
+        } else if (sparseTDMToConvert != null) {
+            numberOfRows = sparseTDMToConvert.getNumberOfRows();
+        } else {
+            numberOfRows = twoDimensionalArrayToConvert.length;
+        }
+
+        writer = new TDMTransactionsWriter(numberOfRows);
+
+        try {
+            if (bitmapTDMToConvert != null) {
+                writeBitmapRows(bitmapTDMToConvert, writer);
+            } else if (sparseTDMToConvert != null) {
+                writeSparseRows(sparseTDMToConvert, writer);
+            } else {
+                writeDenseRows(twoDimensionalArrayToConvert, writer);
+            }
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Couldn't convert TDM into transactions.");
+            e.printStackTrace();
+
+            return null;
+        }
+
+        System.out.println(new Date().toString() + ": Done converting TDM into transactions, "
+                + writer.getNumberOfRowsWritten() + " rows.");
+
+        return writer.getTransactions();
+    }
+
+    /**
+     * Saves term-by-document matrix to output file as Weka sparse ARFF, in the representation 
+     * used by the last conversion. Only one of the matrices is required.
+     * 
+     * @param twoDimensionalArrayToSave 2-dimensional array to save, marked for pruning, if dense representation was used
+     * @param sparseTDMToSave sparse term-by-document matrix to save, already pruned, if sparse representation was used
+     * @param bitmapTDMToSave bitmap term-by-document matrix to save, already pruned, if bitmap representation was used
+     * @param uniqueTermsIndexAsList remaining unique terms, in column order
+     * @param pathOfOutputFile path of output ARFF file, replaced if it exists
+     * @return true if file saves, false if file could not be saved
+     */
+    public boolean saveTDMToOutputFileAsARFF(float[][] twoDimensionalArrayToSave, SparseTDM sparseTDMToSave,
+            BitmapTDM bitmapTDMToSave, List<String> uniqueTermsIndexAsList, Path pathOfOutputFile) {
+        String relationName = pathOfOutputFile.getFileName().toString();
+
+        System.out.println(new Date().toString() + ": Saving TDM to ARFF file " + relationName + "...");
+        relationName = relationName.substring(0, relationName.lastIndexOf("."));
+
+        try (TDMARFFWriter writer = new TDMARFFWriter(pathOfOutputFile, relationName, uniqueTermsIndexAsList)) {
+            if (bitmapTDMToSave != null) {
+                writeBitmapRows(bitmapTDMToSave, writer);
+            } else if (sparseTDMToSave != null) {
+                writeSparseRows(sparseTDMToSave, writer);
+            } else {
+                writeDenseRows(twoDimensionalArrayToSave, writer);
+            }
+
+            System.out.println(new Date().toString() + ": Done saving TDM to ARFF file, "
+                    + writer.getNumberOfRowsWritten() + " rows written.");
+        } catch (IOException e) {
+            System.err.println("Couldn't save TDM to ARFF file.");
+            e.printStackTrace();
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes the rows of 2-dimensional array, skipping the transactions marked with -2
+     */
+    private static void writeDenseRows(float[][] twoDimensionalArrayToWrite, TDMRowWriter writer) throws IOException {
+        for (int i = 0; i < twoDimensionalArrayToWrite.length; i++) {
+            // transaction pruning
+            if (twoDimensionalArrayToWrite[i].length > 0 && twoDimensionalArrayToWrite[i][0] == -2) {
+                continue;
+            }
+
+            writer.writeDenseRow(twoDimensionalArrayToWrite[i]);
+        }
+    }
+
+    /**
+     * Writes the rows of sparse term-by-document matrix
+     */
+    private static void writeSparseRows(SparseTDM sparseTDMToWrite, TDMRowWriter writer) throws IOException {
+        for (int i = 0; i < sparseTDMToWrite.getNumberOfRows(); i++) {
+            writer.writeSparseRow(sparseTDMToWrite.getColumnIndexes(), sparseTDMToWrite.getValues(),
+                    sparseTDMToWrite.getRowStart(i), sparseTDMToWrite.getRowEnd(i),
+                    sparseTDMToWrite.getNumberOfColumns());
+        }
+    }
+
+    /**
+     * Writes the rows of bitmap term-by-document matrix
+     */
+    private static void writeBitmapRows(BitmapTDM bitmapTDMToWrite, TDMRowWriter writer) throws IOException {
+        int[] columnsOfRow;
+
+        for (int i = 0; i < bitmapTDMToWrite.getNumberOfRows(); i++) {
+            columnsOfRow = bitmapTDMToWrite.getRowBitmap(i).toArray();
+
+            writer.writeSparseRow(columnsOfRow, null, 0, columnsOfRow.length, bitmapTDMToWrite.getNumberOfColumns());
+        }
     }
 
     /**
@@ -565,7 +1499,10 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
      * @param outputFilePath path of output file
      * @param contentVectorToAppend string to append
      * @return true if append successful, false if append failed
+     * @deprecated deprecated due to lower performance, as it opens and closes the file for each row,
+     * use com.starm.preprocessing.tdm.TDMCSVWriter instead
      */
+    @Deprecated
     public static synchronized Boolean appendContentVector(Path outputFilePath, String contentVectorToAppend) {
 
         System.out.println(new Date() + " : Appending content vector.");
@@ -611,7 +1548,10 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
      * than termPruneMinValue or greater than termPruneMaxValue. Also deletes
      * -1ed terms from uniqueTermsIndexAsList. Also places -2 as first item of
      * those transactions which should be pruned out completely.
+     * @deprecated deprecated as sentinels overwrite values and every later stage has to skip them, 
+     * use prune2DArrayAndUniqueTermsIndexAsListUsingBitmasks() instead
      */
+    @Deprecated
     public float[][] prune2DArrayAndUniqueTermsIndexAsList(float[][] twoDimensionalArrayToPrune,
             List<String> uniqueTermsIndexAsList, float termPruneMinValue, float termPruneMaxValue,
             float minimumNumberOfItemsInTransaction) {
@@ -659,9 +1599,9 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
             }
         }
 
-        for (int i = 0; i < twoDimensionalArrayToPrune.length; i++) {
-            if (indexesOfTransactionsToSkip.contains(i)) {
-                twoDimensionalArrayToPrune[i][0] = -2;
+        for (Integer transactionToSkip : indexesOfTransactionsToSkip) {
+            if (twoDimensionalArrayToPrune[transactionToSkip].length > 0) {
+                twoDimensionalArrayToPrune[transactionToSkip][0] = -2;
             }
         }
 
@@ -677,6 +1617,236 @@ public class ListOfStringsToBinaryTDMUsing2DMatrix {
         return twoDimensionalArrayToReturn = twoDimensionalArrayToPrune;
     }
 
+    public TDMRepresentation getTdmRepresentation() {
+        return tdmRepresentation;
+    }
+
+    public void setTdmRepresentation(TDMRepresentation tdmRepresentation) {
+        this.tdmRepresentation = tdmRepresentation;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getNumberOfTermsToSelect() {
+        return numberOfTermsToSelect;
+    }
+
+    public void setNumberOfTermsToSelect(int numberOfTermsToSelect) {
+        this.numberOfTermsToSelect = numberOfTermsToSelect;
+    }
+
+    public FeatureScore getFeatureScore() {
+        return featureScore;
+    }
+
+    public void setFeatureScore(FeatureScore featureScore) {
+        this.featureScore = featureScore;
+    }
+
+    /**
+     * @return number of unique terms of the last conversion, before term pruning and feature selection
+     */
+    public int getNumberOfTermsBeforeSelection() {
+        return numberOfTermsBeforeSelection;
+    }
+
+    /**
+     * @return planner of the last conversion, null unless AUTOMATIC representation is set
+     */
+    public TDMPlanner getTdmPlanner() {
+        return tdmPlanner;
+    }
+
+    public long getOutOfCoreMemoryBudget() {
+        return outOfCoreMemoryBudget;
+    }
+
+    public void setOutOfCoreMemoryBudget(long outOfCoreMemoryBudget) {
+        this.outOfCoreMemoryBudget = outOfCoreMemoryBudget;
+    }
+
+    public boolean isInMemoryInstances() {
+        return inMemoryInstances;
+    }
+
+    public void setInMemoryInstances(boolean inMemoryInstances) {
+        this.inMemoryInstances = inMemoryInstances;
+    }
+
+    /**
+     * @return Instances converted by the last conversion, null unless in-memory Instances is set
+     */
+    public Instances getTdmInstances() {
+        return tdmInstances;
+    }
+
+    public boolean isInMemoryTransactions() {
+        return inMemoryTransactions;
+    }
+
+    public void setInMemoryTransactions(boolean inMemoryTransactions) {
+        this.inMemoryTransactions = inMemoryTransactions;
+    }
+
+    /**
+     * @return transactions converted by the last conversion, null unless in-memory transactions is set
+     */
+    public int[][] getTdmTransactions() {
+        return tdmTransactions;
+    }
+
+    /**
+     * @return bitmap term-by-document matrix of transactions converted by the last conversion, 
+     * null unless in-memory transactions is set and BITMAP representation was used
+     */
+    public BitmapTDM getTdmBitmap() {
+        return tdmBitmap;
+    }
+
+    /**
+     * @return terms of columns of transactions converted by the last conversion, 
+     * null unless in-memory transactions is set
+     */
+    public List<String> getTdmTerms() {
+        return tdmTerms;
+    }
+
+    /**
+     * @return future result of saving files in background by the last conversion, 
+     * null unless in-memory Instances or transactions is set
+     */
+    public Future<Boolean> getTdmFilesSaved() {
+        return tdmFilesSaved;
+    }
+
+    public boolean isArffExport() {
+        return arffExport;
+    }
+
+    public void setArffExport(boolean arffExport) {
+        this.arffExport = arffExport;
+    }
+
+    public TDMRepresentation getTdmRepresentationUsed() {
+        return tdmRepresentationUsed;
+    }
+
+    public float getMinimumSupportForMining() {
+        return minimumSupportForMining;
+    }
+
+    public void setMinimumSupportForMining(float minimumSupportForMining) {
+        this.minimumSupportForMining = minimumSupportForMining;
+    }
+
+    public int getNumberOfTermsBelowMinimumSupport() {
+        return numberOfTermsBelowMinimumSupport;
+    }
+
+    public int getNumberOfRowsInTDM() {
+        return numberOfRowsInTDM;
+    }
+
+    public int getNumberOfColumnsInTDM() {
+        return numberOfColumnsInTDM;
+    }
+
+    /**
+     * Prunes items and transactions from 2D Array by using the term prune values provided by user, 
+     * and compacts the array
+     * 
+     * <ol>
+     * <li>Clears the bit of those terms in terms bitmask which have a value less than 
+     * termPruneMinValue or greater than termPruneMaxValue in any transaction.</li>
+     * <li>Sets the bits of transactions in transactions bitmask as prune2DArrayAndUniqueTermsIndexAsList() 
+     * does, which counts every column of a transaction as present, so that transactions are pruned 
+     * only if the array has less than minimumNumberOfItemsInTransaction columns.</li>
+     * <li>Copies the cells of remaining transactions and terms into a new array, and 
+     * removes the pruned terms from uniqueTermsIndexAsList.</li>
+     * </ol>
+     * 
+     * @param twoDimensionalArrayToPrune 2-dimensional array to prune
+     * @param uniqueTermsIndexAsList unique terms index as list of strings
+     * @param termPruneMinValue lower bound of term prune value
+     * @param termPruneMaxValue upper bound of term prune value
+     * @param minimumNumberOfItemsInTransaction minimum number of terms in transaction 
+     * 
+     * @return the 2-dimensional array of remaining transactions and terms, with columns 
+     * in order of updated uniqueTermsIndexAsList
+     */
+    public float[][] prune2DArrayAndUniqueTermsIndexAsListUsingBitmasks(float[][] twoDimensionalArrayToPrune,
+            List<String> uniqueTermsIndexAsList, float termPruneMinValue, float termPruneMaxValue,
+            float minimumNumberOfItemsInTransaction) {
+        System.out.println(new Date().toString() + ": Started pruning 2D Array ... ");
+        float[][] twoDimensionalArrayToReturn;
+        BitSet termsToKeep = new BitSet(uniqueTermsIndexAsList.size());
+        BitSet transactionsToKeep = new BitSet(twoDimensionalArrayToPrune.length);
+        List<String> remainingTerms = new ArrayList<>();
+        int[] remainingColumns;
+        int row = 0;
+
+        // term pruning
+        termsToKeep.set(0, uniqueTermsIndexAsList.size());
+        for (float[] transaction : twoDimensionalArrayToPrune) {
+            for (int j = 0; j < transaction.length; j++) {
+                if (transaction[j] != 0
+                        && (transaction[j] < termPruneMinValue || transaction[j] > termPruneMaxValue)) {
+                    termsToKeep.clear(j);
+                }
+            }
+        }
+        remainingColumns = termsToKeep.stream().toArray();
+
+        // transaction pruning
+        if (uniqueTermsIndexAsList.size() >= minimumNumberOfItemsInTransaction) {
+            transactionsToKeep.set(0, twoDimensionalArrayToPrune.length);
+        }
+
+        // compact
+        twoDimensionalArrayToReturn = new float[transactionsToKeep.cardinality()][remainingColumns.length];
+        for (int i = transactionsToKeep.nextSetBit(0); i >= 0; i = transactionsToKeep.nextSetBit(i + 1)) {
+            for (int j = 0; j < remainingColumns.length; j++) {
+                twoDimensionalArrayToReturn[row][j] = twoDimensionalArrayToPrune[i][remainingColumns[j]];
+            }
+            ++row;
+        }
+
+        // update uniqueTermsIndexAsList
+        for (int j : remainingColumns) {
+            remainingTerms.add(uniqueTermsIndexAsList.get(j));
+        }
+        System.out.println(new Date().toString() + ": Pruned " + (uniqueTermsIndexAsList.size() - remainingTerms.size())
+                + " terms and " + (twoDimensionalArrayToPrune.length - row) + " transactions.");
+        uniqueTermsIndexAsList.clear();
+        uniqueTermsIndexAsList.addAll(remainingTerms);
+
+        System.out.println(new Date().toString() + ": Completed pruning 2D Array ... ");
+
+        return twoDimensionalArrayToReturn;
+    }
+
+    public NearDuplicateDetector getNearDuplicateDetector() {
+        return nearDuplicateDetector;
+    }
+
+    public void setNearDuplicateDetector(NearDuplicateDetector nearDuplicateDetector) {
+        this.nearDuplicateDetector = nearDuplicateDetector;
+    }
+
+    /**
+     * @return true if the last conversion collapsed near-duplicate transactions, false if 
+     * near-duplicate detector is not set or OUT_OF_CORE representation was set
+     */
+    public boolean isNearDuplicatesCollapsed() {
+        return nearDuplicatesCollapsed;
+    }
+
     /**
      * @param args the command line arguments
      */
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects near-duplicate transactions (templated replies, quotes with small edits) 
+ * using MinHash signatures with LSH banding, and collapses each cluster of 
+ * near-duplicates into its first transaction. <br /><br />
+ *
+ * Algorithm.<br /><br />
+ *
+ * <ol>
+ * <li>For each bag of words, compute a MinHash signature of numberOfHashFunctions 
+ * values over its distinct terms.</li>
+ * <li>Split each signature into numberOfBands bands, and hash each band into a bucket. 
+ * Transactions sharing a bucket in any band are candidate near-duplicates.</li>
+ * <li>Candidates whose estimated Jaccard similarity is at least similarityThreshold 
+ * are merged into the same cluster.</li>
+ * <li>The first transaction of each cluster survives, and keeps the 1-indexed 
+ * transaction IDs of all members of its cluster.</li>
+ * </ol>
+ *
+ * @author Wasif Altaf
+ */
+public class NearDuplicateDetector {
+
+    // maximum number of earlier bucket members a transaction is compared with
+    private static final int MAXIMUM_COMPARISONS_PER_BUCKET = 32;
+
+    private final int numberOfHashFunctions;
+    private final int numberOfBands;
+    private final float similarityThreshold;
+    private final long[] hashSeeds;
+
+    // survivor transaction ID against IDs of all members of its cluster
+    private Map<Integer, int[]> clusterMap = new LinkedHashMap<>();
+    private int numberOfTransactionsRemoved = 0;
+
+    /**
+     * Constructs NearDuplicateDetector with 128 hash functions in 32 bands, and similarity threshold of 0.8
+     */
+    public NearDuplicateDetector() {
+        this(128, 32, 0.8f);
+    }
+
+    /**
+     * Constructs NearDuplicateDetector
+     *
+     * @param numberOfHashFunctions length of MinHash signatures
+     * @param numberOfBands number of LSH bands, should divide numberOfHashFunctions
+     * @param similarityThreshold minimum estimated Jaccard similarity of near-duplicates, between 0 and 1
+     */
+    public NearDuplicateDetector(int numberOfHashFunctions, int numberOfBands, float similarityThreshold) {
+        this.numberOfHashFunctions = numberOfHashFunctions;
+        this.numberOfBands = numberOfBands;
+        this.similarityThreshold = similarityThreshold;
+        this.hashSeeds = new long[numberOfHashFunctions];
+
+        // fixed seeds, so that runs are reproducible
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            seed = mix(seed + i);
+            hashSeeds[i] = seed;
+        }
+    }
+
+    /**
+     * Collapses clusters of near-duplicate bags of words into their first member
+     *
+     * @param listOfBagOfWords list of bags of words, in transaction order
+     * @return list of surviving bags of words, in transaction order
+     */
+    public List<List<String>> collapse(List<List<String>> listOfBagOfWords) {
+        System.out.println(new Date().toString() + ": Detecting near-duplicate transactions...");
+        int[] clusterOf = findClusters(listOfBagOfWords);
+        Map<Integer, List<Integer>> membersOfCluster = new LinkedHashMap<>();
+        List<List<String>> survivorsToReturn = new ArrayList<>();
+
+        for (int i = 0; i < clusterOf.length; i++) {
+            List<Integer> members = membersOfCluster.get(clusterOf[i]);
+
+            if (members == null) {
+                members = new ArrayList<>();
+                membersOfCluster.put(clusterOf[i], members);
+                survivorsToReturn.add(listOfBagOfWords.get(i));
+            }
+            members.add(i + 1);
+        }
+
+        // map survivors to members
+        clusterMap = new LinkedHashMap<>();
+        for (List<Integer> members : membersOfCluster.values()) {
+            int[] memberIds = new int[members.size()];
+
+            for (int i = 0; i < memberIds.length; i++) {
+                memberIds[i] = members.get(i);
+            }
+            clusterMap.put(memberIds[0], memberIds);
+        }
+
+        numberOfTransactionsRemoved = listOfBagOfWords.size() - survivorsToReturn.size();
+        System.out.println(new Date().toString() + ": Collapsed " + numberOfTransactionsRemoved
+                + " near-duplicate transactions, " + survivorsToReturn.size() + " transactions remain.");
+
+        return survivorsToReturn;
+    }
+
+    /**
+     * Finds clusters of near-duplicate bags of words
+     *
+     * @param listOfBagOfWords list of bags of words
+     * @return for each bag of words, the index of the first bag of words of its cluster
+     */
+    public int[] findClusters(List<List<String>> listOfBagOfWords) {
+        int rowsPerBand = numberOfHashFunctions / numberOfBands;
+        int[][] signatures = new int[listOfBagOfWords.size()][];
+        int[] parent = new int[listOfBagOfWords.size()];
+        List<Map<Long, List<Integer>>> bandBuckets = new ArrayList<>(numberOfBands);
+
+        for (int b = 0; b < numberOfBands; b++) {
+            bandBuckets.add(new HashMap<Long, List<Integer>>());
+        }
+
+        for (int i = 0; i < listOfBagOfWords.size(); i++) {
+            parent[i] = i;
+
+            // empty transactions are never near-duplicates
+            if (listOfBagOfWords.get(i).isEmpty()) {
+                continue;
+            }
+            signatures[i] = computeSignature(listOfBagOfWords.get(i));
+
+            for (int b = 0; b < numberOfBands; b++) {
+                long bandKey = b;
+                for (int r = b * rowsPerBand; r < (b + 1) * rowsPerBand; r++) {
+                    bandKey = mix(bandKey * 31 + signatures[i][r]);
+                }
+
+                List<Integer> bucket = bandBuckets.get(b).get(bandKey);
+                if (bucket == null) {
+                    bucket = new ArrayList<>(2);
+                    bandBuckets.get(b).put(bandKey, bucket);
+                }
+
+                // compare with earlier members of the bucket
+                for (int c = 0; c < bucket.size() && c < MAXIMUM_COMPARISONS_PER_BUCKET; c++) {
+                    int candidate = bucket.get(c);
+
+                    if (find(parent, candidate) != find(parent, i)
+                            && estimateSimilarity(signatures[candidate], signatures[i]) >= similarityThreshold) {
+                        union(parent, candidate, i);
+                    }
+                }
+                bucket.add(i);
+            }
+        }
+
+        // resolve clusters to their first member
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = find(parent, i);
+        }
+
+        return parent;
+    }
+
+    /**
+     * Computes the MinHash signature of the distinct terms of a bag of words
+     *
+     * @param bagOfWords bag of words
+     * @return the signature
+     */
+    private int[] computeSignature(List<String> bagOfWords) {
+        int[] signature = new int[numberOfHashFunctions];
+        Set<String> distinctTerms = new HashSet<>(bagOfWords);
+
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        for (String term : distinctTerms) {
+            long termHash = mix(term.hashCode());
+
+            for (int h = 0; h < numberOfHashFunctions; h++) {
+                int value = (int) (mix(termHash ^ hashSeeds[h]) >>> 33);
+
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+
+        return signature;
+    }
+
+    /**
+     * Estimates Jaccard similarity as the fraction of agreeing signature values
+     */
+    private float estimateSimilarity(int[] signature1, int[] signature2) {
+        int agreeingValues = 0;
+
+        for (int h = 0; h < signature1.length; h++) {
+            if (signature1[h] == signature2[h]) {
+                ++agreeingValues;
+            }
+        }
+
+        return (float) agreeingValues / signature1.length;
+    }
+
+    /**
+     * Finds the root of the cluster, compressing the path on the way
+     */
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+
+        return i;
+    }
+
+    /**
+     * Merges the clusters of i and j, keeping the smaller index as the root
+     */
+    private static void union(int[] parent, int i, int j) {
+        int rootOfI = find(parent, i);
+        int rootOfJ = find(parent, j);
+
+        if (rootOfI < rootOfJ) {
+            parent[rootOfJ] = rootOfI;
+        } else if (rootOfJ < rootOfI) {
+            parent[rootOfI] = rootOfJ;
+        }
+    }
+
+    /**
+     * 64 bit finalizer of MurmurHash3
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+
+    /**
+     * Saves the cluster map, one line per survivor having near-duplicates, as
+     * survivor ID followed by tab and comma separated IDs of all members
+     *
+     * @param outputFilePath path of the output file
+     * @return true if cluster map was saved, false otherwise
+     */
+    public boolean saveClusterMap(Path outputFilePath) {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+
+        try {
+            for (Map.Entry<Integer, int[]> entry : clusterMap.entrySet()) {
+                if (entry.getValue().length < 2) {
+                    continue;
+                }
+
+                line.setLength(0);
+                line.append(entry.getKey()).append('\t');
+                for (int i = 0; i < entry.getValue().length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    line.append(entry.getValue()[i]);
+                }
+                lines.add(line.toString());
+            }
+
+            Files.deleteIfExists(outputFilePath);
+            Files.write(outputFilePath, lines, StandardCharsets.UTF_8);
+
+            return true;
+        } catch (Exception e) {
+            System.err.println("Exception in saveClusterMap() : " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    public Map<Integer, int[]> getClusterMap() {
+        return clusterMap;
+    }
+
+    public int getNumberOfTransactionsRemoved() {
+        return numberOfTransactionsRemoved;
+    }
+
+    public float getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+
+}
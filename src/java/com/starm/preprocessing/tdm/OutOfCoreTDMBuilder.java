@@ -0,0 +1,733 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Builds pruned term-by-document matrix of a text file out of core, for corpora whose 
+ * vocabulary and postings do not fit in heap. Memory use is bounded by the memory budget, 
+ * apart from a few numbers per term, and the terms remaining after pruning, which are needed 
+ * for the output header. <br /><br />
+ * 
+ * <ol>
+ * <li>Reads the file line by line, each line being a transaction, and collects (term, docId, count) 
+ * postings until the memory budget is reached, then sorts them by term and docId and spills them 
+ * to a run on disk</li>
+ * <li>Merges the runs into column postings, in sorted term order, finding document frequency, 
+ * smallest and largest count of each term</li>
+ * <li>Finds the terms to prune from their smallest and largest weights, which bound all of their 
+ * weights, as weights grow with counts in every weighting scheme, and keeps the top-N remaining 
+ * terms by score if number of terms to select is set</li>
+ * <li>Reads the column postings of remaining terms into (docId, column, weight) entries, sorts them 
+ * by docId and column and spills them to runs on disk</li>
+ * <li>Merges the runs into rows, prunes the transactions with less than minimum number of items, 
+ * and writes the rows directly to CSV and sparse ARFF</li>
+ * </ol>
+ * 
+ * At most MAXIMUM_RUNS_TO_MERGE runs are merged at once, more runs are first merged into 
+ * longer runs in passes, so that open files and read buffers stay bounded. 
+ * The output is identical to that of sparse representation with same weighting scheme and prune values.
+ *
+ * @author Wasif Altaf
+ */
+public class OutOfCoreTDMBuilder {
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final int MINIMUM_IO_BUFFER_SIZE = 1 << 12;
+
+    // largest number of runs merged at once, more runs are first merged in passes
+    private static final int MAXIMUM_RUNS_TO_MERGE = 64;
+
+    // estimated heap taken by a buffered posting, excluding characters of its term
+    private static final int BYTES_PER_POSTING = 72;
+    private static final int BYTES_PER_ENTRY = 32;
+
+    private final long memoryBudget;
+
+    // top-N feature selection, 0 to keep all terms remaining after term pruning
+    private int numberOfTermsToSelect = 0;
+    private FeatureScore featureScore = FeatureScore.DOCUMENT_FREQUENCY;
+
+    private int numberOfRows = 0;
+    private int numberOfColumns = 0;
+    private int numberOfTerms = 0;
+    private long numberOfPostings = 0;
+    private int numberOfRuns = 0;
+
+    /**
+     * Constructs OutOfCoreTDMBuilder
+     *
+     * @param memoryBudget number of bytes of heap to use for buffering postings and entries
+     */
+    public OutOfCoreTDMBuilder(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Builds the pruned term-by-document matrix of the text file, and saves it as CSV, 
+     * and as Weka sparse ARFF if ARFF path is given. Runs are spilled to a temporary 
+     * folder next to the CSV file, which is deleted afterwards.
+     *
+     * @param pathOfInputFile text file, one space separated transaction per line
+     * @param pathOfCSVFile path of CSV file to save, replaced if it exists
+     * @param pathOfARFFFile path of ARFF file to save, null to skip ARFF
+     * @param relationName name of the ARFF relation
+     * @param weightingSchemeToUse weighting scheme to be used for term-by-document matrix
+     * @param termPruneMinValue terms having a weight less than this are pruned
+     * @param termPruneMaxValue terms having a weight greater than this are pruned
+     * @param minimumNumberOfItemsInTransaction transactions are pruned if there are less terms than this, 
+     * as prune2DArrayAndUniqueTermsIndexAsList() counts every column of a transaction as present
+     * @return true if term-by-document matrix has been saved successfully, false otherwise
+     */
+    public boolean build(Path pathOfInputFile, Path pathOfCSVFile, Path pathOfARFFFile, String relationName,
+            WeightingScheme weightingSchemeToUse, float termPruneMinValue, float termPruneMaxValue,
+            int minimumNumberOfItemsInTransaction) {
+        Path runsFolder = null;
+        List<Path> postingRuns;
+        List<Path> entryRuns;
+        Path termsFile;
+        Path columnPostingsFile;
+        VocabularyStatistics termStatistics;
+        int[] columnOfTerm;
+        float[] weightOfTerm;
+        List<String> remainingTerms;
+
+        System.out.println(new Date().toString() + ": Building TDM out of core, memory budget " + memoryBudget + " bytes...");
+
+        numberOfRows = 0;
+        numberOfColumns = 0;
+        numberOfTerms = 0;
+        numberOfPostings = 0;
+        numberOfRuns = 0;
+
+        try {
+            runsFolder = Files.createTempDirectory(pathOfCSVFile.toAbsolutePath().getParent(), "tdm_runs");
+            termsFile = runsFolder.resolve("terms.bin");
+            columnPostingsFile = runsFolder.resolve("column_postings.bin");
+
+            // spill sorted runs of postings
+            postingRuns = spillPostingRuns(pathOfInputFile, runsFolder);
+
+            // merge into column postings
+            termStatistics = mergePostingRuns(postingRuns, termsFile, columnPostingsFile, runsFolder);
+
+            // find remaining terms
+            weightOfTerm = new float[numberOfTerms];
+            columnOfTerm = new int[numberOfTerms];
+            remainingTerms = findRemainingTerms(termStatistics, termsFile, weightingSchemeToUse,
+                    termPruneMinValue, termPruneMaxValue, weightOfTerm, columnOfTerm);
+            numberOfColumns = remainingTerms.size();
+
+            // spill sorted runs of entries of remaining terms, and merge them into rows
+            entryRuns = spillEntryRuns(columnPostingsFile, termStatistics, weightingSchemeToUse, weightOfTerm,
+                    columnOfTerm, runsFolder);
+            writeRows(entryRuns, remainingTerms, pathOfCSVFile, pathOfARFFFile, relationName,
+                    minimumNumberOfItemsInTransaction, runsFolder);
+
+            System.out.println(new Date().toString() + ": Done building TDM out of core, " + numberOfPostings
+                    + " postings in " + numberOfRuns + " runs, " + numberOfRows + " rows, " + numberOfColumns
+                    + " of " + numberOfTerms + " columns remaining.");
+        } catch (IOException e) {
+            System.err.println("Couldn't build TDM out of core.");
+            e.printStackTrace();
+
+            return false;
+        } finally {
+            if (runsFolder != null) {
+                try (Stream<Path> runFiles = Files.list(runsFolder)) {
+                    deleteAll(runFiles.toArray(Path[]::new));
+                    Files.deleteIfExists(runsFolder);
+                } catch (IOException e) {
+                    System.err.println("Couldn't delete runs folder " + runsFolder);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads transactions and spills their postings, sorted by term and docId, to runs 
+     * whenever the memory budget is reached
+     */
+    private List<Path> spillPostingRuns(Path pathOfInputFile, Path runsFolder) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<Posting> buffer = new ArrayList<>();
+        long bytesBuffered = 0;
+        int docId = 0;
+        String line;
+
+        try (BufferedReader reader = Files.newBufferedReader(pathOfInputFile, Charset.defaultCharset())) {
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = line.split(" ");
+                int count = 0;
+
+                // count each term of transaction, empty tokens are not terms
+                Arrays.sort(tokens);
+                for (int t = 0; t < tokens.length; t++) {
+                    if (tokens[t].isEmpty()) {
+                        continue;
+                    }
+
+                    ++count;
+                    if (t + 1 == tokens.length || !tokens[t].equals(tokens[t + 1])) {
+                        buffer.add(new Posting(tokens[t], docId, count));
+                        bytesBuffered += BYTES_PER_POSTING + 2 * tokens[t].length();
+                        count = 0;
+                    }
+                }
+                ++docId;
+
+                if (bytesBuffered >= memoryBudget) {
+                    numberOfPostings += buffer.size();
+                    runs.add(spillRun(buffer, Posting.FORMAT, runsFolder));
+                    bytesBuffered = 0;
+                }
+            }
+        }
+
+        numberOfPostings += buffer.size();
+        runs.add(spillRun(buffer, Posting.FORMAT, runsFolder));
+        numberOfRows = docId;
+
+        return runs;
+    }
+
+    /**
+     * Sorts the buffered records and writes them to a run, clearing the buffer
+     */
+    private <T> Path spillRun(List<T> buffer, RecordFormat<T> format, Path runsFolder) throws IOException {
+        Path run = Files.createTempFile(runsFolder, format.getName(), ".bin");
+
+        buffer.sort(format);
+        try (DataOutputStream output = openOutput(run)) {
+            for (T record : buffer) {
+                format.write(output, record);
+            }
+        }
+
+        ++numberOfRuns;
+        buffer.clear();
+
+        return run;
+    }
+
+    /**
+     * Merges the runs in passes of at most MAXIMUM_RUNS_TO_MERGE runs, until no more than 
+     * MAXIMUM_RUNS_TO_MERGE runs remain, and opens readers of the remaining runs
+     *
+     * @return readers positioned at first record of non-empty runs, ordered by their records
+     */
+    private <T> PriorityQueue<RunReader<T>> openRuns(List<Path> runs, RecordFormat<T> format,
+            Path runsFolder) throws IOException {
+        PriorityQueue<RunReader<T>> readers;
+
+        while (runs.size() > MAXIMUM_RUNS_TO_MERGE) {
+            List<Path> mergedRuns = new ArrayList<>();
+
+            for (int r = 0; r < runs.size(); r += MAXIMUM_RUNS_TO_MERGE) {
+                List<Path> runsToMerge = runs.subList(r, Math.min(r + MAXIMUM_RUNS_TO_MERGE, runs.size()));
+                Path mergedRun = Files.createTempFile(runsFolder, format.getName(), ".bin");
+
+                readers = openReaders(runsToMerge, format);
+                try (DataOutputStream output = openOutput(mergedRun)) {
+                    while (!readers.isEmpty()) {
+                        RunReader<T> reader = readers.poll();
+
+                        format.write(output, reader.current);
+                        advance(reader, readers);
+                    }
+                } finally {
+                    closeAll(readers);
+                }
+
+                deleteAll(runsToMerge);
+                mergedRuns.add(mergedRun);
+            }
+
+            runs = mergedRuns;
+        }
+
+        return openReaders(runs, format);
+    }
+
+    private <T> PriorityQueue<RunReader<T>> openReaders(List<Path> runs, RecordFormat<T> format) throws IOException {
+        PriorityQueue<RunReader<T>> readers = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> format.compare(a.current, b.current));
+        int bufferSize = readBufferSize(runs.size());
+
+        try {
+            for (Path run : runs) {
+                advance(new RunReader<>(run, format, bufferSize), readers);
+            }
+        } catch (IOException e) {
+            closeAll(readers);
+
+            throw e;
+        }
+
+        return readers;
+    }
+
+    /**
+     * Moves the reader to its next record, returning it to the readers, or closing it at the end of its run
+     */
+    private static <T> void advance(RunReader<T> reader, PriorityQueue<RunReader<T>> readers) throws IOException {
+        if (reader.advance()) {
+            readers.add(reader);
+        } else {
+            reader.close();
+        }
+    }
+
+    private static <T> void closeAll(PriorityQueue<RunReader<T>> readers) throws IOException {
+        for (RunReader<T> reader : readers) {
+            reader.close();
+        }
+        readers.clear();
+    }
+
+    /**
+     * Merges runs of postings into terms file, holding terms in sorted order, and column postings file, 
+     * holding (docId, count) of each term in the same order
+     */
+    private VocabularyStatistics mergePostingRuns(List<Path> runs, Path termsFile, Path columnPostingsFile,
+            Path runsFolder) throws IOException {
+        PriorityQueue<RunReader<Posting>> readers = openRuns(runs, Posting.FORMAT, runsFolder);
+        VocabularyStatistics termStatistics = new VocabularyStatistics(1024);
+        int termId = -1;
+        String term = null;
+
+        try (DataOutputStream terms = openOutput(termsFile);
+                DataOutputStream columnPostings = openOutput(columnPostingsFile)) {
+            while (!readers.isEmpty()) {
+                RunReader<Posting> reader = readers.poll();
+                Posting posting = reader.current;
+
+                if (!posting.term.equals(term)) {
+                    term = posting.term;
+                    terms.writeUTF(term);
+                    termId = termStatistics.addTerm();
+                }
+                columnPostings.writeInt(posting.docId);
+                columnPostings.writeInt(posting.count);
+                termStatistics.addOccurrence(termId, posting.count);
+
+                advance(reader, readers);
+            }
+        } finally {
+            closeAll(readers);
+        }
+
+        numberOfTerms = termStatistics.size();
+        termStatistics.setNumberOfTransactions(numberOfRows);
+
+        return termStatistics;
+    }
+
+    /**
+     * Finds weight of each term, and column of the terms remaining after term pruning, 
+     * and top-N feature selection if number of terms to select is set
+     *
+     * @param weightOfTerm filled with IDF score of each term, or 1 if weighting does not use IDF
+     * @param columnOfTerm filled with column of each term, -1 for pruned terms
+     * @return remaining terms, in column order
+     */
+    private List<String> findRemainingTerms(VocabularyStatistics termStatistics, Path termsFile,
+            WeightingScheme weightingSchemeToUse, float termPruneMinValue, float termPruneMaxValue,
+            float[] weightOfTerm, int[] columnOfTerm) throws IOException {
+        List<String> remainingTerms = new ArrayList<>();
+        boolean[] termsSelected = termStatistics.selectTerms(numberOfTermsToSelect, featureScore,
+                weightingSchemeToUse, termPruneMinValue, termPruneMaxValue);
+
+        try (DataInputStream terms = openInput(termsFile, IO_BUFFER_SIZE)) {
+            for (int t = 0; t < numberOfTerms; t++) {
+                String term = terms.readUTF();
+
+                if (weightingSchemeToUse == WeightingScheme.IDF || weightingSchemeToUse == WeightingScheme.TFIDF) {
+                    weightOfTerm[t] = termStatistics.getIDFScore(t);
+                } else {
+                    weightOfTerm[t] = 1;
+                }
+
+                if (termsSelected[t]) {
+                    columnOfTerm[t] = remainingTerms.size();
+                    remainingTerms.add(term);
+                } else {
+                    columnOfTerm[t] = -1;
+                }
+            }
+        }
+
+        System.out.println(new Date().toString() + ": Pruned " + (numberOfTerms - remainingTerms.size()) + " terms.");
+
+        return remainingTerms;
+    }
+
+    /**
+     * Reads column postings of remaining terms as (docId, column, weight) entries, 
+     * and spills them, sorted by docId and column, to runs whenever the memory budget is reached
+     */
+    private List<Path> spillEntryRuns(Path columnPostingsFile, VocabularyStatistics termStatistics,
+            WeightingScheme weightingSchemeToUse, float[] weightOfTerm, int[] columnOfTerm,
+            Path runsFolder) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<Entry> buffer = new ArrayList<>();
+        long bytesBuffered = 0;
+
+        try (DataInputStream columnPostings = openInput(columnPostingsFile, IO_BUFFER_SIZE)) {
+            for (int t = 0; t < numberOfTerms; t++) {
+                for (int p = 0; p < termStatistics.getDocumentFrequency(t); p++) {
+                    int docId = columnPostings.readInt();
+                    float weight = VocabularyStatistics.weigh(columnPostings.readInt(), weightOfTerm[t], weightingSchemeToUse);
+
+                    // entries of pruned terms, and entries weighing 0, are absent terms
+                    if (columnOfTerm[t] == -1 || weight == 0) {
+                        continue;
+                    }
+
+                    buffer.add(new Entry(docId, columnOfTerm[t], weight));
+                    bytesBuffered += BYTES_PER_ENTRY;
+
+                    if (bytesBuffered >= memoryBudget) {
+                        runs.add(spillRun(buffer, Entry.FORMAT, runsFolder));
+                        bytesBuffered = 0;
+                    }
+                }
+            }
+        }
+
+        runs.add(spillRun(buffer, Entry.FORMAT, runsFolder));
+
+        return runs;
+    }
+
+    /**
+     * Merges runs of entries into rows, and writes the rows to CSV and ARFF, unless there are 
+     * less terms than minimum number of items
+     */
+    private void writeRows(List<Path> runs, List<String> remainingTerms, Path pathOfCSVFile, Path pathOfARFFFile,
+            String relationName, int minimumNumberOfItemsInTransaction, Path runsFolder) throws IOException {
+        PriorityQueue<RunReader<Entry>> readers = new PriorityQueue<>();
+        int[] columnIndexes = new int[256];
+        float[] weights = new float[256];
+        int numberOfEntries = 0;
+        int docId = -1;
+        int nextDocId = 0;
+        int numberOfRowsRemaining = 0;
+        List<TDMRowWriter> writers = new ArrayList<>(2);
+
+        // write title index, then rows
+        Files.deleteIfExists(pathOfCSVFile);
+        Files.write(pathOfCSVFile, (String.join(",", remainingTerms) + "\n").getBytes(), StandardOpenOption.CREATE);
+
+        try {
+            writers.add(new TDMCSVWriter(pathOfCSVFile));
+            if (pathOfARFFFile != null) {
+                writers.add(new TDMARFFWriter(pathOfARFFFile, relationName, remainingTerms));
+            }
+
+            readers = openRuns(runs, Entry.FORMAT, runsFolder);
+
+            while (!readers.isEmpty()) {
+                RunReader<Entry> reader = readers.poll();
+                Entry entry = reader.current;
+
+                if (entry.docId != docId) {
+                    if (docId != -1) {
+                        numberOfRowsRemaining += writeRow(writers, columnIndexes, weights, numberOfEntries,
+                                minimumNumberOfItemsInTransaction);
+                        nextDocId = docId + 1;
+                    }
+
+                    // transactions without entries in between
+                    for (; nextDocId < entry.docId; nextDocId++) {
+                        numberOfRowsRemaining += writeRow(writers, columnIndexes, weights, 0,
+                                minimumNumberOfItemsInTransaction);
+                    }
+
+                    docId = entry.docId;
+                    numberOfEntries = 0;
+                }
+
+                if (numberOfEntries == columnIndexes.length) {
+                    columnIndexes = Arrays.copyOf(columnIndexes, numberOfEntries * 2);
+                    weights = Arrays.copyOf(weights, numberOfEntries * 2);
+                }
+                columnIndexes[numberOfEntries] = entry.column;
+                weights[numberOfEntries] = entry.weight;
+                ++numberOfEntries;
+
+                advance(reader, readers);
+            }
+
+            if (docId != -1) {
+                numberOfRowsRemaining += writeRow(writers, columnIndexes, weights, numberOfEntries,
+                        minimumNumberOfItemsInTransaction);
+                nextDocId = docId + 1;
+            }
+            for (; nextDocId < numberOfRows; nextDocId++) {
+                numberOfRowsRemaining += writeRow(writers, columnIndexes, weights, 0, minimumNumberOfItemsInTransaction);
+            }
+        } finally {
+            closeAll(readers);
+            for (TDMRowWriter writer : writers) {
+                writer.close();
+            }
+        }
+
+        System.out.println(new Date().toString() + ": Pruned " + (numberOfRows - numberOfRowsRemaining) + " transactions.");
+        numberOfRows = numberOfRowsRemaining;
+    }
+
+    /**
+     * Writes the row, unless there are less terms than minimum number of items
+     *
+     * @return 1 if the row was written, 0 if it was pruned
+     */
+    private int writeRow(List<TDMRowWriter> writers, int[] columnIndexes, float[] weights, int numberOfEntries,
+            int minimumNumberOfItemsInTransaction) throws IOException {
+        if (numberOfTerms < minimumNumberOfItemsInTransaction) {
+            return 0;
+        }
+
+        for (TDMRowWriter writer : writers) {
+            writer.writeSparseRow(columnIndexes, weights, 0, numberOfEntries, numberOfColumns);
+        }
+
+        return 1;
+    }
+
+    /**
+     * Divides the memory budget among the readers of runs being merged
+     */
+    private int readBufferSize(int numberOfRunsToMerge) {
+        return (int) Math.max(MINIMUM_IO_BUFFER_SIZE,
+                Math.min(IO_BUFFER_SIZE, memoryBudget / Math.max(1, numberOfRunsToMerge)));
+    }
+
+    private static DataOutputStream openOutput(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), IO_BUFFER_SIZE));
+    }
+
+    private static DataInputStream openInput(Path path, int bufferSize) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), bufferSize));
+    }
+
+    private static void deleteAll(List<Path> paths) throws IOException {
+        deleteAll(paths.toArray(new Path[paths.size()]));
+    }
+
+    private static void deleteAll(Path[] paths) throws IOException {
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Order and binary format of records held in runs
+     */
+    private interface RecordFormat<T> extends Comparator<T> {
+
+        /**
+         * @return name prefix of run files
+         */
+        String getName();
+
+        void write(DataOutputStream output, T record) throws IOException;
+
+        /**
+         * @throws EOFException at the end of run
+         */
+        T read(DataInputStream input) throws IOException;
+    }
+
+    /**
+     * Occurrence of a term in a transaction, with its count
+     */
+    private static class Posting {
+
+        static final RecordFormat<Posting> FORMAT = new RecordFormat<Posting>() {
+
+            @Override
+            public String getName() {
+                return "postings";
+            }
+
+            @Override
+            public int compare(Posting a, Posting b) {
+                int termOrder = a.term.compareTo(b.term);
+
+                return termOrder != 0 ? termOrder : Integer.compare(a.docId, b.docId);
+            }
+
+            @Override
+            public void write(DataOutputStream output, Posting posting) throws IOException {
+                output.writeUTF(posting.term);
+                output.writeInt(posting.docId);
+                output.writeInt(posting.count);
+            }
+
+            @Override
+            public Posting read(DataInputStream input) throws IOException {
+                return new Posting(input.readUTF(), input.readInt(), input.readInt());
+            }
+        };
+
+        final String term;
+        final int docId;
+        final int count;
+
+        Posting(String term, int docId, int count) {
+            this.term = term;
+            this.docId = docId;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Weighted cell of remaining term in a transaction
+     */
+    private static class Entry {
+
+        static final RecordFormat<Entry> FORMAT = new RecordFormat<Entry>() {
+
+            @Override
+            public String getName() {
+                return "entries";
+            }
+
+            @Override
+            public int compare(Entry a, Entry b) {
+                int docOrder = Integer.compare(a.docId, b.docId);
+
+                return docOrder != 0 ? docOrder : Integer.compare(a.column, b.column);
+            }
+
+            @Override
+            public void write(DataOutputStream output, Entry entry) throws IOException {
+                output.writeInt(entry.docId);
+                output.writeInt(entry.column);
+                output.writeFloat(entry.weight);
+            }
+
+            @Override
+            public Entry read(DataInputStream input) throws IOException {
+                return new Entry(input.readInt(), input.readInt(), input.readFloat());
+            }
+        };
+
+        final int docId;
+        final int column;
+        final float weight;
+
+        Entry(int docId, int column, float weight) {
+            this.docId = docId;
+            this.column = column;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Reader of a run, holding the current record
+     */
+    private static class RunReader<T> implements AutoCloseable {
+
+        private final DataInputStream input;
+        private final RecordFormat<T> format;
+        T current;
+
+        RunReader(Path run, RecordFormat<T> format, int bufferSize) throws IOException {
+            this.input = openInput(run, bufferSize);
+            this.format = format;
+        }
+
+        boolean advance() throws IOException {
+            try {
+                current = format.read(input);
+            } catch (EOFException e) {
+                current = null;
+            }
+
+            return current != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    public int getNumberOfColumns() {
+        return numberOfColumns;
+    }
+
+    public int getNumberOfTerms() {
+        return numberOfTerms;
+    }
+
+    public long getNumberOfPostings() {
+        return numberOfPostings;
+    }
+
+    public int getNumberOfRuns() {
+        return numberOfRuns;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public int getNumberOfTermsToSelect() {
+        return numberOfTermsToSelect;
+    }
+
+    public void setNumberOfTermsToSelect(int numberOfTermsToSelect) {
+        this.numberOfTermsToSelect = numberOfTermsToSelect;
+    }
+
+    public FeatureScore getFeatureScore() {
+        return featureScore;
+    }
+
+    public void setFeatureScore(FeatureScore featureScore) {
+        this.featureScore = featureScore;
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+/**
+ * Term-by-document matrix in compressed sparse row (CSR) form. <br /><br />
+ * 
+ * Entries of row i are held at positions rowPointers[i] to rowPointers[i + 1] - 1 
+ * of columnIndexes and values, in ascending order of column index. Cells which are 
+ * not held are 0. Memory use is proportional to the number of (transaction, term) 
+ * pairs, rather than to transactions times terms.
+ *
+ * @author Wasif Altaf
+ */
+public class SparseTDM {
+
+    private final int[] rowPointers;
+    private final int[] columnIndexes;
+    private final float[] values;
+    private final int numberOfColumns;
+
+    /**
+     * Constructs SparseTDM from CSR arrays
+     *
+     * @param rowPointers start of each row in columnIndexes and values, followed by number of entries, 
+     * of length number of rows + 1
+     * @param columnIndexes column index of each entry, ascending within each row
+     * @param values value of each entry
+     * @param numberOfColumns number of columns i.e. terms
+     */
+    public SparseTDM(int[] rowPointers, int[] columnIndexes, float[] values, int numberOfColumns) {
+        this.rowPointers = rowPointers;
+        this.columnIndexes = columnIndexes;
+        this.values = values;
+        this.numberOfColumns = numberOfColumns;
+    }
+
+    /**
+     * @return number of rows i.e. transactions
+     */
+    public int getNumberOfRows() {
+        return rowPointers.length - 1;
+    }
+
+    /**
+     * @return number of columns i.e. terms
+     */
+    public int getNumberOfColumns() {
+        return numberOfColumns;
+    }
+
+    /**
+     * @return number of entries held
+     */
+    public int getNumberOfEntries() {
+        return rowPointers[rowPointers.length - 1];
+    }
+
+    /**
+     * @param row row index
+     * @return position of first entry of the row
+     */
+    public int getRowStart(int row) {
+        return rowPointers[row];
+    }
+
+    /**
+     * @param row row index
+     * @return position after last entry of the row
+     */
+    public int getRowEnd(int row) {
+        return rowPointers[row + 1];
+    }
+
+    /**
+     * Finds the value of a cell by binary search within its row
+     *
+     * @param row row index
+     * @param column column index
+     * @return value of the cell, 0 if the cell is not held
+     */
+    public float get(int row, int column) {
+        int low = rowPointers[row];
+        int high = rowPointers[row + 1] - 1;
+        int middle;
+
+        while (low <= high) {
+            middle = (low + high) >>> 1;
+
+            if (columnIndexes[middle] < column) {
+                low = middle + 1;
+            } else if (columnIndexes[middle] > column) {
+                high = middle - 1;
+            } else {
+                return values[middle];
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Converts the matrix into dense 2-dimensional array
+     *
+     * @return 2-dimensional array of number of rows times number of columns
+     */
+    public float[][] toDenseArray() {
+        float[][] denseArrayToReturn = new float[getNumberOfRows()][numberOfColumns];
+
+        for (int i = 0; i < getNumberOfRows(); i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                denseArrayToReturn[i][columnIndexes[k]] = values[k];
+            }
+        }
+
+        return denseArrayToReturn;
+    }
+
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    public int[] getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    public float[] getValues() {
+        return values;
+    }
+
+}
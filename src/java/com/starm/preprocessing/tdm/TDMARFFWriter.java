@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Streaming writer of binary term-by-document matrix to Weka sparse ARFF file. <br /><br />
+ * 
+ * Each term is declared as nominal attribute {n,y}. Each transaction is written as 
+ * {index y,index y,...}, listing only the terms it contains, the omitted attributes 
+ * taking the first value n. Rows therefore take space proportional to the number of 
+ * terms contained, rather than to the number of terms in the index, and Weka reads 
+ * them without type inference. FPGrowth treats the second value y as positive for 
+ * sparse instances, so the rules read term=y, as they do for CSV.
+ *
+ * @author Wasif Altaf
+ */
+public class TDMARFFWriter implements TDMRowWriter {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream outputStream;
+    private final StringBuilder rowBuilder = new StringBuilder(256);
+    private byte[] rowBuffer = new byte[256];
+    private int numberOfRowsWritten = 0;
+
+    /**
+     * Creates the ARFF file, replacing an existing one, and writes the header
+     *
+     * @param pathOfOutputFile path of output file
+     * @param relationName name of the relation
+     * @param uniqueTermsIndexAsList terms, in column order
+     * @throws IOException if the file could not be created
+     */
+    public TDMARFFWriter(Path pathOfOutputFile, String relationName, List<String> uniqueTermsIndexAsList) throws IOException {
+        StringBuilder header = new StringBuilder(uniqueTermsIndexAsList.size() * 24 + 64);
+
+        Files.deleteIfExists(pathOfOutputFile);
+        outputStream = new BufferedOutputStream(Files.newOutputStream(pathOfOutputFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE), OUTPUT_BUFFER_SIZE);
+
+        header.append("@relation ").append(quote(relationName)).append("\n\n");
+        for (String term : uniqueTermsIndexAsList) {
+            header.append("@attribute ").append(quote(term)).append(" {n,y}\n");
+        }
+        header.append("\n@data\n");
+
+        outputStream.write(header.toString().getBytes(Charset.defaultCharset()));
+    }
+
+    @Override
+    public void writeDenseRow(float[] row) throws IOException {
+        int column = 0;
+
+        rowBuilder.setLength(0);
+        rowBuilder.append('{');
+
+        for (int j = 0; j < row.length; j++) {
+            // item pruning, remaining columns are renumbered
+            if (row[j] == -1) {
+                continue;
+            }
+
+            if (row[j] != 0) {
+                appendEntry(column);
+            }
+            ++column;
+        }
+
+        endRow();
+    }
+
+    @Override
+    public void writeSparseRow(int[] columnIndexes, float[] values, int from, int to, int numberOfColumns) throws IOException {
+        rowBuilder.setLength(0);
+        rowBuilder.append('{');
+
+        for (int k = from; k < to; k++) {
+            if (values == null || values[k] != 0) {
+                appendEntry(columnIndexes[k]);
+            }
+        }
+
+        endRow();
+    }
+
+    @Override
+    public int getNumberOfRowsWritten() {
+        return numberOfRowsWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+
+    /**
+     * Quotes the name as Weka does, if it contains characters special to ARFF
+     *
+     * @param name attribute or relation name
+     * @return the name, quoted if necessary
+     */
+    public static String quote(String name) {
+        boolean quotingRequired = name.isEmpty() || name.equals("?");
+        StringBuilder quotedName;
+
+        for (int i = 0; i < name.length() && !quotingRequired; i++) {
+            quotingRequired = " ,{}'\"%\t\n\r\\".indexOf(name.charAt(i)) >= 0;
+        }
+
+        if (!quotingRequired) {
+            return name;
+        }
+
+        quotedName = new StringBuilder(name.length() + 4).append('\'');
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+
+            if (c == '\'' || c == '\\') {
+                quotedName.append('\\');
+            }
+            quotedName.append(c);
+        }
+
+        return quotedName.append('\'').toString();
+    }
+
+    private void appendEntry(int column) {
+        if (rowBuilder.length() > 1) {
+            rowBuilder.append(',');
+        }
+        rowBuilder.append(column).append(" y");
+    }
+
+    /**
+     * Terminates the row rendered in the row builder and writes it, the row holding only ASCII characters
+     */
+    private void endRow() throws IOException {
+        int length;
+
+        rowBuilder.append("}\n");
+        length = rowBuilder.length();
+
+        if (rowBuffer.length < length) {
+            rowBuffer = new byte[length * 2];
+        }
+        for (int i = 0; i < length; i++) {
+            rowBuffer[i] = (byte) rowBuilder.charAt(i);
+        }
+
+        outputStream.write(rowBuffer, 0, length);
+        ++numberOfRowsWritten;
+    }
+
+}
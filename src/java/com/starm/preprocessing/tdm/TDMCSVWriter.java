@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming writer of binary term-by-document matrix rows to CSV file. <br /><br />
+ * 
+ * The file is opened once, and each row is rendered into a reused byte buffer and 
+ * written through a buffered stream, with y for the terms contained in the transaction 
+ * and empty cells for the others.
+ *
+ * @author Wasif Altaf
+ */
+public class TDMCSVWriter implements TDMRowWriter {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream outputStream;
+    private byte[] rowBuffer = new byte[256];
+    private int numberOfRowsWritten = 0;
+
+    /**
+     * Opens the CSV file for appending rows
+     *
+     * @param pathOfOutputFile path of output file, created if it does not exist
+     * @throws IOException if the file could not be opened
+     */
+    public TDMCSVWriter(Path pathOfOutputFile) throws IOException {
+        outputStream = new BufferedOutputStream(Files.newOutputStream(pathOfOutputFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), OUTPUT_BUFFER_SIZE);
+    }
+
+    @Override
+    public void writeDenseRow(float[] row) throws IOException {
+        int position = 0;
+        boolean firstCell = true;
+
+        ensureRowBufferCapacity(row.length * 2 + 1);
+
+        for (int j = 0; j < row.length; j++) {
+            // item pruning
+            if (row[j] == -1) {
+                continue;
+            }
+
+            if (!firstCell) {
+                rowBuffer[position++] = ',';
+            }
+            if (row[j] != 0) {
+                rowBuffer[position++] = 'y';
+            }
+            firstCell = false;
+        }
+
+        endRow(position);
+    }
+
+    @Override
+    public void writeSparseRow(int[] columnIndexes, float[] values, int from, int to, int numberOfColumns) throws IOException {
+        int position = 0;
+        int k = from;
+
+        ensureRowBufferCapacity(numberOfColumns * 2 + 1);
+
+        for (int j = 0; j < numberOfColumns; j++) {
+            if (j > 0) {
+                rowBuffer[position++] = ',';
+            }
+
+            if (k < to && columnIndexes[k] == j) {
+                if (values == null || values[k] != 0) {
+                    rowBuffer[position++] = 'y';
+                }
+                ++k;
+            }
+        }
+
+        endRow(position);
+    }
+
+    @Override
+    public int getNumberOfRowsWritten() {
+        return numberOfRowsWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+
+    /**
+     * Terminates the row rendered in the row buffer and writes it
+     */
+    private void endRow(int position) throws IOException {
+        rowBuffer[position++] = '\n';
+        outputStream.write(rowBuffer, 0, position);
+        ++numberOfRowsWritten;
+    }
+
+    private void ensureRowBufferCapacity(int capacity) {
+        if (rowBuffer.length < capacity) {
+            rowBuffer = new byte[capacity];
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.Arrays;
+import java.util.List;
+import weka.core.Attribute;
+import weka.core.FastVector;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+/**
+ * Writer of binary term-by-document matrix rows into Weka Instances held in memory, 
+ * so that the matrix can be mined without being written to and re-parsed from disk. <br /><br />
+ * 
+ * Each term is a nominal attribute {n,y} and each transaction a SparseInstance holding 
+ * value y for the terms it contains, which is the dataset Weka loads from the sparse ARFF 
+ * written by TDMARFFWriter.
+ *
+ * @see com.starm.preprocessing.tdm.TDMARFFWriter
+ * 
+ * @author Wasif Altaf
+ */
+public class TDMInstancesWriter implements TDMRowWriter {
+
+    // index of value y in nominal values {n,y}
+    private static final double TERM_CONTAINED = 1;
+
+    private final Instances instances;
+    private final int numberOfAttributes;
+    private int[] indexesOfRow = new int[256];
+    private int numberOfRowsWritten = 0;
+
+    /**
+     * Creates empty Instances with an attribute for each term
+     *
+     * @param relationName name of the relation
+     * @param uniqueTermsIndexAsList terms, in column order
+     * @param expectedNumberOfRows number of rows expected, for initial capacity
+     */
+    public TDMInstancesWriter(String relationName, List<String> uniqueTermsIndexAsList, int expectedNumberOfRows) {
+        FastVector attributes = new FastVector(uniqueTermsIndexAsList.size());
+        FastVector nominalValues;
+
+        for (String term : uniqueTermsIndexAsList) {
+            nominalValues = new FastVector(2);
+            nominalValues.addElement("n");
+            nominalValues.addElement("y");
+
+            attributes.addElement(new Attribute(term, nominalValues));
+        }
+
+        instances = new Instances(relationName, attributes, expectedNumberOfRows);
+        numberOfAttributes = uniqueTermsIndexAsList.size();
+    }
+
+    @Override
+    public void writeDenseRow(float[] row) {
+        int column = 0;
+        int numberOfIndexes = 0;
+
+        for (int j = 0; j < row.length; j++) {
+            // item pruning, remaining columns are renumbered
+            if (row[j] == -1) {
+                continue;
+            }
+
+            if (row[j] != 0) {
+                if (numberOfIndexes == indexesOfRow.length) {
+                    indexesOfRow = Arrays.copyOf(indexesOfRow, indexesOfRow.length * 2);
+                }
+                indexesOfRow[numberOfIndexes++] = column;
+            }
+            ++column;
+        }
+
+        addRow(numberOfIndexes);
+    }
+
+    @Override
+    public void writeSparseRow(int[] columnIndexes, float[] values, int from, int to, int numberOfColumns) {
+        int numberOfIndexes = 0;
+
+        if (indexesOfRow.length < to - from) {
+            indexesOfRow = new int[to - from];
+        }
+
+        for (int k = from; k < to; k++) {
+            if (values == null || values[k] != 0) {
+                indexesOfRow[numberOfIndexes++] = columnIndexes[k];
+            }
+        }
+
+        addRow(numberOfIndexes);
+    }
+
+    /**
+     * Adds the row collected in indexesOfRow as SparseInstance
+     */
+    private void addRow(int numberOfIndexes) {
+        double[] values = new double[numberOfIndexes];
+
+        Arrays.fill(values, TERM_CONTAINED);
+        instances.add(new SparseInstance(1, values, Arrays.copyOf(indexesOfRow, numberOfIndexes), numberOfAttributes));
+
+        ++numberOfRowsWritten;
+    }
+
+    @Override
+    public int getNumberOfRowsWritten() {
+        return numberOfRowsWritten;
+    }
+
+    /**
+     * Trims the Instances to the number of rows written
+     */
+    @Override
+    public void close() {
+        instances.compactify();
+    }
+
+    /**
+     * @return the Instances written so far
+     */
+    public Instances getInstances() {
+        return instances;
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Chooses term-by-document matrix representation from an estimate of the heap each 
+ * representation needs, and the heap available. <br /><br />
+ * 
+ * Estimates are made from number of transactions, number of terms and average number of 
+ * tokens per transaction, which bounds the number of distinct terms per transaction, 
+ * and cover the peak of construction and pruning, when both the matrix and its pruned 
+ * copy are held. The in-memory representation needing least heap is chosen if it fits 
+ * in the usable share of available heap, OUT_OF_CORE otherwise. BITMAP is only estimated 
+ * for weighting schemes it holds.
+ *
+ * @author Wasif Altaf
+ */
+public class TDMPlanner {
+
+    // share of available heap the term-by-document matrix may take, the rest being left for mining
+    private static final double USABLE_SHARE_OF_HEAP = 0.5;
+
+    // estimated heap taken by each row, entry and term
+    private static final long BYTES_PER_DENSE_ROW = 24;
+    private static final long BYTES_PER_DENSE_CELL = 4;
+    private static final long BYTES_PER_SPARSE_ROW = 8;
+    private static final long BYTES_PER_SPARSE_ENTRY = 24;
+    private static final long BYTES_PER_BITMAP = 120;
+    private static final long BYTES_PER_BITMAP_ENTRY = 6;
+    private static final long BYTES_PER_TERM = 12;
+    private static final long BYTES_PER_INSTANCE = 80;
+    private static final long BYTES_PER_INSTANCE_ENTRY = 12;
+    private static final long BYTES_PER_OUT_OF_CORE_TERM = 28;
+
+    private final long availableBytes;
+    private final long outOfCoreMemoryBudget;
+    private final Map<TDMRepresentation, Long> estimatedBytes = new EnumMap<>(TDMRepresentation.class);
+    private TDMRepresentation plannedRepresentation = null;
+
+    /**
+     * Constructs TDMPlanner for the heap available to this JVM at the moment
+     *
+     * @param outOfCoreMemoryBudget bytes of heap for buffering postings by OUT_OF_CORE representation
+     */
+    public TDMPlanner(long outOfCoreMemoryBudget) {
+        this(availableHeap(), outOfCoreMemoryBudget);
+    }
+
+    /**
+     * Constructs TDMPlanner
+     *
+     * @param availableBytes bytes of heap available for term-by-document matrix and mining
+     * @param outOfCoreMemoryBudget bytes of heap for buffering postings by OUT_OF_CORE representation
+     */
+    public TDMPlanner(long availableBytes, long outOfCoreMemoryBudget) {
+        this.availableBytes = availableBytes;
+        this.outOfCoreMemoryBudget = outOfCoreMemoryBudget;
+    }
+
+    /**
+     * Estimates heap needed by DENSE, SPARSE and OUT_OF_CORE representations and chooses one
+     *
+     * @param numberOfTransactions number of transactions
+     * @param numberOfTerms number of unique terms
+     * @param averageNumberOfTokens average number of tokens per transaction
+     * @param includingInstances true if Weka Instances will also be built in memory from the matrix
+     * @return the representation chosen
+     */
+    public TDMRepresentation plan(int numberOfTransactions, int numberOfTerms, double averageNumberOfTokens,
+            boolean includingInstances) {
+        return plan(numberOfTransactions, numberOfTerms, averageNumberOfTokens, includingInstances, false);
+    }
+
+    /**
+     * Estimates heap needed by DENSE, SPARSE, BITMAP and OUT_OF_CORE representations and chooses one
+     *
+     * @param numberOfTransactions number of transactions
+     * @param numberOfTerms number of unique terms
+     * @param averageNumberOfTokens average number of tokens per transaction
+     * @param includingInstances true if Weka Instances will also be built in memory from the matrix
+     * @param includingBitmap true if BITMAP holds the weighting scheme, BINARY or IDF
+     * @return the representation chosen
+     */
+    public TDMRepresentation plan(int numberOfTransactions, int numberOfTerms, double averageNumberOfTokens,
+            boolean includingInstances, boolean includingBitmap) {
+        long numberOfEntries = (long) Math.ceil(numberOfTransactions * Math.min(averageNumberOfTokens, numberOfTerms));
+        long instancesBytes = 0;
+        long usableBytes = (long) (availableBytes * USABLE_SHARE_OF_HEAP);
+
+        if (includingInstances) {
+            instancesBytes = numberOfTransactions * BYTES_PER_INSTANCE + numberOfEntries * BYTES_PER_INSTANCE_ENTRY;
+        }
+
+        // matrix and its pruned copy
+        estimatedBytes.put(TDMRepresentation.DENSE, 2 * numberOfTransactions
+                * (BYTES_PER_DENSE_ROW + BYTES_PER_DENSE_CELL * numberOfTerms)
+                + numberOfTerms * BYTES_PER_TERM + instancesBytes);
+        estimatedBytes.put(TDMRepresentation.SPARSE, numberOfTransactions * BYTES_PER_SPARSE_ROW
+                + numberOfEntries * BYTES_PER_SPARSE_ENTRY
+                + numberOfTerms * BYTES_PER_TERM + instancesBytes);
+        if (includingBitmap) {
+            // row and column bitmaps, and their pruned copies
+            estimatedBytes.put(TDMRepresentation.BITMAP, 2 * ((long) (numberOfTransactions + numberOfTerms) * BYTES_PER_BITMAP
+                    + numberOfEntries * BYTES_PER_BITMAP_ENTRY)
+                    + numberOfTerms * BYTES_PER_TERM + instancesBytes);
+        } else {
+            estimatedBytes.remove(TDMRepresentation.BITMAP);
+        }
+        estimatedBytes.put(TDMRepresentation.OUT_OF_CORE, outOfCoreMemoryBudget
+                + numberOfTerms * BYTES_PER_OUT_OF_CORE_TERM);
+
+        if (estimatedBytes.get(TDMRepresentation.DENSE) < estimatedBytes.get(TDMRepresentation.SPARSE)) {
+            plannedRepresentation = TDMRepresentation.DENSE;
+        } else {
+            plannedRepresentation = TDMRepresentation.SPARSE;
+        }
+        if (includingBitmap && estimatedBytes.get(TDMRepresentation.BITMAP) < estimatedBytes.get(plannedRepresentation)) {
+            plannedRepresentation = TDMRepresentation.BITMAP;
+        }
+        if (estimatedBytes.get(plannedRepresentation) > usableBytes) {
+            plannedRepresentation = TDMRepresentation.OUT_OF_CORE;
+        }
+
+        System.out.println(new Date().toString() + ": TDM plan for " + numberOfTransactions + " transactions, "
+                + numberOfTerms + " terms, " + String.format("%.1f", averageNumberOfTokens) + " tokens per transaction: "
+                + "DENSE " + toMB(estimatedBytes.get(TDMRepresentation.DENSE)) + " MB, "
+                + "SPARSE " + toMB(estimatedBytes.get(TDMRepresentation.SPARSE)) + " MB, "
+                + (includingBitmap ? "BITMAP " + toMB(estimatedBytes.get(TDMRepresentation.BITMAP)) + " MB, " : "")
+                + "OUT_OF_CORE " + toMB(estimatedBytes.get(TDMRepresentation.OUT_OF_CORE)) + " MB, "
+                + "usable heap " + toMB(usableBytes) + " MB of " + toMB(availableBytes) + " MB available, "
+                + "using " + plannedRepresentation + ".");
+
+        return plannedRepresentation;
+    }
+
+    /**
+     * @return heap this JVM can still allocate, being maximum heap less heap in use
+     */
+    public static long availableHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    private static long toMB(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    /**
+     * @return estimated bytes of heap needed by the representation, as of last plan, 
+     * null if the representation was not estimated
+     */
+    public Long getEstimatedBytes(TDMRepresentation representation) {
+        return estimatedBytes.get(representation);
+    }
+
+    /**
+     * @return estimated bytes of heap needed by the representation chosen by last plan
+     */
+    public long getPlannedBytes() {
+        return estimatedBytes.get(plannedRepresentation);
+    }
+
+    public TDMRepresentation getPlannedRepresentation() {
+        return plannedRepresentation;
+    }
+
+    public long getAvailableBytes() {
+        return availableBytes;
+    }
+
+    public long getOutOfCoreMemoryBudget() {
+        return outOfCoreMemoryBudget;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+/**
+ * In-memory representations of term-by-document matrix
+ * 
+ * <ul>
+ * <li>DENSE: float[transactions][terms] array, only suitable for small corpora</li>
+ * <li>SPARSE: compressed sparse row matrix holding only the terms contained in each transaction</li>
+ * <li>BITMAP: compressed row and column bitmaps, only for BINARY and IDF weighting, 
+ * other weighting schemes fall back to SPARSE. Column bitmaps give support of items to 
+ * NativeFPGrowthARMiner.</li>
+ * <li>OUT_OF_CORE: postings spilled to sorted runs on disk and merged, within a memory budget, 
+ * for corpora which do not fit in heap. Rows are written directly to CSV and sparse ARFF.</li>
+ * <li>AUTOMATIC: DENSE, SPARSE, BITMAP or OUT_OF_CORE, chosen by TDMPlanner from estimated and available heap</li>
+ * </ul>
+ * 
+ * @author Wasif Altaf
+ */
+public enum TDMRepresentation {
+    DENSE, SPARSE, BITMAP, OUT_OF_CORE, AUTOMATIC
+}
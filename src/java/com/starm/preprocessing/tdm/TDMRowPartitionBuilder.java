@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds term-by-document matrix rows from list of bag of words, either sequentially, 
+ * or in parallel over row partitions using fork-join. <br /><br />
+ * 
+ * Each partition counts term frequencies of its own rows and keeps its own document 
+ * frequency counters, which are summed when partitions are joined. Partitions are 
+ * concatenated in row order, so that the result is identical to sequential construction.
+ *
+ * @author Wasif Altaf
+ */
+public class TDMRowPartitionBuilder {
+
+    // smallest partition worth forking
+    private static final int MINIMUM_ROWS_PER_PARTITION = 1024;
+
+    private final List<List<String>> listOfBagOfWords;
+    private final TermDictionary termDictionary;
+    private final int parallelism;
+    private final int rowsPerPartition;
+
+    /**
+     * Constructs TDMRowPartitionBuilder
+     *
+     * @param listOfBagOfWords list of bag of words, one per row
+     * @param termDictionary dictionary of all terms contained, IDs being the column indexes
+     * @param parallelism number of threads, 1 for sequential construction
+     */
+    public TDMRowPartitionBuilder(List<List<String>> listOfBagOfWords, TermDictionary termDictionary, int parallelism) {
+        this.listOfBagOfWords = listOfBagOfWords;
+        this.termDictionary = termDictionary;
+        this.parallelism = Math.max(1, parallelism);
+
+        // about four partitions per thread, to balance uneven transaction lengths
+        this.rowsPerPartition = Math.max(MINIMUM_ROWS_PER_PARTITION,
+                listOfBagOfWords.size() / (this.parallelism * 4) + 1);
+    }
+
+    /**
+     * Builds the rows in sparse form, holding the term counts of each row in column order
+     *
+     * @return the rows, with document frequencies of all terms
+     */
+    public SparseRows buildSparseRows() {
+        List<SparseRows> partitions;
+        SparseRows rowsToReturn;
+        int numberOfEntries = 0;
+        int row = 0;
+        int entry = 0;
+
+        if (parallelism == 1 || listOfBagOfWords.size() <= rowsPerPartition) {
+            return buildSparsePartition(0, listOfBagOfWords.size());
+        }
+
+        partitions = invoke(new SparsePartitionTask(0, listOfBagOfWords.size()));
+
+        // concatenate partitions in row order, merging document frequencies
+        for (SparseRows partition : partitions) {
+            numberOfEntries += partition.getNumberOfEntries();
+        }
+        rowsToReturn = new SparseRows(listOfBagOfWords.size(), numberOfEntries, termDictionary.size());
+
+        for (SparseRows partition : partitions) {
+            System.arraycopy(partition.columnIndexes, 0, rowsToReturn.columnIndexes, entry, partition.getNumberOfEntries());
+            System.arraycopy(partition.termCounts, 0, rowsToReturn.termCounts, entry, partition.getNumberOfEntries());
+
+            for (int i = 1; i < partition.rowPointers.length; i++) {
+                rowsToReturn.rowPointers[++row] = entry + partition.rowPointers[i];
+            }
+            entry += partition.getNumberOfEntries();
+
+            for (int j = 0; j < rowsToReturn.documentFrequencies.length; j++) {
+                rowsToReturn.documentFrequencies[j] += partition.documentFrequencies[j];
+            }
+        }
+
+        return rowsToReturn;
+    }
+
+    /**
+     * Fills the rows of 2-dimensional array with term counts
+     *
+     * @param twoDimensionalArrayToFill array of number of rows times number of terms, filled with 0
+     * @return document frequencies of all terms
+     */
+    public int[] fillDenseRows(float[][] twoDimensionalArrayToFill) {
+        if (parallelism == 1 || listOfBagOfWords.size() <= rowsPerPartition) {
+            return fillDensePartition(twoDimensionalArrayToFill, 0, listOfBagOfWords.size());
+        }
+
+        return invoke(new DensePartitionTask(twoDimensionalArrayToFill, 0, listOfBagOfWords.size()));
+    }
+
+    /**
+     * Runs the task in a pool of parallelism threads
+     */
+    private <T> T invoke(RecursiveTask<T> task) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds sparse rows of the partition, sequentially
+     */
+    private SparseRows buildSparsePartition(int from, int to) {
+        int[] columnIndexes = new int[Math.max(16, (to - from) * 8)];
+        int[] termCounts = new int[columnIndexes.length];
+        int[] rowPointers = new int[to - from + 1];
+        int[] documentFrequencies = new int[termDictionary.size()];
+        int[] termIdsOfTransaction = new int[16];
+        int numberOfEntries = 0;
+        int numberOfTokens;
+
+        // for each of the bag of words, collect its distinct terms in column order with their counts
+        for (int i = from; i < to; i++) {
+            List<String> bagOfWords = listOfBagOfWords.get(i);
+
+            if (termIdsOfTransaction.length < bagOfWords.size()) {
+                termIdsOfTransaction = new int[bagOfWords.size() * 2];
+            }
+            numberOfTokens = 0;
+            for (String term : bagOfWords) {
+                termIdsOfTransaction[numberOfTokens++] = termDictionary.getId(term);
+            }
+            Arrays.sort(termIdsOfTransaction, 0, numberOfTokens);
+
+            if (columnIndexes.length < numberOfEntries + numberOfTokens) {
+                columnIndexes = Arrays.copyOf(columnIndexes, Math.max(columnIndexes.length * 2, numberOfEntries + numberOfTokens));
+                termCounts = Arrays.copyOf(termCounts, columnIndexes.length);
+            }
+
+            for (int t = 0; t < numberOfTokens; t++) {
+                if (t > 0 && termIdsOfTransaction[t] == termIdsOfTransaction[t - 1]) {
+                    ++termCounts[numberOfEntries - 1];
+                } else {
+                    columnIndexes[numberOfEntries] = termIdsOfTransaction[t];
+                    termCounts[numberOfEntries] = 1;
+                    ++documentFrequencies[termIdsOfTransaction[t]];
+                    ++numberOfEntries;
+                }
+            }
+            rowPointers[i - from + 1] = numberOfEntries;
+        }
+
+        return new SparseRows(rowPointers, columnIndexes, termCounts, documentFrequencies);
+    }
+
+    /**
+     * Fills dense rows of the partition, sequentially
+     */
+    private int[] fillDensePartition(float[][] twoDimensionalArrayToFill, int from, int to) {
+        int[] documentFrequencies = new int[termDictionary.size()];
+
+        for (int i = from; i < to; i++) {
+            float[] row = twoDimensionalArrayToFill[i];
+
+            for (String term : listOfBagOfWords.get(i)) {
+                int column = termDictionary.getId(term);
+
+                if (row[column]++ == 0) {
+                    ++documentFrequencies[column];
+                }
+            }
+        }
+
+        return documentFrequencies;
+    }
+
+    /**
+     * Splits rows into halves until partitions are small enough, returning partitions in row order
+     */
+    private class SparsePartitionTask extends RecursiveTask<List<SparseRows>> {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        SparsePartitionTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SparseRows> compute() {
+            List<SparseRows> partitions;
+
+            if (to - from <= rowsPerPartition) {
+                partitions = new ArrayList<>(1);
+                partitions.add(buildSparsePartition(from, to));
+
+                return partitions;
+            }
+
+            int middle = (from + to) >>> 1;
+            SparsePartitionTask left = new SparsePartitionTask(from, middle);
+            SparsePartitionTask right = new SparsePartitionTask(middle, to);
+
+            left.fork();
+            partitions = new ArrayList<>(right.compute());
+            partitions.addAll(0, left.join());
+
+            return partitions;
+        }
+    }
+
+    /**
+     * Splits rows into halves until partitions are small enough, summing document frequencies
+     */
+    private class DensePartitionTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+        private final float[][] twoDimensionalArrayToFill;
+        private final int from;
+        private final int to;
+
+        DensePartitionTask(float[][] twoDimensionalArrayToFill, int from, int to) {
+            this.twoDimensionalArrayToFill = twoDimensionalArrayToFill;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= rowsPerPartition) {
+                return fillDensePartition(twoDimensionalArrayToFill, from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            DensePartitionTask left = new DensePartitionTask(twoDimensionalArrayToFill, from, middle);
+            DensePartitionTask right = new DensePartitionTask(twoDimensionalArrayToFill, middle, to);
+
+            left.fork();
+            int[] documentFrequencies = right.compute();
+            int[] leftDocumentFrequencies = left.join();
+
+            for (int j = 0; j < documentFrequencies.length; j++) {
+                documentFrequencies[j] += leftDocumentFrequencies[j];
+            }
+
+            return documentFrequencies;
+        }
+    }
+
+    /**
+     * Rows in compressed sparse row form holding term counts, with document frequencies of all terms
+     */
+    public static class SparseRows {
+
+        private final int[] rowPointers;
+        private final int[] columnIndexes;
+        private final int[] termCounts;
+        private final int[] documentFrequencies;
+
+        SparseRows(int[] rowPointers, int[] columnIndexes, int[] termCounts, int[] documentFrequencies) {
+            this.rowPointers = rowPointers;
+            this.columnIndexes = columnIndexes;
+            this.termCounts = termCounts;
+            this.documentFrequencies = documentFrequencies;
+        }
+
+        SparseRows(int numberOfRows, int numberOfEntries, int numberOfTerms) {
+            this(new int[numberOfRows + 1], new int[numberOfEntries], new int[numberOfEntries], new int[numberOfTerms]);
+        }
+
+        public int getNumberOfEntries() {
+            return rowPointers[rowPointers.length - 1];
+        }
+
+        public int[] getRowPointers() {
+            return rowPointers;
+        }
+
+        /**
+         * @return column indexes, possibly longer than number of entries
+         */
+        public int[] getColumnIndexes() {
+            return columnIndexes;
+        }
+
+        /**
+         * @return term counts, possibly longer than number of entries
+         */
+        public int[] getTermCounts() {
+            return termCounts;
+        }
+
+        public int[] getDocumentFrequencies() {
+            return documentFrequencies;
+        }
+    }
+
+}
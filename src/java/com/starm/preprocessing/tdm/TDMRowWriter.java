@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.io.IOException;
+
+/**
+ * Writer of binary term-by-document matrix rows to an output format
+ *
+ * @see com.starm.preprocessing.tdm.TDMCSVWriter
+ * @see com.starm.preprocessing.tdm.TDMARFFWriter
+ * 
+ * @author Wasif Altaf
+ */
+public interface TDMRowWriter extends AutoCloseable {
+
+    /**
+     * Writes a row of dense 2-dimensional array, skipping cells of pruned terms marked with -1
+     *
+     * @param row row of term-by-document matrix
+     * @throws IOException if the row could not be written
+     */
+    void writeDenseRow(float[] row) throws IOException;
+
+    /**
+     * Writes a row given as sorted column indexes with their values, as held by sparse matrices. 
+     * Entries with value 0 are treated as absent terms.
+     *
+     * @param columnIndexes column indexes of entries
+     * @param values values of entries, null if all entries are non-zero
+     * @param from position of first entry of the row
+     * @param to position after last entry of the row
+     * @param numberOfColumns number of columns of term-by-document matrix
+     * @throws IOException if the row could not be written
+     */
+    void writeSparseRow(int[] columnIndexes, float[] values, int from, int to, int numberOfColumns) throws IOException;
+
+    /**
+     * @return number of rows written so far
+     */
+    int getNumberOfRowsWritten();
+
+    /**
+     * Flushes and closes the output
+     *
+     * @throws IOException if the output could not be closed
+     */
+    @Override
+    void close() throws IOException;
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.Arrays;
+
+/**
+ * Writer of binary term-by-document matrix rows into int-encoded transactions held in memory, 
+ * each transaction being the sorted column indexes of the terms it contains, for mining by 
+ * NativeFPGrowthARMiner without building Weka Instances
+ *
+ * @see com.starm.processors.miners.NativeFPGrowthARMiner
+ * 
+ * @author Wasif Altaf
+ */
+public class TDMTransactionsWriter implements TDMRowWriter {
+
+    private int[][] transactions;
+    private int[] indexesOfRow = new int[256];
+    private int numberOfRowsWritten = 0;
+
+    /**
+     * @param expectedNumberOfRows number of rows expected, for initial capacity
+     */
+    public TDMTransactionsWriter(int expectedNumberOfRows) {
+        transactions = new int[Math.max(expectedNumberOfRows, 1)][];
+    }
+
+    @Override
+    public void writeDenseRow(float[] row) {
+        int column = 0;
+        int numberOfIndexes = 0;
+
+        for (int j = 0; j < row.length; j++) {
+            // item pruning, remaining columns are renumbered
+            if (row[j] == -1) {
+                continue;
+            }
+
+            if (row[j] != 0) {
+                if (numberOfIndexes == indexesOfRow.length) {
+                    indexesOfRow = Arrays.copyOf(indexesOfRow, indexesOfRow.length * 2);
+                }
+                indexesOfRow[numberOfIndexes++] = column;
+            }
+            ++column;
+        }
+
+        addRow(numberOfIndexes);
+    }
+
+    @Override
+    public void writeSparseRow(int[] columnIndexes, float[] values, int from, int to, int numberOfColumns) {
+        int numberOfIndexes = 0;
+
+        if (indexesOfRow.length < to - from) {
+            indexesOfRow = new int[to - from];
+        }
+
+        for (int k = from; k < to; k++) {
+            if (values == null || values[k] != 0) {
+                indexesOfRow[numberOfIndexes++] = columnIndexes[k];
+            }
+        }
+
+        addRow(numberOfIndexes);
+    }
+
+    private void addRow(int numberOfIndexes) {
+        if (numberOfRowsWritten == transactions.length) {
+            transactions = Arrays.copyOf(transactions, transactions.length * 2);
+        }
+
+        transactions[numberOfRowsWritten++] = Arrays.copyOf(indexesOfRow, numberOfIndexes);
+    }
+
+    @Override
+    public int getNumberOfRowsWritten() {
+        return numberOfRowsWritten;
+    }
+
+    /**
+     * Trims the transactions to the number of rows written
+     */
+    @Override
+    public void close() {
+        if (transactions.length != numberOfRowsWritten) {
+            transactions = Arrays.copyOf(transactions, numberOfRowsWritten);
+        }
+    }
+
+    /**
+     * @return the transactions written so far, trimmed once closed
+     */
+    public int[][] getTransactions() {
+        return transactions;
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dictionary mapping terms to dense int IDs 0 to size - 1, through an open 
+ * addressing hash table with linear probing. <br /><br />
+ * 
+ * Lookups and additions take constant expected time, so that building the terms 
+ * index and filling term-by-document matrix is linear in corpus size. After sort(), 
+ * IDs follow the alphabetical order of terms, which is the column order of 
+ * term-by-document matrix.
+ *
+ * @author Wasif Altaf
+ */
+public class TermDictionary {
+
+    private String[] slotTerms;
+    private int[] slotIds;
+    private String[] terms;
+    private int size = 0;
+
+    /**
+     * Constructs empty TermDictionary
+     */
+    public TermDictionary() {
+        this(1024);
+    }
+
+    /**
+     * Constructs empty TermDictionary
+     *
+     * @param expectedNumberOfTerms number of terms expected, to size the hash table
+     */
+    public TermDictionary(int expectedNumberOfTerms) {
+        int capacity = 16;
+
+        // keep load factor at most 0.5
+        while (capacity < expectedNumberOfTerms * 2) {
+            capacity <<= 1;
+        }
+
+        slotTerms = new String[capacity];
+        slotIds = new int[capacity];
+        terms = new String[Math.max(16, expectedNumberOfTerms)];
+    }
+
+    /**
+     * Creates TermDictionary from a list of unique terms, IDs being the positions of terms in the list
+     *
+     * @param uniqueTermsIndexAsList list of unique terms, e.g. sorted unique terms index
+     * @return the term dictionary
+     */
+    public static TermDictionary fromUniqueTerms(List<String> uniqueTermsIndexAsList) {
+        TermDictionary dictionaryToReturn = new TermDictionary(uniqueTermsIndexAsList.size());
+
+        for (String term : uniqueTermsIndexAsList) {
+            dictionaryToReturn.add(term);
+        }
+
+        return dictionaryToReturn;
+    }
+
+    /**
+     * Creates sorted TermDictionary of all terms contained in list of bag of words
+     *
+     * @param listOfBagOfWords list of bag of words
+     * @return the term dictionary, IDs following alphabetical order of terms
+     */
+    public static TermDictionary fromListOfBagOfWords(List<List<String>> listOfBagOfWords) {
+        TermDictionary dictionaryToReturn = new TermDictionary();
+
+        for (List<String> bagOfWords : listOfBagOfWords) {
+            for (String term : bagOfWords) {
+                dictionaryToReturn.add(term);
+            }
+        }
+        dictionaryToReturn.sort();
+
+        return dictionaryToReturn;
+    }
+
+    /**
+     * Adds the term if not already contained
+     *
+     * @param term term to add
+     * @return ID of the term
+     */
+    public int add(String term) {
+        int slot = findSlot(term);
+
+        if (slotTerms[slot] != null) {
+            return slotIds[slot];
+        }
+
+        if (size == terms.length) {
+            terms = Arrays.copyOf(terms, terms.length * 2);
+        }
+        terms[size] = term;
+        slotTerms[slot] = term;
+        slotIds[slot] = size;
+        ++size;
+
+        if (size * 2 > slotTerms.length) {
+            rehash(slotTerms.length * 2);
+        }
+
+        return size - 1;
+    }
+
+    /**
+     * @param term term to look up
+     * @return ID of the term, -1 if the term is not contained
+     */
+    public int getId(String term) {
+        int slot = findSlot(term);
+
+        return slotTerms[slot] == null ? -1 : slotIds[slot];
+    }
+
+    /**
+     * @param term term to look up
+     * @return true if the term is contained, false otherwise
+     */
+    public boolean contains(String term) {
+        return slotTerms[findSlot(term)] != null;
+    }
+
+    /**
+     * @param id ID of the term
+     * @return the term
+     */
+    public String getTerm(int id) {
+        return terms[id];
+    }
+
+    /**
+     * @return number of terms contained
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Renumbers the terms so that IDs follow alphabetical order of terms
+     *
+     * @return array mapping old IDs to new IDs
+     */
+    public int[] sort() {
+        int[] newIds = new int[size];
+        String[] sortedTerms = Arrays.copyOf(terms, size);
+
+        Arrays.sort(sortedTerms);
+        System.arraycopy(sortedTerms, 0, terms, 0, size);
+
+        for (int slot = 0; slot < slotTerms.length; slot++) {
+            if (slotTerms[slot] != null) {
+                int newId = Arrays.binarySearch(sortedTerms, slotTerms[slot]);
+
+                newIds[slotIds[slot]] = newId;
+                slotIds[slot] = newId;
+            }
+        }
+
+        return newIds;
+    }
+
+    /**
+     * @return list of terms in order of their IDs
+     */
+    public List<String> getTermsAsList() {
+        return new ArrayList<>(Arrays.asList(terms).subList(0, size));
+    }
+
+    /**
+     * Finds the slot holding the term, or the empty slot where it should be placed
+     */
+    private int findSlot(String term) {
+        int mask = slotTerms.length - 1;
+        int slot = hash(term) & mask;
+
+        while (slotTerms[slot] != null && !slotTerms[slot].equals(term)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Spreads String hash code bits, so that similar terms do not cluster in the table
+     */
+    private static int hash(String term) {
+        int h = term.hashCode() * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Moves all terms into a table of new capacity
+     */
+    private void rehash(int newCapacity) {
+        String[] oldSlotTerms = slotTerms;
+        int[] oldSlotIds = slotIds;
+
+        slotTerms = new String[newCapacity];
+        slotIds = new int[newCapacity];
+
+        for (int i = 0; i < oldSlotTerms.length; i++) {
+            if (oldSlotTerms[i] != null) {
+                int slot = findSlot(oldSlotTerms[i]);
+
+                slotTerms[slot] = oldSlotTerms[i];
+                slotIds[slot] = oldSlotIds[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.preprocessing.tdm;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Document frequency, collection frequency, and smallest and largest count in a transaction, 
+ * of each term of the vocabulary, collected in a single pass over transactions. <br /><br />
+ * 
+ * Weights grow with counts in every weighting scheme, so the weights at smallest and largest 
+ * count bound all weights of a term, and tell whether term pruning would prune it without 
+ * building the term-by-document matrix. Terms may therefore be ranked and selected before the 
+ * matrix is built.
+ *
+ * @author Wasif Altaf
+ */
+public class VocabularyStatistics {
+
+    private int[] documentFrequencies;
+    private long[] collectionFrequencies;
+    private int[] smallestCounts;
+    private int[] largestCounts;
+    private int size = 0;
+    private int numberOfTransactions = 0;
+
+    /**
+     * Constructs empty VocabularyStatistics
+     *
+     * @param expectedNumberOfTerms number of terms expected, for initial capacity
+     */
+    public VocabularyStatistics(int expectedNumberOfTerms) {
+        int capacity = Math.max(16, expectedNumberOfTerms);
+
+        documentFrequencies = new int[capacity];
+        collectionFrequencies = new long[capacity];
+        smallestCounts = new int[capacity];
+        largestCounts = new int[capacity];
+    }
+
+    /**
+     * Collects statistics of all terms of the dictionary from list of bag of words, in a single pass
+     *
+     * @param listOfBagOfWords list of bag of words, one per transaction
+     * @param termDictionary dictionary of all terms contained, statistics being indexed by term IDs
+     * @return statistics of all terms
+     */
+    public static VocabularyStatistics fromListOfBagOfWords(List<List<String>> listOfBagOfWords,
+            TermDictionary termDictionary) {
+        VocabularyStatistics statisticsToReturn = new VocabularyStatistics(termDictionary.size());
+        int[] termIdsOfTransaction = new int[16];
+        int numberOfTokens;
+
+        for (int j = 0; j < termDictionary.size(); j++) {
+            statisticsToReturn.addTerm();
+        }
+
+        for (List<String> bagOfWords : listOfBagOfWords) {
+            if (termIdsOfTransaction.length < bagOfWords.size()) {
+                termIdsOfTransaction = new int[bagOfWords.size() * 2];
+            }
+            numberOfTokens = 0;
+            for (String term : bagOfWords) {
+                termIdsOfTransaction[numberOfTokens++] = termDictionary.getId(term);
+            }
+            Arrays.sort(termIdsOfTransaction, 0, numberOfTokens);
+
+            // count each distinct term of transaction
+            for (int t = 0, count = 1; t < numberOfTokens; t++, count++) {
+                if (t + 1 == numberOfTokens || termIdsOfTransaction[t] != termIdsOfTransaction[t + 1]) {
+                    statisticsToReturn.addOccurrence(termIdsOfTransaction[t], count);
+                    count = 0;
+                }
+            }
+        }
+        statisticsToReturn.setNumberOfTransactions(listOfBagOfWords.size());
+
+        return statisticsToReturn;
+    }
+
+    /**
+     * Adds a term not yet occurring in any transaction
+     *
+     * @return ID of the term
+     */
+    public int addTerm() {
+        if (size == documentFrequencies.length) {
+            documentFrequencies = Arrays.copyOf(documentFrequencies, size * 2);
+            collectionFrequencies = Arrays.copyOf(collectionFrequencies, size * 2);
+            smallestCounts = Arrays.copyOf(smallestCounts, size * 2);
+            largestCounts = Arrays.copyOf(largestCounts, size * 2);
+        }
+
+        documentFrequencies[size] = 0;
+        collectionFrequencies[size] = 0;
+        smallestCounts[size] = Integer.MAX_VALUE;
+        largestCounts[size] = 0;
+
+        return size++;
+    }
+
+    /**
+     * Adds occurrence of the term in a transaction, each transaction being added once per term
+     *
+     * @param termId ID of the term
+     * @param count number of times the term occurs in the transaction
+     */
+    public void addOccurrence(int termId, int count) {
+        ++documentFrequencies[termId];
+        collectionFrequencies[termId] += count;
+        smallestCounts[termId] = Math.min(smallestCounts[termId], count);
+        largestCounts[termId] = Math.max(largestCounts[termId], count);
+    }
+
+    /**
+     * @return IDF score of the term, calculated as by ListOfStringsToBinaryTDMUsing2DMatrix.calculateIDFScores()
+     */
+    public float getIDFScore(int termId) {
+        return (float) Math.log10((float) numberOfTransactions / (float) documentFrequencies[termId]);
+    }
+
+    /**
+     * Weighs a count of term in transaction, the same way as term-by-document matrices do
+     *
+     * @param count number of times the term occurs in transaction
+     * @param idfScore IDF score of the term, not used by BINARY and TF weighting
+     * @param weightingSchemeToUse weighting scheme
+     * @return the weight
+     */
+    public static float weigh(int count, float idfScore, WeightingScheme weightingSchemeToUse) {
+        float weight = count;
+
+        if (weightingSchemeToUse == WeightingScheme.BINARY) {
+            weight = 1;
+        } else if (weightingSchemeToUse == WeightingScheme.TFIDF) {
+            weight *= idfScore;
+        } else if (weightingSchemeToUse == WeightingScheme.IDF) {
+            weight = idfScore;
+        }
+
+        return weight;
+    }
+
+    /**
+     * Tells whether term pruning prunes the term, that is, whether any non-zero weight of the term 
+     * is less than termPruneMinValue or greater than termPruneMaxValue
+     *
+     * @param termId ID of the term
+     * @param weightingSchemeToUse weighting scheme
+     * @param termPruneMinValue lower bound for prune value
+     * @param termPruneMaxValue upper bound for prune value
+     * @return true if the term is pruned
+     */
+    public boolean isPruned(int termId, WeightingScheme weightingSchemeToUse, float termPruneMinValue,
+            float termPruneMaxValue) {
+        float idfScore = getIDFScore(termId);
+
+        return isOutOfRange(weigh(smallestCounts[termId], idfScore, weightingSchemeToUse), termPruneMinValue, termPruneMaxValue)
+                || isOutOfRange(weigh(largestCounts[termId], idfScore, weightingSchemeToUse), termPruneMinValue, termPruneMaxValue);
+    }
+
+    private static boolean isOutOfRange(float weight, float termPruneMinValue, float termPruneMaxValue) {
+        return weight != 0 && (weight < termPruneMinValue || weight > termPruneMaxValue);
+    }
+
+    /**
+     * @return score of the term
+     */
+    public double getScore(int termId, FeatureScore featureScore) {
+        switch (featureScore) {
+            case COLLECTION_FREQUENCY:
+                return collectionFrequencies[termId];
+            case IDF:
+                return getIDFScore(termId);
+            case CF_IDF:
+                return collectionFrequencies[termId] * (double) getIDFScore(termId);
+            default:
+                return documentFrequencies[termId];
+        }
+    }
+
+    /**
+     * Selects the terms remaining after term pruning, keeping only the numberOfTermsToSelect 
+     * terms with highest score if more remain. Ties are broken by term ID.
+     *
+     * @param numberOfTermsToSelect largest number of terms to keep, 0 to keep all remaining terms
+     * @param featureScore score by which terms are ranked
+     * @param weightingSchemeToUse weighting scheme
+     * @param termPruneMinValue lower bound for prune value
+     * @param termPruneMaxValue upper bound for prune value
+     * @return true for each term ID selected
+     */
+    public boolean[] selectTerms(int numberOfTermsToSelect, FeatureScore featureScore,
+            WeightingScheme weightingSchemeToUse, float termPruneMinValue, float termPruneMaxValue) {
+        boolean[] termsSelected = new boolean[size];
+        Integer[] remainingTermIds = new Integer[size];
+        double[] scores = new double[size];
+        int numberOfRemainingTerms = 0;
+
+        for (int j = 0; j < size; j++) {
+            if (!isPruned(j, weightingSchemeToUse, termPruneMinValue, termPruneMaxValue)) {
+                remainingTermIds[numberOfRemainingTerms++] = j;
+                scores[j] = getScore(j, featureScore);
+            }
+        }
+
+        if (numberOfTermsToSelect > 0 && numberOfRemainingTerms > numberOfTermsToSelect) {
+            Arrays.sort(remainingTermIds, 0, numberOfRemainingTerms, (a, b) -> {
+                int scoreOrder = Double.compare(scores[b], scores[a]);
+
+                return scoreOrder != 0 ? scoreOrder : Integer.compare(a, b);
+            });
+            numberOfRemainingTerms = numberOfTermsToSelect;
+        }
+
+        for (int k = 0; k < numberOfRemainingTerms; k++) {
+            termsSelected[remainingTermIds[k]] = true;
+        }
+
+        return termsSelected;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNumberOfTransactions() {
+        return numberOfTransactions;
+    }
+
+    public void setNumberOfTransactions(int numberOfTransactions) {
+        this.numberOfTransactions = numberOfTransactions;
+    }
+
+    public int getDocumentFrequency(int termId) {
+        return documentFrequencies[termId];
+    }
+
+    public long getCollectionFrequency(int termId) {
+        return collectionFrequencies[termId];
+    }
+
+    public int getSmallestCount(int termId) {
+        return smallestCounts[termId];
+    }
+
+    public int getLargestCount(int termId) {
+        return largestCounts[termId];
+    }
+
+}
@@ -326,18 +326,43 @@ public class AssociationRuleScrapper {
      */
     public static Integer[] searchSupportingTransactionsIds(String associationRule, String filePath, 
             String fileNameAndExtension, Charset fileCharset) {
-        List<String> transactions = null;
-        Integer[] transactionsIdsToReturn = null;
         String[] allItems;
-        String[] itemsToCheckForPresence;
-        String[] itemsToCheckForAbsence;
 
         try {
             // extract items from association rule
             allItems = join(AssociationRuleScrapper.extractPremiseItems(associationRule), AssociationRuleScrapper.extractConsequenceItems(associationRule));
-            itemsToCheckForPresence = findNormalItems(allItems);
-            itemsToCheckForAbsence = removeNegation(findNegatedItems(allItems), "~");
 
+        } catch (Exception e) {
+            System.err.println("Exception in searchSupportingTransactions.");
+            e.printStackTrace();
+
+            return null;
+        }
+
+        return searchSupportingTransactionsIds(findNormalItems(allItems), removeNegation(findNegatedItems(allItems), "~"),
+                filePath, fileNameAndExtension, fileCharset);
+    }
+
+    /**
+     * Finds the transaction IDs for association rule supporting transactions
+     * from the input file have the specified Charset, for items of the rule as 
+     * read from association rule store, without parsing the rule
+     * 
+     * @see com.starm.processors.miners.AssociationRuleStore
+     * 
+     * @param itemsToCheckForPresence items of the rule which are not negated
+     * @param itemsToCheckForAbsence items of the rule which are negated, without negation symbol
+     * @param filePath folder path of preprocessed dataset file
+     * @param fileNameAndExtension file name and extension of the preprocessed dataset file
+     * @param fileCharset characterset of preprocessed dataset file
+     * @return 1-indexed transaction IDs of transactions supporting the rule
+     */
+    public static Integer[] searchSupportingTransactionsIds(String[] itemsToCheckForPresence, 
+            String[] itemsToCheckForAbsence, String filePath, String fileNameAndExtension, Charset fileCharset) {
+        List<String> transactions = null;
+        Integer[] transactionsIdsToReturn = null;
+
+        try {
             // read all transactions from input file
             transactions = Files.readAllLines(FileSystems.getDefault().getPath(filePath, fileNameAndExtension), fileCharset);
 
@@ -521,6 +546,48 @@ public class AssociationRuleScrapper {
         return stTransactionsToReturn;
     }
 
+    /**
+     * Retrieves unprocessed transactions supporting association rule, for items of the rule 
+     * as read from association rule store, without parsing the rule
+     * 
+     * @see com.starm.processors.miners.AssociationRuleStore
+     * 
+     * @param itemsToCheckForPresence items of the rule which are not negated
+     * @param itemsToCheckForAbsence items of the rule which are negated, without negation symbol
+     * @param ppFilePath folder path for preprocessed dataset file 
+     * @param ppFileNameAndExtension file name and extension of preprocessed dataset file
+     * @param ppFileCharset characterset of preprocessed dataset file
+     * @param stFilePath folder path for unprocessed dataset file
+     * @param stFileNameAndExtension file name and extension of unprocessed dataset file
+     * @param stFileCharset characterset of unprocessed dataset file
+     * @param stFileHasHeaderRow whether the unprocessed dataset file has header row or not
+     * @return array of unprocessed transactions, or null if no association rule supporting transactions
+     * could be found
+     */
+    public static String[] retrieveSpatioTemporalTransactions(String[] itemsToCheckForPresence, 
+            String[] itemsToCheckForAbsence,
+            String ppFilePath, String ppFileNameAndExtension, Charset ppFileCharset,
+            String stFilePath, String stFileNameAndExtension, Charset stFileCharset, boolean stFileHasHeaderRow){
+        String[] stTransactionsToReturn = null;
+        Integer[] ppTransactionsIds;
+        
+        try {
+            // search transaction ids of rule supporting transactions from preprocessed (pp) file
+            ppTransactionsIds = searchSupportingTransactionsIds(itemsToCheckForPresence, itemsToCheckForAbsence, 
+                    ppFilePath, ppFileNameAndExtension, ppFileCharset);
+            
+            // retrieve spatio-temporal transactions from original dataset file
+            stTransactionsToReturn = retrieveTransactionsByIds(ppTransactionsIds, stFilePath, stFileNameAndExtension, stFileCharset, stFileHasHeaderRow);
+                  
+        } catch (Exception e) {
+            System.err.println("Exception in retrieveSpatioTemporalTransactions : " + Arrays.toString(itemsToCheckForPresence));
+            System.err.println(e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return stTransactionsToReturn;
+    }
+
     /**
      * Joins array of strings. 
      * <br />
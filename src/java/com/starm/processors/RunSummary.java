@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of a mining run, such as the settings used and the figures reported by 
+ * the processing steps. Saved alongside the run results as one tab separated 
+ * name and value per line.
+ * 
+ * @author Wasif Altaf
+ */
+public class RunSummary {
+
+    private final Map<String, String> entries = new LinkedHashMap<>();
+
+    /**
+     * Loads the run summary from file
+     * 
+     * @param filePath folder path of run summary file
+     * @param fileNameAndExtension file name and extension of run summary file
+     * @return the loaded run summary, or an empty run summary if file does not exist or could not be read
+     */
+    public static RunSummary load(String filePath, String fileNameAndExtension) {
+        RunSummary runSummaryToReturn = new RunSummary();
+        Path path;
+        String[] parts;
+
+        try {
+            path = FileSystems.getDefault().getPath(filePath, fileNameAndExtension);
+
+            if (Files.exists(path)) {
+                for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    parts = line.split("\t", 2);
+
+                    if (parts.length == 2) {
+                        runSummaryToReturn.entries.put(parts[0], parts[1]);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Exception in RunSummary.load() : " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return runSummaryToReturn;
+    }
+
+    /**
+     * Records the value against the name, replacing any earlier value
+     * 
+     * @param name name of the entry
+     * @param value value of the entry
+     */
+    public void put(String name, Object value) {
+        System.out.println(new Date() + ": Run summary : " + name + " : " + value);
+        entries.put(name, String.valueOf(value));
+    }
+
+    /**
+     * @param name name of the entry
+     * @return value of the entry, or null if no entry exists for the name
+     */
+    public String get(String name) {
+        return entries.get(name);
+    }
+
+    public Map<String, String> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Saves the run summary to file, replacing existing file
+     * 
+     * @param filePath folder path of run summary file
+     * @param fileNameAndExtension file name and extension of run summary file
+     * @return true if run summary was saved, false otherwise
+     */
+    public boolean save(String filePath, String fileNameAndExtension) {
+        List<String> lines = new ArrayList<>(entries.size());
+
+        try {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                lines.add(entry.getKey() + "\t" + entry.getValue());
+            }
+
+            Files.write(FileSystems.getDefault().getPath(filePath, fileNameAndExtension), lines, StandardCharsets.UTF_8);
+
+            return true;
+        } catch (Exception e) {
+            System.err.println("Exception in RunSummary.save() : " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+/**
+ * Association rule miner, which mines dataset file and saves association rules
+ * to output rules file, in the format scrapped by AssociationRuleScrapper
+ *
+ * @see com.starm.processors.AssociationRuleScrapper
+ *
+ * @author Wasif Altaf
+ */
+public interface ARMiner {
+
+    /**
+     * Loads dataset, mines association rules and saves them
+     *
+     * @return true if mining was successful and association rules were written to disk successfully, false otherwise
+     */
+    boolean mine();
+
+}
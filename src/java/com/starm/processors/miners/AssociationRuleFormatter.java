@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import weka.associations.FPGrowth.AssociationRule;
+import weka.associations.FPGrowth.BinaryItem;
+import weka.core.Utils;
+
+/**
+ * Formats association rules as lines of the association rules file, such as 
+ * [a=y, b=y]: 5 ==> [c=y]: 4   conf:(0.8) lift:(1.2) lev:(0.01) conv:(1.5) <br /><br />
+ *
+ * The format is that of Weka FPGrowth rules, without the marks around the metric the rules 
+ * were selected by. Text of each rule is built in a buffer reused for the next rule, so an
+ * instance is to be used by a single thread.
+ *
+ * @see com.starm.processors.AssociationRuleScrapper
+ *
+ * @author Wasif Altaf
+ */
+public class AssociationRuleFormatter {
+
+    private final StringBuilder ruleText = new StringBuilder(128);
+
+    /**
+     * Writes the rule, followed by a new line
+     *
+     * @param writer writer of association rules file
+     * @param rule association rule found by Weka FPGrowth
+     * @throws IOException if the rule could not be written
+     */
+    public void write(Writer writer, AssociationRule rule) throws IOException {
+        ruleText.setLength(0);
+
+        appendItems(ruleText, rule.getPremise());
+        ruleText.append(": ").append(rule.getPremiseSupport()).append(" ==> ");
+        appendItems(ruleText, rule.getConsequence());
+        ruleText.append(": ").append(rule.getTotalSupport()).append("   ");
+        appendMetrics(ruleText, rule.getPremiseSupport(), rule.getConsequenceSupport(), rule.getTotalSupport(),
+                rule.getTotalTransactions());
+        ruleText.append('\n');
+
+        writer.append(ruleText);
+    }
+
+    private static void appendItems(StringBuilder builder, Collection<BinaryItem> items) {
+        boolean first = true;
+
+        builder.append('[');
+
+        for (BinaryItem item : items) {
+            if (!first) {
+                builder.append(", ");
+            }
+            builder.append(item.getAttribute().name()).append('=').append(item.getAttribute().value(item.getValueIndex()));
+            first = false;
+        }
+
+        builder.append(']');
+    }
+
+    /**
+     * Appends conf, lift, lev and conv metrics of the rule, computed from its supports as by Weka FPGrowth
+     *
+     * @param builder builder of rule text
+     * @param premiseSupport number of transactions containing the premise
+     * @param consequenceSupport number of transactions containing the consequence
+     * @param totalSupport number of transactions containing both premise and consequence
+     * @param numberOfTransactions number of transactions
+     */
+    static void appendMetrics(StringBuilder builder, int premiseSupport, int consequenceSupport, int totalSupport,
+            int numberOfTransactions) {
+        builder.append("conf:(").append(Utils.doubleToString(confidence(premiseSupport, totalSupport), 2)).append(") ");
+        builder.append("lift:(").append(Utils.doubleToString(
+                lift(premiseSupport, consequenceSupport, totalSupport, numberOfTransactions), 2)).append(") ");
+        builder.append("lev:(").append(Utils.doubleToString(
+                leverage(premiseSupport, consequenceSupport, totalSupport, numberOfTransactions), 2)).append(") ");
+        builder.append("conv:(").append(Utils.doubleToString(
+                conviction(premiseSupport, consequenceSupport, totalSupport, numberOfTransactions), 2)).append(") ");
+    }
+
+    static double confidence(int premiseSupport, int totalSupport) {
+        return (double) totalSupport / premiseSupport;
+    }
+
+    static double lift(int premiseSupport, int consequenceSupport, int totalSupport, int numberOfTransactions) {
+        return confidence(premiseSupport, totalSupport) / ((double) consequenceSupport / numberOfTransactions);
+    }
+
+    static double leverage(int premiseSupport, int consequenceSupport, int totalSupport, int numberOfTransactions) {
+        double n = numberOfTransactions;
+
+        return totalSupport / n - (premiseSupport / n) * (consequenceSupport / n);
+    }
+
+    static double conviction(int premiseSupport, int consequenceSupport, int totalSupport, int numberOfTransactions) {
+        return (double) premiseSupport * (numberOfTransactions - consequenceSupport) / numberOfTransactions
+                / (premiseSupport - totalSupport + 1);
+    }
+
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Generates association rules from frequent itemsets, at any support at or above the support
+ * they were mined at, and saves them in the format of Weka FPGrowth rules, with conf, lift,
+ * lev and conv metrics, sorted by descending confidence. <br /><br />
+ *
+ * Itemsets above a support form a subset closed under taking subsets, so support of premise
+ * and consequence of each rule is always found among them. <br /><br />
+ *
+ * If parallelism is greater than 1, rules of ranges of itemsets are built in a fork-join pool,
+ * looking up supports of premises and consequences in the itemsets hashed beforehand. Rules are
+ * kept as itemset index and premise bit mask with their supports only, and are formatted one at
+ * a time while being written, so that text of all rules is never held in memory. <br /><br />
+ *
+ * Rules are saved to the association rule store of the output file as well.
+ *
+ * @author Wasif Altaf
+ */
+public class AssociationRuleGenerator {
+
+    // ranges of fewer itemsets are not split further among threads
+    private static final int MINIMUM_ITEMSETS_TO_SPLIT = 256;
+
+    private final FrequentItemSets frequentItemSets;
+    private final List<String> itemNames;
+    private final int numberOfTransactions;
+    private int parallelism = 1;
+
+    /**
+     * @param frequentItemSets frequent itemsets of item ids
+     * @param itemNames names of items, by item id
+     * @param numberOfTransactions number of transactions the itemsets were mined from
+     */
+    public AssociationRuleGenerator(FrequentItemSets frequentItemSets, List<String> itemNames, int numberOfTransactions) {
+        this.frequentItemSets = frequentItemSets;
+        this.itemNames = itemNames;
+        this.numberOfTransactions = numberOfTransactions;
+    }
+
+    /**
+     * Builds rules of each split of each itemset of at least minimum support into premise and
+     * consequence, meeting the thresholds, and saves them to the output file and its store, replacing them
+     *
+     * @param minimumSupportCount minimum number of transactions of itemsets of rules
+     * @param minimumConfidence minimum confidence of rules
+     * @param minimumLift minimum lift of rules, 0 for no threshold
+     * @param minimumLeverage minimum leverage of rules, 0 for no threshold
+     * @param outputFilePath path of output association rules file
+     * @return number of rules saved
+     * @throws IOException if the rules could not be saved
+     */
+    public int generate(int minimumSupportCount, double minimumConfidence, double minimumLift, double minimumLeverage,
+            Path outputFilePath) throws IOException {
+        RuleList rules;
+        ForkJoinPool pool;
+        int[] order;
+        int[] storeItemIds;
+        boolean[] negated;
+        StringBuilder ruleText = new StringBuilder(128);
+
+        // hash all itemsets, so that lookups from threads only read the hash table
+        frequentItemSets.index();
+
+        if (parallelism == 1) {
+            rules = new RuleList();
+            buildRules(0, frequentItemSets.size(), minimumSupportCount, minimumConfidence, minimumLift,
+                    minimumLeverage, rules);
+        } else {
+            pool = new ForkJoinPool(parallelism);
+
+            try {
+                rules = pool.invoke(new RuleTask(0, frequentItemSets.size(), minimumSupportCount, minimumConfidence,
+                        minimumLift, minimumLeverage));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        order = sortByConfidence(rules);
+
+        Files.deleteIfExists(outputFilePath);
+
+        // store is closed after the rules file, so that it is not taken for older than the rules file
+        try (AssociationRuleStoreWriter storeWriter = new AssociationRuleStoreWriter(
+                AssociationRuleStore.getPath(outputFilePath), numberOfTransactions);
+                BufferedWriter writer = Files.newBufferedWriter(outputFilePath, Charset.defaultCharset(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            storeItemIds = new int[itemNames.size()];
+            negated = new boolean[itemNames.size()];
+            for (int j = 0; j < itemNames.size(); j++) {
+                storeItemIds[j] = storeWriter.getItemId(itemNames.get(j));
+                negated[j] = AssociationRuleStore.isNegated(itemNames.get(j));
+            }
+
+            for (int rule : order) {
+                ruleText.setLength(0);
+                formatRule(ruleText, rules, rule);
+                ruleText.append('\n');
+                writer.append(ruleText);
+
+                storeRule(storeWriter, rules, rule, storeItemIds, negated);
+            }
+        }
+
+        return rules.size;
+    }
+
+    /**
+     * Adds rules of the itemsets from index from, inclusive, to index to, exclusive, in order of itemsets
+     */
+    private void buildRules(int from, int to, int minimumSupportCount, double minimumConfidence, double minimumLift,
+            double minimumLeverage, RuleList rules) {
+        double n = numberOfTransactions;
+        int[] items;
+        int[] premise;
+        int[] consequence;
+        int totalSupport;
+        int premiseSupport;
+        int consequenceSupport;
+        double confidence;
+        double lift;
+        double leverage;
+
+        for (int i = from; i < to; i++) {
+            items = frequentItemSets.getItems(i);
+            totalSupport = frequentItemSets.getSupport(i);
+
+            if (items.length < 2 || items.length > 62 || totalSupport < minimumSupportCount) {
+                continue;
+            }
+
+            premise = new int[items.length];
+            consequence = new int[items.length];
+
+            for (long mask = 1; mask < (1L << items.length) - 1; mask++) {
+                split(items, mask, premise, consequence);
+
+                // subsets of frequent itemsets are frequent, and found
+                premiseSupport = frequentItemSets.getSupport(premise, Long.bitCount(mask));
+                confidence = (double) totalSupport / premiseSupport;
+
+                if (confidence < minimumConfidence) {
+                    continue;
+                }
+
+                consequenceSupport = frequentItemSets.getSupport(consequence, items.length - Long.bitCount(mask));
+                lift = confidence / (consequenceSupport / n);
+                leverage = totalSupport / n - (premiseSupport / n) * (consequenceSupport / n);
+
+                if ((minimumLift == 0 || lift >= minimumLift) && (minimumLeverage == 0 || leverage >= minimumLeverage)) {
+                    rules.add(i, mask, premiseSupport, consequenceSupport, confidence);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the items into premise, items of set bits of the mask, and consequence, the other items, 
+     * both sorted ascending from start of their arrays
+     */
+    private static void split(int[] items, long mask, int[] premise, int[] consequence) {
+        for (int k = 0, p = 0, c = 0; k < items.length; k++) {
+            if ((mask & (1L << k)) != 0) {
+                premise[p++] = items[k];
+            } else {
+                consequence[c++] = items[k];
+            }
+        }
+    }
+
+    /**
+     * Orders the rules by descending confidence, rules of equal confidence staying in order they were built,
+     * by bottom up merge sort of their indexes
+     */
+    private static int[] sortByConfidence(RuleList rules) {
+        int[] order = new int[rules.size];
+        int[] merged = new int[rules.size];
+        int[] temp;
+        int middle;
+        int high;
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int low = 0; low < order.length; low += 2 * width) {
+                middle = Math.min(low + width, order.length);
+                high = Math.min(low + 2 * width, order.length);
+
+                int i = low;
+                int j = middle;
+                int k = low;
+
+                while (i < middle && j < high) {
+                    merged[k++] = rules.confidences[order[j]] > rules.confidences[order[i]] ? order[j++] : order[i++];
+                }
+                while (i < middle) {
+                    merged[k++] = order[i++];
+                }
+                while (j < high) {
+                    merged[k++] = order[j++];
+                }
+            }
+
+            temp = order;
+            order = merged;
+            merged = temp;
+        }
+
+        return order;
+    }
+
+    /**
+     * Formats the rule, such as [a=y, b=y]: 5 ==> [c=y]: 4   conf:(0.8) lift:(1.2) lev:(0.01) conv:(1.5)
+     */
+    private void formatRule(StringBuilder ruleText, RuleList rules, int rule) {
+        int[] items = frequentItemSets.getItems(rules.itemSetIndexes[rule]);
+        long mask = rules.premiseMasks[rule];
+        int totalSupport = frequentItemSets.getSupport(rules.itemSetIndexes[rule]);
+
+        appendItems(ruleText, items, mask, true);
+        ruleText.append(": ").append(rules.premiseSupports[rule]).append(" ==> ");
+        appendItems(ruleText, items, mask, false);
+        ruleText.append(": ").append(totalSupport).append("   ");
+
+        AssociationRuleFormatter.appendMetrics(ruleText, rules.premiseSupports[rule], rules.consequenceSupports[rule],
+                totalSupport, numberOfTransactions);
+    }
+
+    /**
+     * Writes the rule to the store, items of the itemset being mapped to their item ids in the store
+     */
+    private void storeRule(AssociationRuleStoreWriter storeWriter, RuleList rules, int rule, int[] storeItemIds,
+            boolean[] negated) throws IOException {
+        int[] items = frequentItemSets.getItems(rules.itemSetIndexes[rule]);
+        long mask = rules.premiseMasks[rule];
+        int[] premise = new int[Long.bitCount(mask)];
+        int[] consequence = new int[items.length - premise.length];
+        boolean[] premiseNegated = new boolean[premise.length];
+        boolean[] consequenceNegated = new boolean[consequence.length];
+
+        for (int k = 0, p = 0, c = 0; k < items.length; k++) {
+            if ((mask & (1L << k)) != 0) {
+                premiseNegated[p] = negated[items[k]];
+                premise[p++] = storeItemIds[items[k]];
+            } else {
+                consequenceNegated[c] = negated[items[k]];
+                consequence[c++] = storeItemIds[items[k]];
+            }
+        }
+
+        storeWriter.write(premise, premiseNegated, consequence, consequenceNegated, rules.premiseSupports[rule],
+                rules.consequenceSupports[rule], frequentItemSets.getSupport(rules.itemSetIndexes[rule]),
+                numberOfTransactions);
+    }
+
+    /**
+     * Appends items of set bits of the mask if inPremise, items of unset bits otherwise
+     */
+    private void appendItems(StringBuilder builder, int[] items, long mask, boolean inPremise) {
+        boolean first = true;
+
+        builder.append('[');
+
+        for (int k = 0; k < items.length; k++) {
+            if (((mask & (1L << k)) != 0) != inPremise) {
+                continue;
+            }
+            if (!first) {
+                builder.append(", ");
+            }
+            builder.append(itemNames.get(items[k])).append("=y");
+            first = false;
+        }
+
+        builder.append(']');
+    }
+
+    /**
+     * @return number of threads building rules
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism number of threads building rules, 1 for sequential generation
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Builds rules of a range of itemsets, splitting ranges of at least MINIMUM_ITEMSETS_TO_SPLIT
+     * itemsets in halves, and returns rules of the halves in order of itemsets
+     */
+    private class RuleTask extends RecursiveTask<RuleList> {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final int minimumSupportCount;
+        private final double minimumConfidence;
+        private final double minimumLift;
+        private final double minimumLeverage;
+
+        RuleTask(int from, int to, int minimumSupportCount, double minimumConfidence, double minimumLift,
+                double minimumLeverage) {
+            this.from = from;
+            this.to = to;
+            this.minimumSupportCount = minimumSupportCount;
+            this.minimumConfidence = minimumConfidence;
+            this.minimumLift = minimumLift;
+            this.minimumLeverage = minimumLeverage;
+        }
+
+        @Override
+        protected RuleList compute() {
+            RuleList rulesToReturn;
+            RuleTask second;
+            int middle;
+
+            if (to - from < MINIMUM_ITEMSETS_TO_SPLIT) {
+                rulesToReturn = new RuleList();
+                buildRules(from, to, minimumSupportCount, minimumConfidence, minimumLift, minimumLeverage,
+                        rulesToReturn);
+
+                return rulesToReturn;
+            }
+
+            middle = (from + to) >>> 1;
+            second = new RuleTask(middle, to, minimumSupportCount, minimumConfidence, minimumLift, minimumLeverage);
+            second.fork();
+
+            rulesToReturn = new RuleTask(from, middle, minimumSupportCount, minimumConfidence, minimumLift,
+                    minimumLeverage).compute();
+            rulesToReturn.addAll(second.join());
+
+            return rulesToReturn;
+        }
+
+    }
+
+    /**
+     * Association rules as parallel arrays of index of their itemset, bit mask of premise items
+     * within the itemset, supports and confidence
+     */
+    private static final class RuleList {
+
+        private int[] itemSetIndexes = new int[16];
+        private long[] premiseMasks = new long[16];
+        private int[] premiseSupports = new int[16];
+        private int[] consequenceSupports = new int[16];
+        private double[] confidences = new double[16];
+        private int size = 0;
+
+        private void add(int itemSetIndex, long premiseMask, int premiseSupport, int consequenceSupport,
+                double confidence) {
+            ensureCapacity(size + 1);
+
+            itemSetIndexes[size] = itemSetIndex;
+            premiseMasks[size] = premiseMask;
+            premiseSupports[size] = premiseSupport;
+            consequenceSupports[size] = consequenceSupport;
+            confidences[size] = confidence;
+            ++size;
+        }
+
+        private void addAll(RuleList other) {
+            ensureCapacity(size + other.size);
+
+            System.arraycopy(other.itemSetIndexes, 0, itemSetIndexes, size, other.size);
+            System.arraycopy(other.premiseMasks, 0, premiseMasks, size, other.size);
+            System.arraycopy(other.premiseSupports, 0, premiseSupports, size, other.size);
+            System.arraycopy(other.consequenceSupports, 0, consequenceSupports, size, other.size);
+            System.arraycopy(other.confidences, 0, confidences, size, other.size);
+            size += other.size;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= itemSetIndexes.length) {
+                return;
+            }
+
+            capacity = Math.max(capacity, itemSetIndexes.length * 2);
+            itemSetIndexes = Arrays.copyOf(itemSetIndexes, capacity);
+            premiseMasks = Arrays.copyOf(premiseMasks, capacity);
+            premiseSupports = Arrays.copyOf(premiseSupports, capacity);
+            consequenceSupports = Arrays.copyOf(consequenceSupports, capacity);
+            confidences = Arrays.copyOf(confidences, capacity);
+        }
+
+    }
+
+}
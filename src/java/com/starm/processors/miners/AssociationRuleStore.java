@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import weka.core.Utils;
+
+/**
+ * Binary store of association rules, kept next to the association rules text file, so that
+ * rules are listed and their items looked up without parsing rule text. <br /><br />
+ *
+ * The store file holds a header (magic, version, number of transactions, number of rules,
+ * offsets of index and item names), the rules, an index of offsets of rules and the item
+ * names by item id. Each rule holds its premise, consequence and total support counts, its 
+ * conf, lift, lev and conv as floats, the item ids of its premise and consequence and a 
+ * negation flag per item. The file is memory mapped, and each rule is read at its offset
+ * in the index, so opening the store does not read the rules. <br /><br />
+ *
+ * The rules text file stays the export of the rules, for download and upload. A rules file 
+ * without a store, such as an uploaded one, is imported into a store once, on opening.
+ *
+ * @see com.starm.processors.miners.AssociationRuleStoreWriter
+ *
+ * @author Wasif Altaf
+ */
+public class AssociationRuleStore {
+
+    static final int MAGIC = 0x53415253;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RULE_HEADER_SIZE = 36;
+    static final String NEGATION_SYMBOL = "~";
+
+    private final MappedByteBuffer buffer;
+    private final int numberOfTransactions;
+    private final int numberOfRules;
+    private final int indexOffset;
+    private final List<String> itemNames;
+
+    private AssociationRuleStore(MappedByteBuffer buffer) throws IOException {
+        int itemNamesOffset;
+        int numberOfItems;
+        byte[] name;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an association rule store.");
+        }
+
+        this.buffer = buffer;
+        numberOfTransactions = buffer.getInt(8);
+        numberOfRules = buffer.getInt(12);
+        indexOffset = (int) buffer.getLong(16);
+        itemNamesOffset = (int) buffer.getLong(24);
+
+        buffer.position(itemNamesOffset);
+        numberOfItems = buffer.getInt();
+        itemNames = new ArrayList<>(numberOfItems);
+        for (int j = 0; j < numberOfItems; j++) {
+            name = new byte[buffer.getInt()];
+            buffer.get(name);
+            itemNames.add(new String(name, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @param rulesFilePath path of association rules text file
+     * @return path of store file of the rules file
+     */
+    public static Path getPath(Path rulesFilePath) {
+        return rulesFilePath.resolveSibling(rulesFilePath.getFileName() + ".bin");
+    }
+
+    /**
+     * Opens the store
+     *
+     * @param pathOfStoreFile path of store file
+     * @return the store
+     * @throws IOException if the store could not be read, or is not a store file
+     */
+    public static AssociationRuleStore open(Path pathOfStoreFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOfStoreFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Association rule store is too large to map: " + pathOfStoreFile);
+            }
+
+            // mapping stays valid after the channel is closed
+            return new AssociationRuleStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Opens the store of the rules file, importing the rules file into the store first
+     * if it has no store, or has been replaced after the store was written
+     *
+     * @param rulesFilePath path of association rules text file
+     * @return the store
+     * @throws IOException if neither the store nor the rules file could be read
+     */
+    public static AssociationRuleStore openForRulesFile(Path rulesFilePath) throws IOException {
+        Path pathOfStoreFile = getPath(rulesFilePath);
+
+        if (!Files.exists(pathOfStoreFile) || (Files.exists(rulesFilePath)
+                && Files.getLastModifiedTime(pathOfStoreFile).compareTo(Files.getLastModifiedTime(rulesFilePath)) < 0)) {
+            importRules(rulesFilePath, pathOfStoreFile);
+        }
+
+        return open(pathOfStoreFile);
+    }
+
+    /**
+     * Imports rules of an association rules text file, of Weka FPGrowth rules such as
+     * [a=y, ~b=y]: 5 ==> [c=y]: 4   &lt;conf:(0.8)&gt; lift:(1.2) lev:(0.01) conv:(1.5),
+     * into a store, skipping lines which are not rules
+     *
+     * @param rulesFilePath path of association rules text file
+     * @param pathOfStoreFile path of store file
+     * @return number of rules imported
+     * @throws IOException if the rules file could not be read, or the store could not be written
+     */
+    public static int importRules(Path rulesFilePath, Path pathOfStoreFile) throws IOException {
+        String line;
+        int premiseEnd;
+        int arrow;
+        int consequenceStart;
+        int consequenceEnd;
+        int totalSupportEnd;
+        String[] premise;
+        String[] consequence;
+
+        try (BufferedReader reader = Files.newBufferedReader(rulesFilePath, Charset.defaultCharset());
+                AssociationRuleStoreWriter writer = new AssociationRuleStoreWriter(pathOfStoreFile, 0)) {
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                premiseEnd = line.indexOf("]: ");
+                arrow = line.indexOf(" ==> ", premiseEnd + 1);
+                consequenceStart = line.indexOf('[', arrow + 1);
+                consequenceEnd = line.indexOf("]: ", consequenceStart + 1);
+
+                if (!line.startsWith("[") || premiseEnd < 0 || arrow < 0 || consequenceStart < 0 || consequenceEnd < 0) {
+                    continue;
+                }
+
+                totalSupportEnd = consequenceEnd + 3;
+                while (totalSupportEnd < line.length() && Character.isDigit(line.charAt(totalSupportEnd))) {
+                    ++totalSupportEnd;
+                }
+
+                premise = line.substring(1, premiseEnd).split(", ");
+                consequence = line.substring(consequenceStart + 1, consequenceEnd).split(", ");
+
+                try {
+                    writer.write(toItemIds(writer, premise), toNegations(premise),
+                            toItemIds(writer, consequence), toNegations(consequence),
+                            Integer.parseInt(line.substring(premiseEnd + 3, arrow).trim()), -1,
+                            Integer.parseInt(line.substring(consequenceEnd + 3, totalSupportEnd)),
+                            parseMetric(line, "conf:("), parseMetric(line, "lift:("),
+                            parseMetric(line, "lev:("), parseMetric(line, "conv:("));
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping malformed association rule: " + line);
+                }
+            }
+
+            return writer.getNumberOfRules();
+        }
+    }
+
+    private static int[] toItemIds(AssociationRuleStoreWriter writer, String[] items) {
+        int[] itemIds = new int[items.length];
+
+        for (int k = 0; k < items.length; k++) {
+            itemIds[k] = writer.getItemId(items[k].contains("=") ? items[k].substring(0, items[k].indexOf('=')) : items[k]);
+        }
+
+        return itemIds;
+    }
+
+    private static boolean[] toNegations(String[] items) {
+        boolean[] negations = new boolean[items.length];
+
+        for (int k = 0; k < items.length; k++) {
+            negations[k] = isNegated(items[k]);
+        }
+
+        return negations;
+    }
+
+    private static float parseMetric(String line, String metricPrefix) {
+        int start = line.indexOf(metricPrefix);
+
+        if (start < 0) {
+            return Float.NaN;
+        }
+        start += metricPrefix.length();
+
+        return Float.parseFloat(line.substring(start, line.indexOf(')', start)));
+    }
+
+    /**
+     * @param itemName name of item
+     * @return true if the item starts with the negation symbol
+     */
+    public static boolean isNegated(String itemName) {
+        return itemName.startsWith(NEGATION_SYMBOL);
+    }
+
+    private int offsetOf(int rule) {
+        return (int) buffer.getLong(indexOffset + 8 * rule);
+    }
+
+    public int getPremiseSupport(int rule) {
+        return buffer.getInt(offsetOf(rule));
+    }
+
+    /**
+     * @param rule index of rule
+     * @return number of transactions containing the consequence, -1 if not known, as for imported rules
+     */
+    public int getConsequenceSupport(int rule) {
+        return buffer.getInt(offsetOf(rule) + 4);
+    }
+
+    public int getTotalSupport(int rule) {
+        return buffer.getInt(offsetOf(rule) + 8);
+    }
+
+    public float getConfidence(int rule) {
+        return buffer.getFloat(offsetOf(rule) + 12);
+    }
+
+    public float getLift(int rule) {
+        return buffer.getFloat(offsetOf(rule) + 16);
+    }
+
+    public float getLeverage(int rule) {
+        return buffer.getFloat(offsetOf(rule) + 20);
+    }
+
+    public float getConviction(int rule) {
+        return buffer.getFloat(offsetOf(rule) + 24);
+    }
+
+    /**
+     * @param rule index of rule
+     * @return item ids of premise of the rule
+     */
+    public int[] getPremise(int rule) {
+        return getItemIds(offsetOf(rule), 0, buffer.getInt(offsetOf(rule) + 28));
+    }
+
+    /**
+     * @param rule index of rule
+     * @return item ids of consequence of the rule
+     */
+    public int[] getConsequence(int rule) {
+        int offset = offsetOf(rule);
+
+        return getItemIds(offset, buffer.getInt(offset + 28), buffer.getInt(offset + 32));
+    }
+
+    private int[] getItemIds(int offset, int first, int length) {
+        int[] itemIds = new int[length];
+
+        for (int k = 0; k < length; k++) {
+            itemIds[k] = buffer.getInt(offset + RULE_HEADER_SIZE + 4 * (first + k));
+        }
+
+        return itemIds;
+    }
+
+    /**
+     * @param rule index of rule
+     * @param position position of item in premise followed by consequence
+     * @return true if the item is negated
+     */
+    public boolean isNegated(int rule, int position) {
+        int offset = offsetOf(rule);
+        int numberOfItems = buffer.getInt(offset + 28) + buffer.getInt(offset + 32);
+
+        return buffer.get(offset + RULE_HEADER_SIZE + 4 * numberOfItems + position) != 0;
+    }
+
+    /**
+     * Names of items of premise and consequence of the rule which are not negated, 
+     * that is items which transactions supporting the rule contain
+     *
+     * @param rule index of rule
+     * @return names of items
+     */
+    public String[] getPresentItems(int rule) {
+        return getItemNames(rule, false);
+    }
+
+    /**
+     * Names of items of premise and consequence of the rule which are negated, without
+     * the negation symbol, that is items which transactions supporting the rule do not contain
+     *
+     * @param rule index of rule
+     * @return names of items
+     */
+    public String[] getAbsentItems(int rule) {
+        return getItemNames(rule, true);
+    }
+
+    private String[] getItemNames(int rule, boolean negated) {
+        int offset = offsetOf(rule);
+        int numberOfItems = buffer.getInt(offset + 28) + buffer.getInt(offset + 32);
+        int negationsOffset = offset + RULE_HEADER_SIZE + 4 * numberOfItems;
+        List<String> namesToReturn = new ArrayList<>(numberOfItems);
+
+        for (int k = 0; k < numberOfItems; k++) {
+            if ((buffer.get(negationsOffset + k) != 0) == negated) {
+                namesToReturn.add(itemNames.get(buffer.getInt(offset + RULE_HEADER_SIZE + 4 * k)));
+            }
+        }
+
+        return namesToReturn.toArray(new String[0]);
+    }
+
+    /**
+     * Formats the rule as in the association rules text file, metrics of imported rules 
+     * being formatted from their stored floats
+     *
+     * @param rule index of rule
+     * @return the rule text
+     */
+    public String format(int rule) {
+        StringBuilder ruleText = new StringBuilder(128);
+        int offset = offsetOf(rule);
+        int premiseLength = buffer.getInt(offset + 28);
+        int consequenceLength = buffer.getInt(offset + 32);
+
+        appendItems(ruleText, offset, 0, premiseLength, premiseLength + consequenceLength);
+        ruleText.append(": ").append(getPremiseSupport(rule)).append(" ==> ");
+        appendItems(ruleText, offset, premiseLength, consequenceLength, premiseLength + consequenceLength);
+        ruleText.append(": ").append(getTotalSupport(rule)).append("   ");
+
+        if (getConsequenceSupport(rule) >= 0) {
+            AssociationRuleFormatter.appendMetrics(ruleText, getPremiseSupport(rule), getConsequenceSupport(rule),
+                    getTotalSupport(rule), numberOfTransactions);
+        } else {
+            ruleText.append("conf:(").append(formatMetric(getConfidence(rule))).append(") ");
+            ruleText.append("lift:(").append(formatMetric(getLift(rule))).append(") ");
+            ruleText.append("lev:(").append(formatMetric(getLeverage(rule))).append(") ");
+            ruleText.append("conv:(").append(formatMetric(getConviction(rule))).append(") ");
+        }
+
+        return ruleText.toString();
+    }
+
+    /**
+     * Formats the metric from the shortest decimal of the float, so that 1776.6 is not shown as 1776.599976
+     */
+    private static String formatMetric(float metric) {
+        return Utils.doubleToString(Double.parseDouble(Float.toString(metric)), 6);
+    }
+
+    private void appendItems(StringBuilder builder, int offset, int first, int length, int numberOfItems) {
+        builder.append('[');
+
+        for (int k = first; k < first + length; k++) {
+            if (k > first) {
+                builder.append(", ");
+            }
+            if (buffer.get(offset + RULE_HEADER_SIZE + 4 * numberOfItems + k) != 0) {
+                builder.append(NEGATION_SYMBOL);
+            }
+            builder.append(itemNames.get(buffer.getInt(offset + RULE_HEADER_SIZE + 4 * k))).append("=y");
+        }
+
+        builder.append(']');
+    }
+
+    /**
+     * @return number of rules
+     */
+    public int size() {
+        return numberOfRules;
+    }
+
+    /**
+     * @return number of transactions the rules were mined from, 0 for imported rules
+     */
+    public int getNumberOfTransactions() {
+        return numberOfTransactions;
+    }
+
+    /**
+     * @return names of items, by item id, without negation symbol
+     */
+    public List<String> getItemNames() {
+        return itemNames;
+    }
+
+}
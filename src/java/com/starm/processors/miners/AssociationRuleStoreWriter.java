@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes association rules to an association rule store, one rule at a time, in the order
+ * they are to be listed. <br /><br />
+ *
+ * Items are interned to item ids as rules are written, names of negated items, such as 
+ * ~term, being interned without the negation symbol. Offsets of rules, for the index of the
+ * store, are the only thing held per rule in memory.
+ *
+ * @see com.starm.processors.miners.AssociationRuleStore
+ *
+ * @author Wasif Altaf
+ */
+public class AssociationRuleStoreWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path pathOfStoreFile;
+    private final DataOutputStream outputStream;
+    private final Map<String, Integer> idOfItem = new HashMap<>();
+    private final List<String> itemNames = new ArrayList<>();
+    private long[] offsetOfRule = new long[1024];
+    private int numberOfRules = 0;
+    private long position;
+
+    /**
+     * Creates the store file, replacing an existing file
+     *
+     * @param pathOfStoreFile path of store file
+     * @param numberOfTransactions number of transactions the rules were mined from, 0 if not known
+     * @throws IOException if the store file could not be created
+     */
+    public AssociationRuleStoreWriter(Path pathOfStoreFile, int numberOfTransactions) throws IOException {
+        this.pathOfStoreFile = pathOfStoreFile;
+
+        Files.deleteIfExists(pathOfStoreFile);
+
+        outputStream = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(pathOfStoreFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE), BUFFER_SIZE));
+
+        // number of rules and offsets of index and item names are filled in on close
+        outputStream.writeInt(AssociationRuleStore.MAGIC);
+        outputStream.writeInt(AssociationRuleStore.VERSION);
+        outputStream.writeInt(numberOfTransactions);
+        outputStream.writeInt(0);
+        outputStream.writeLong(0);
+        outputStream.writeLong(0);
+        position = AssociationRuleStore.HEADER_SIZE;
+    }
+
+    /**
+     * Looks up item id of the item, interning it if it has not been written before
+     *
+     * @param itemName name of the item, with negation symbol if negated
+     * @return item id of the item, same for the item and its negation
+     */
+    public int getItemId(String itemName) {
+        String name = AssociationRuleStore.isNegated(itemName)
+                ? itemName.substring(AssociationRuleStore.NEGATION_SYMBOL.length()) : itemName;
+        Integer itemId = idOfItem.get(name);
+
+        if (itemId == null) {
+            itemId = itemNames.size();
+            idOfItem.put(name, itemId);
+            itemNames.add(name);
+        }
+
+        return itemId;
+    }
+
+    /**
+     * Writes the rule, with metrics computed from its supports
+     *
+     * @param premise item ids of premise
+     * @param premiseNegated whether each premise item is negated
+     * @param consequence item ids of consequence
+     * @param consequenceNegated whether each consequence item is negated
+     * @param premiseSupport number of transactions containing the premise
+     * @param consequenceSupport number of transactions containing the consequence
+     * @param totalSupport number of transactions containing both premise and consequence
+     * @param numberOfTransactions number of transactions
+     * @throws IOException if the rule could not be written
+     */
+    public void write(int[] premise, boolean[] premiseNegated, int[] consequence, boolean[] consequenceNegated,
+            int premiseSupport, int consequenceSupport, int totalSupport, int numberOfTransactions) throws IOException {
+        write(premise, premiseNegated, consequence, consequenceNegated, premiseSupport, consequenceSupport, totalSupport,
+                (float) AssociationRuleFormatter.confidence(premiseSupport, totalSupport),
+                (float) AssociationRuleFormatter.lift(premiseSupport, consequenceSupport, totalSupport, numberOfTransactions),
+                (float) AssociationRuleFormatter.leverage(premiseSupport, consequenceSupport, totalSupport,
+                        numberOfTransactions),
+                (float) AssociationRuleFormatter.conviction(premiseSupport, consequenceSupport, totalSupport,
+                        numberOfTransactions));
+    }
+
+    /**
+     * Writes the rule
+     *
+     * @param premise item ids of premise
+     * @param premiseNegated whether each premise item is negated
+     * @param consequence item ids of consequence
+     * @param consequenceNegated whether each consequence item is negated
+     * @param premiseSupport number of transactions containing the premise
+     * @param consequenceSupport number of transactions containing the consequence, -1 if not known
+     * @param totalSupport number of transactions containing both premise and consequence
+     * @param confidence confidence of the rule
+     * @param lift lift of the rule
+     * @param leverage leverage of the rule
+     * @param conviction conviction of the rule
+     * @throws IOException if the rule could not be written
+     */
+    public void write(int[] premise, boolean[] premiseNegated, int[] consequence, boolean[] consequenceNegated,
+            int premiseSupport, int consequenceSupport, int totalSupport, float confidence, float lift, float leverage,
+            float conviction) throws IOException {
+        if (numberOfRules == offsetOfRule.length) {
+            offsetOfRule = Arrays.copyOf(offsetOfRule, offsetOfRule.length * 2);
+        }
+        offsetOfRule[numberOfRules++] = position;
+
+        outputStream.writeInt(premiseSupport);
+        outputStream.writeInt(consequenceSupport);
+        outputStream.writeInt(totalSupport);
+        outputStream.writeFloat(confidence);
+        outputStream.writeFloat(lift);
+        outputStream.writeFloat(leverage);
+        outputStream.writeFloat(conviction);
+        outputStream.writeInt(premise.length);
+        outputStream.writeInt(consequence.length);
+
+        for (int item : premise) {
+            outputStream.writeInt(item);
+        }
+        for (int item : consequence) {
+            outputStream.writeInt(item);
+        }
+        for (boolean negated : premiseNegated) {
+            outputStream.writeBoolean(negated);
+        }
+        for (boolean negated : consequenceNegated) {
+            outputStream.writeBoolean(negated);
+        }
+
+        position += AssociationRuleStore.RULE_HEADER_SIZE + 5L * (premise.length + consequence.length);
+    }
+
+    /**
+     * Writes the index of rules and the item names, and completes the header
+     *
+     * @throws IOException if the store could not be completed
+     */
+    @Override
+    public void close() throws IOException {
+        long indexOffset = position;
+        long itemNamesOffset;
+        byte[] name;
+
+        try {
+            for (int i = 0; i < numberOfRules; i++) {
+                outputStream.writeLong(offsetOfRule[i]);
+            }
+            itemNamesOffset = indexOffset + 8L * numberOfRules;
+
+            outputStream.writeInt(itemNames.size());
+            for (String itemName : itemNames) {
+                name = itemName.getBytes(StandardCharsets.UTF_8);
+                outputStream.writeInt(name.length);
+                outputStream.write(name);
+            }
+        } finally {
+            outputStream.close();
+        }
+
+        try (RandomAccessFile storeFile = new RandomAccessFile(pathOfStoreFile.toFile(), "rw")) {
+            storeFile.seek(12);
+            storeFile.writeInt(numberOfRules);
+            storeFile.writeLong(indexOffset);
+            storeFile.writeLong(itemNamesOffset);
+        }
+    }
+
+    /**
+     * @return number of rules written
+     */
+    public int getNumberOfRules() {
+        return numberOfRules;
+    }
+
+}
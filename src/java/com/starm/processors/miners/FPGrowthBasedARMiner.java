@@ -16,7 +16,10 @@
  */
 package com.starm.processors.miners;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,6 +27,7 @@ import java.nio.file.StandardOpenOption;
 import java.util.List;
 import weka.associations.FPGrowth;
 import weka.associations.FPGrowth.AssociationRule;
+import weka.associations.FPGrowth.BinaryItem;
 import weka.core.Instances;
 import weka.core.SelectedTag;
 import weka.core.converters.ConverterUtils.DataSource;
@@ -31,9 +35,18 @@ import weka.core.converters.ConverterUtils.DataSource;
 /**
  * Provides convenient interface for FPGrowth implemented in Weka 
  * 
+ * <br />
+ * <br />
+ * 
+ * When instantiated with minimum support and minimum confidence values, FPGrowth is set to 
+ * find all rules for the support level, so it mines once at the lower bound support, i.e. the 
+ * minimum support, and keeps all rules meeting the minimum confidence. <br /><br />
+ * 
+ * Rules are saved to the association rules file, and to its association rule store.
+ * 
  * @author Wasif Altaf
  */
-public class FPGrowthBasedARMiner {
+public class FPGrowthBasedARMiner implements ARMiner {
 
     private FPGrowth arMiner;
     private Instances dataset = null;
@@ -96,6 +109,22 @@ public class FPGrowthBasedARMiner {
         this.outputRulesFileNameAndExtension = outputRulesFileNameAndExtension;
     }
 
+    /**
+     * For instantiating FPGrowthBasedARMiner, to mine dataset held in memory, 
+     * using minimum support and minimum confidence values
+     * 
+     * @see #mine(weka.core.Instances)
+     * 
+     * @param minimumSupport minimum support value
+     * @param minimumConfidence minimum confidence value
+     * @param outputRulesFilePath folder path for output association rules file
+     * @param outputRulesFileNameAndExtension output association rules file name and extension 
+     */
+    public FPGrowthBasedARMiner(float minimumSupport, float minimumConfidence, String outputRulesFilePath,
+            String outputRulesFileNameAndExtension) {
+        this(minimumSupport, minimumConfidence, null, null, outputRulesFilePath, outputRulesFileNameAndExtension);
+    }
+
     /**
      * Carries out the actual mining process using FPGrowth algorithm
      * 
@@ -112,11 +141,8 @@ public class FPGrowthBasedARMiner {
      * 
      * @return true if mining was successful and association rules were written to disk successfully, false otherwise
      */
+    @Override
     public boolean mine() {
-        boolean processSuccess = false;
-        Path outputFilePath;
-        String rules = "";
-
         try {
             // validate parameters
             if (arMiner == null || datasetFilePath == null || datasetFileNameAndExtenstion == null) {
@@ -131,13 +157,53 @@ public class FPGrowthBasedARMiner {
             } else {
                 dataset = DataSource.read(datasetFilePath + File.separator + datasetFileNameAndExtenstion);
             }
+        } catch (Exception e) {
+            System.err.println("Exception in mine() : " + e.getMessage());
             
+            e.printStackTrace();
+
+            return false;
+        }
+
+        return mine(dataset);
+    }
+
+    /**
+     * Carries out the mining process using FPGrowth algorithm on dataset held in memory, 
+     * such as Instances built directly from term-by-document matrix, without loading 
+     * dataset from file. Dataset file path and name are not used.
+     * 
+     * <br />
+     * <br />
+     * 
+     * <ul>
+     * <li>Constructs FP Tree</li>
+     * <li>Finds frequent itemsets</li>
+     * <li>Builds association rules from itemsets</li>
+     * <li>Saves the association rules</li>
+     * </ul>
+     * 
+     * @param datasetToMine dataset to mine
+     * @return true if mining was successful and association rules were written to disk successfully, false otherwise
+     */
+    public boolean mine(Instances datasetToMine) {
+        boolean processSuccess = false;
+        Path outputFilePath;
+        AssociationRuleFormatter ruleFormatter = new AssociationRuleFormatter();
+
+        try {
+            // validate parameters
+            if (arMiner == null) {
+                return false;
+            }
+
             // test if any data was loaded
-            if (dataset == null) {
+            if (datasetToMine == null) {
                 System.err.println("Could not load dataset for mining.");
                 
                 throw new NullPointerException("Could not load dataset, it is null.");
             }
+            dataset = datasetToMine;
             
             System.out.println("Starting building associations...");
 
@@ -151,14 +217,19 @@ public class FPGrowthBasedARMiner {
             outputFilePath = FileSystems.getDefault().getPath(outputRulesFilePath, outputRulesFileNameAndExtension);
             Files.deleteIfExists(outputFilePath);
 
-            for (AssociationRule associationRule : associationRules) {
-                rules += associationRule.toString().replace("<", "").replace(")>", ")") + "\n";  
-                
-            }
-
             System.out.println("Saving association rules...");
-            
-            Files.write(outputFilePath, rules.getBytes(), StandardOpenOption.CREATE);
+
+            // write each rule as it is formatted, rules file is never held in memory
+            // store is closed after the rules file, so that it is not taken for older than the rules file
+            try (AssociationRuleStoreWriter storeWriter = new AssociationRuleStoreWriter(
+                    AssociationRuleStore.getPath(outputFilePath), dataset.numInstances());
+                    BufferedWriter writer = Files.newBufferedWriter(outputFilePath, Charset.defaultCharset(),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                for (AssociationRule associationRule : associationRules) {
+                    ruleFormatter.write(writer, associationRule);
+                    storeRule(storeWriter, associationRule);
+                }
+            }
 
             System.out.println("Saved association rules...");
             
@@ -175,4 +246,30 @@ public class FPGrowthBasedARMiner {
         return processSuccess;
     }
 
+    /**
+     * Writes the rule to the association rule store, with item ids interned by the store
+     */
+    private void storeRule(AssociationRuleStoreWriter storeWriter, AssociationRule associationRule) throws IOException {
+        int[] premise = new int[associationRule.getPremise().size()];
+        boolean[] premiseNegated = new boolean[premise.length];
+        int[] consequence = new int[associationRule.getConsequence().size()];
+        boolean[] consequenceNegated = new boolean[consequence.length];
+        int k = 0;
+
+        for (BinaryItem item : associationRule.getPremise()) {
+            premise[k] = storeWriter.getItemId(item.getAttribute().name());
+            premiseNegated[k++] = AssociationRuleStore.isNegated(item.getAttribute().name());
+        }
+
+        k = 0;
+        for (BinaryItem item : associationRule.getConsequence()) {
+            consequence[k] = storeWriter.getItemId(item.getAttribute().name());
+            consequenceNegated[k++] = AssociationRuleStore.isNegated(item.getAttribute().name());
+        }
+
+        storeWriter.write(premise, premiseNegated, consequence, consequenceNegated, associationRule.getPremiseSupport(),
+                associationRule.getConsequenceSupport(), associationRule.getTotalSupport(),
+                associationRule.getTotalTransactions());
+    }
+
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.util.Arrays;
+
+/**
+ * Array backed FP-tree of int-encoded transactions. <br /><br />
+ *
+ * Nodes are held in parallel int arrays of item, count, parent and node-link,
+ * with first child and next sibling arrays for looking up children on insertion,
+ * instead of an object per node. Node 0 is the root. Item ids are frequency ranks,
+ * 0 being the most frequent item, so that a transaction sorted by item id is in
+ * the order FP-Growth inserts it, and the items of a conditional tree are always
+ * the ids below the item it is conditioned on.
+ *
+ * @author Wasif Altaf
+ */
+public class FPTree {
+
+    private static final int ROOT = 0;
+    private static final int NO_NODE = -1;
+
+    private int[] item;
+    private int[] count;
+    private int[] parent;
+    private int[] nodeLink;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int numberOfNodes = 1;
+
+    // header table, per item id
+    private final int[] headOfItem;
+    private final int[] supportOfItem;
+    private final int numberOfItems;
+
+    /**
+     * Creates empty tree
+     *
+     * @param numberOfItems number of item ids, items are 0 to numberOfItems - 1
+     * @param expectedNumberOfNodes number of nodes expected, for initial capacity
+     */
+    public FPTree(int numberOfItems, int expectedNumberOfNodes) {
+        int capacity = Math.max(expectedNumberOfNodes + 1, 16);
+
+        item = new int[capacity];
+        count = new int[capacity];
+        parent = new int[capacity];
+        nodeLink = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+
+        item[ROOT] = NO_NODE;
+        parent[ROOT] = NO_NODE;
+        firstChild[ROOT] = NO_NODE;
+        nextSibling[ROOT] = NO_NODE;
+
+        this.numberOfItems = numberOfItems;
+        headOfItem = new int[numberOfItems];
+        supportOfItem = new int[numberOfItems];
+        Arrays.fill(headOfItem, NO_NODE);
+    }
+
+    /**
+     * Inserts the items as a path from the root, sharing the prefix already in the tree
+     *
+     * @param items item ids, sorted ascending
+     * @param length number of items to insert from start of the array
+     * @param countOfPath number of transactions the path stands for
+     */
+    public void insert(int[] items, int length, int countOfPath) {
+        int node = ROOT;
+        int child;
+
+        for (int i = 0; i < length; i++) {
+            // look for child holding the item
+            child = firstChild[node];
+            while (child != NO_NODE && item[child] != items[i]) {
+                child = nextSibling[child];
+            }
+
+            if (child == NO_NODE) {
+                child = addNode(items[i], node);
+            }
+
+            count[child] += countOfPath;
+            supportOfItem[items[i]] += countOfPath;
+            node = child;
+        }
+    }
+
+    /**
+     * Adds a node with zero count as first child of the parent, and at head of the node-links of the item
+     */
+    private int addNode(int itemOfNode, int parentOfNode) {
+        int node;
+
+        if (numberOfNodes == item.length) {
+            int capacity = item.length * 2;
+
+            item = Arrays.copyOf(item, capacity);
+            count = Arrays.copyOf(count, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            nodeLink = Arrays.copyOf(nodeLink, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+        }
+
+        node = numberOfNodes++;
+        item[node] = itemOfNode;
+        count[node] = 0;
+        parent[node] = parentOfNode;
+        firstChild[node] = NO_NODE;
+        nextSibling[node] = firstChild[parentOfNode];
+        firstChild[parentOfNode] = node;
+        nodeLink[node] = headOfItem[itemOfNode];
+        headOfItem[itemOfNode] = node;
+
+        return node;
+    }
+
+    /**
+     * Builds the conditional tree of the item, from its prefix paths, keeping items which
+     * are frequent within the prefix paths only
+     *
+     * @param conditionItem item to condition the tree on
+     * @param minimumSupportCount minimum number of transactions of a frequent item
+     * @return the conditional tree, null if no item is frequent within the prefix paths
+     */
+    public FPTree buildConditionalTree(int conditionItem, int minimumSupportCount) {
+        int[] supportInPrefixPaths = new int[conditionItem];
+        int[] path = new int[conditionItem];
+        int numberOfNodesOfPaths = 0;
+        boolean anyItemFrequent = false;
+        FPTree conditionalTree;
+        int length;
+
+        // count items of prefix paths
+        for (int node = headOfItem[conditionItem]; node != NO_NODE; node = nodeLink[node]) {
+            for (int p = parent[node]; p != ROOT; p = parent[p]) {
+                supportInPrefixPaths[item[p]] += count[node];
+                ++numberOfNodesOfPaths;
+            }
+        }
+
+        for (int i = 0; i < conditionItem && !anyItemFrequent; i++) {
+            anyItemFrequent = supportInPrefixPaths[i] >= minimumSupportCount;
+        }
+
+        if (!anyItemFrequent) {
+            return null;
+        }
+
+        conditionalTree = new FPTree(conditionItem, Math.min(numberOfNodesOfPaths, numberOfNodes));
+
+        // insert prefix paths, root first, without infrequent items
+        for (int node = headOfItem[conditionItem]; node != NO_NODE; node = nodeLink[node]) {
+            length = 0;
+            for (int p = parent[node]; p != ROOT; p = parent[p]) {
+                if (supportInPrefixPaths[item[p]] >= minimumSupportCount) {
+                    path[length++] = item[p];
+                }
+            }
+
+            reverse(path, length);
+            conditionalTree.insert(path, length, count[node]);
+        }
+
+        return conditionalTree;
+    }
+
+    private static void reverse(int[] array, int length) {
+        int temp;
+
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    /**
+     * @param itemToLookUp item id
+     * @return number of transactions in the tree containing the item
+     */
+    public int getSupport(int itemToLookUp) {
+        return supportOfItem[itemToLookUp];
+    }
+
+    /**
+     * @return number of item ids of the tree
+     */
+    public int getNumberOfItems() {
+        return numberOfItems;
+    }
+
+    /**
+     * @return number of nodes, excluding the root
+     */
+    public int getNumberOfNodes() {
+        return numberOfNodes - 1;
+    }
+
+}
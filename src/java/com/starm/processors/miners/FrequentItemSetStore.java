@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary store of the frequent itemsets of a mining job, with their support counts,
+ * so that rules for any higher support, or any confidence, lift or leverage threshold
+ * can be regenerated without re-mining. <br /><br />
+ *
+ * Each job has its own store file, named after the job key. The file holds a header
+ * (magic, version, job key, number of transactions, support count mined at, item names
+ * by item id) followed by the itemsets, each as variable length ints of its size, its
+ * first item id, the gaps between its sorted item ids and its support count.
+ *
+ * @see com.starm.processors.miners.AssociationRuleGenerator
+ *
+ * @author Wasif Altaf
+ */
+public class FrequentItemSetStore {
+
+    private static final int MAGIC = 0x53464953;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String jobKey;
+    private final int numberOfTransactions;
+    private final int minimumSupportCount;
+    private final List<String> itemNames;
+    private final FrequentItemSets frequentItemSets;
+
+    /**
+     * @param jobKey key of the mining job
+     * @param numberOfTransactions number of transactions the itemsets were mined from
+     * @param minimumSupportCount minimum number of transactions of itemsets, the itemsets were mined at
+     * @param itemNames names of items, by item id
+     * @param frequentItemSets frequent itemsets of item ids
+     */
+    public FrequentItemSetStore(String jobKey, int numberOfTransactions, int minimumSupportCount,
+            List<String> itemNames, FrequentItemSets frequentItemSets) {
+        this.jobKey = jobKey;
+        this.numberOfTransactions = numberOfTransactions;
+        this.minimumSupportCount = minimumSupportCount;
+        this.itemNames = itemNames;
+        this.frequentItemSets = frequentItemSets;
+    }
+
+    /**
+     * @param folderPath folder path of store files
+     * @param jobKey key of the mining job
+     * @return path of store file of the job
+     */
+    public static Path getPath(String folderPath, String jobKey) {
+        return FileSystems.getDefault().getPath(folderPath,
+                "itemsets_" + UUID.nameUUIDFromBytes(jobKey.getBytes(StandardCharsets.UTF_8)) + ".bin");
+    }
+
+    /**
+     * Saves the store, replacing an existing file
+     *
+     * @param pathOfStoreFile path of store file
+     * @throws IOException if the store could not be saved
+     */
+    public void save(Path pathOfStoreFile) throws IOException {
+        int[] items;
+
+        Files.deleteIfExists(pathOfStoreFile);
+
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(pathOfStoreFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE), BUFFER_SIZE))) {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeUTF(jobKey);
+            outputStream.writeInt(numberOfTransactions);
+            outputStream.writeInt(minimumSupportCount);
+
+            outputStream.writeInt(itemNames.size());
+            for (String itemName : itemNames) {
+                outputStream.writeUTF(itemName);
+            }
+
+            outputStream.writeInt(frequentItemSets.size());
+            for (int i = 0; i < frequentItemSets.size(); i++) {
+                items = frequentItemSets.getItems(i);
+
+                writeVarInt(outputStream, items.length);
+                for (int k = 0; k < items.length; k++) {
+                    writeVarInt(outputStream, k == 0 ? items[k] : items[k] - items[k - 1]);
+                }
+                writeVarInt(outputStream, frequentItemSets.getSupport(i));
+            }
+        }
+    }
+
+    /**
+     * Loads the store
+     *
+     * @param pathOfStoreFile path of store file
+     * @return the store
+     * @throws IOException if the store could not be read or is not a store file
+     */
+    public static FrequentItemSetStore load(Path pathOfStoreFile) throws IOException {
+        String jobKeyRead;
+        int numberOfTransactionsRead;
+        int minimumSupportCountRead;
+        List<String> itemNamesRead;
+        FrequentItemSets frequentItemSetsRead = new FrequentItemSets();
+        int numberOfItems;
+        int numberOfItemSets;
+        int[] items;
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(pathOfStoreFile), BUFFER_SIZE))) {
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION) {
+                throw new IOException("Not a frequent itemset store: " + pathOfStoreFile);
+            }
+
+            jobKeyRead = inputStream.readUTF();
+            numberOfTransactionsRead = inputStream.readInt();
+            minimumSupportCountRead = inputStream.readInt();
+
+            numberOfItems = inputStream.readInt();
+            itemNamesRead = new ArrayList<>(numberOfItems);
+            for (int j = 0; j < numberOfItems; j++) {
+                itemNamesRead.add(inputStream.readUTF());
+            }
+
+            numberOfItemSets = inputStream.readInt();
+            for (int i = 0; i < numberOfItemSets; i++) {
+                items = new int[readVarInt(inputStream)];
+
+                for (int k = 0; k < items.length; k++) {
+                    items[k] = k == 0 ? readVarInt(inputStream) : items[k - 1] + readVarInt(inputStream);
+                }
+                frequentItemSetsRead.add(items, readVarInt(inputStream));
+            }
+        }
+
+        return new FrequentItemSetStore(jobKeyRead, numberOfTransactionsRead, minimumSupportCountRead,
+                itemNamesRead, frequentItemSetsRead);
+    }
+
+    /**
+     * Generates rules from the stored itemsets and saves them, without re-mining
+     *
+     * @see com.starm.processors.miners.AssociationRuleGenerator#generate
+     *
+     * @param minimumSupport minimum support value, fraction of transactions, or number of transactions if greater than 1, 
+     * should not be lower than the support the itemsets were mined at
+     * @param minimumConfidence minimum confidence of rules
+     * @param minimumLift minimum lift of rules, 0 for no threshold
+     * @param minimumLeverage minimum leverage of rules, 0 for no threshold
+     * @param outputFilePath path of output association rules file
+     * @param parallelism number of threads building rules, 1 for sequential generation
+     * @return number of rules saved
+     * @throws IOException if the rules could not be saved
+     * @throws IllegalArgumentException if minimum support is lower than the support the itemsets were mined at
+     */
+    public int generateRules(float minimumSupport, float minimumConfidence, float minimumLift, float minimumLeverage,
+            Path outputFilePath, int parallelism) throws IOException {
+        int supportCount = NativeFPGrowthARMiner.toSupportCount(minimumSupport, numberOfTransactions);
+        AssociationRuleGenerator ruleGenerator;
+
+        if (supportCount < minimumSupportCount) {
+            throw new IllegalArgumentException("Itemsets were mined at support of " + minimumSupportCount
+                    + " transactions, rules can not be generated for " + supportCount + " transactions.");
+        }
+
+        ruleGenerator = new AssociationRuleGenerator(frequentItemSets, itemNames, numberOfTransactions);
+        ruleGenerator.setParallelism(parallelism);
+
+        return ruleGenerator.generate(supportCount, minimumConfidence, minimumLift, minimumLeverage, outputFilePath);
+    }
+
+    private static void writeVarInt(DataOutputStream outputStream, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            outputStream.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        outputStream.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream inputStream) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            b = inputStream.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    public String getJobKey() {
+        return jobKey;
+    }
+
+    public int getNumberOfTransactions() {
+        return numberOfTransactions;
+    }
+
+    public int getMinimumSupportCount() {
+        return minimumSupportCount;
+    }
+
+    public List<String> getItemNames() {
+        return itemNames;
+    }
+
+    public FrequentItemSets getFrequentItemSets() {
+        return frequentItemSets;
+    }
+
+}
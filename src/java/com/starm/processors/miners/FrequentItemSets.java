@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frequent itemsets found by FP-Growth, each a sorted array of item ids with
+ * its support count, with hash lookup of support by itemset for rule generation. <br /><br />
+ * 
+ * Itemsets are hashed on first lookup, or by index(), so that itemsets mined in parallel 
+ * can be appended together without hashing them at each merge. Once all itemsets are
+ * hashed, lookups only read the hash table, and may be made from several threads.
+ *
+ * @author Wasif Altaf
+ */
+public class FrequentItemSets {
+
+    private final List<int[]> itemSets = new ArrayList<>();
+    private final List<Integer> supports = new ArrayList<>();
+    private final Map<ItemSetKey, Integer> supportOfItemSet = new HashMap<>();
+    private int numberOfItemSetsHashed = 0;
+
+    /**
+     * Adds the itemset
+     *
+     * @param items item ids, sorted ascending, not to be modified afterwards
+     * @param support number of transactions containing the itemset
+     */
+    public void add(int[] items, int support) {
+        itemSets.add(items);
+        supports.add(support);
+    }
+
+    /**
+     * Appends all itemsets of the other itemsets, in their order
+     *
+     * @param other itemsets to append
+     */
+    public void addAll(FrequentItemSets other) {
+        itemSets.addAll(other.itemSets);
+        supports.addAll(other.supports);
+    }
+
+    /**
+     * Removes the itemsets of support below the minimum, keeping the others in order of addition
+     *
+     * @param minimumSupport minimum number of transactions of itemsets to keep
+     */
+    public void removeItemSetsBelowSupport(int minimumSupport) {
+        int numberOfItemSetsKept = 0;
+
+        index();
+
+        for (int i = 0; i < itemSets.size(); i++) {
+            if (supports.get(i) >= minimumSupport) {
+                itemSets.set(numberOfItemSetsKept, itemSets.get(i));
+                supports.set(numberOfItemSetsKept, supports.get(i));
+                ++numberOfItemSetsKept;
+            }
+        }
+
+        itemSets.subList(numberOfItemSetsKept, itemSets.size()).clear();
+        supports.subList(numberOfItemSetsKept, supports.size()).clear();
+        supportOfItemSet.values().removeIf(support -> support < minimumSupport);
+        numberOfItemSetsHashed = numberOfItemSetsKept;
+    }
+
+    /**
+     * Hashes the itemsets added since last lookup, after which lookups do not modify 
+     * the itemsets until more are added
+     */
+    public void index() {
+        for (; numberOfItemSetsHashed < itemSets.size(); numberOfItemSetsHashed++) {
+            int[] items = itemSets.get(numberOfItemSetsHashed);
+
+            supportOfItemSet.put(new ItemSetKey(items, items.length), supports.get(numberOfItemSetsHashed));
+        }
+    }
+
+    /**
+     * Looks up support of the itemset
+     *
+     * @param items item ids, sorted ascending
+     * @return number of transactions containing the itemset, 0 if it has not been added
+     */
+    public int getSupport(int[] items) {
+        return getSupport(items, items.length);
+    }
+
+    /**
+     * Looks up support of the itemset held at start of the array
+     *
+     * @param items item ids, sorted ascending
+     * @param length number of items of the itemset
+     * @return number of transactions containing the itemset, 0 if it has not been added
+     */
+    public int getSupport(int[] items, int length) {
+        Integer support;
+
+        index();
+
+        support = supportOfItemSet.get(new ItemSetKey(items, length));
+
+        return support == null ? 0 : support;
+    }
+
+    /**
+     * @return number of itemsets
+     */
+    public int size() {
+        return itemSets.size();
+    }
+
+    /**
+     * @param index index of itemset, in order of addition
+     * @return item ids of the itemset, sorted ascending
+     */
+    public int[] getItems(int index) {
+        return itemSets.get(index);
+    }
+
+    /**
+     * @param index index of itemset, in order of addition
+     * @return number of transactions containing the itemset
+     */
+    public int getSupport(int index) {
+        return supports.get(index);
+    }
+
+    /**
+     * Hash key of itemset by content, the items at start of an array
+     */
+    private static final class ItemSetKey {
+
+        private final int[] items;
+        private final int length;
+        private final int hash;
+
+        private ItemSetKey(int[] items, int length) {
+            int hashOfItems = 1;
+
+            for (int k = 0; k < length; k++) {
+                hashOfItems = 31 * hashOfItems + items[k];
+            }
+
+            this.items = items;
+            this.length = length;
+            this.hash = hashOfItems;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            ItemSetKey other;
+
+            if (!(obj instanceof ItemSetKey)) {
+                return false;
+            }
+
+            other = (ItemSetKey) obj;
+            if (length != other.length) {
+                return false;
+            }
+
+            for (int k = 0; k < length; k++) {
+                if (items[k] != other.items[k]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+/**
+ * Engines for mining association rules from term-by-document matrix
+ * 
+ * <ul>
+ * <li>NATIVE: in-project FP-Growth on int-encoded transactions, NativeFPGrowthARMiner</li>
+ * <li>WEKA: Weka FPGrowth on Instances, FPGrowthBasedARMiner, kept as reference engine</li>
+ * </ul>
+ * 
+ * @author Wasif Altaf
+ */
+public enum MiningEngine {
+    NATIVE, WEKA
+}
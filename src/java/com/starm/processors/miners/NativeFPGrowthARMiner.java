@@ -0,0 +1,634 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import com.starm.preprocessing.tdm.BitmapTDM;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import weka.core.Utils;
+
+/**
+ * In-project FP-Growth implementation, mining int-encoded transactions on an array backed
+ * FP-tree, without building Weka Instances. <br /><br />
+ *
+ * Items are renumbered by descending support, so that transactions are inserted into the
+ * FP-tree in frequency order. All frequent itemsets at minimum support are found, and all
+ * rules at minimum confidence are built from them by AssociationRuleGenerator. <br /><br />
+ *
+ * If frequent itemset store is set, itemsets are mined at the support of the store, if lower
+ * than minimum support, and saved to the store of the job, so that rules can be regenerated
+ * for other thresholds without re-mining. <br /><br />
+ *
+ * If parallelism is greater than 1, conditional trees of frequent items are mined as
+ * fork-join tasks, with work stealing, conditional trees smaller than MINIMUM_NODES_TO_FORK
+ * being mined within the task building them. Frequent itemsets of the tasks are merged in
+ * the order in which sequential mining finds them, and rules are built in the same number
+ * of threads, so the rules saved do not depend on parallelism. <br /><br />
+ *
+ * If bitmap TDM of the transactions is set, support of items is the cardinality of their 
+ * column bitmaps, instead of being counted over the transactions. <br /><br />
+ *
+ * If top-k is set, the k best rules by confidence or lift, meeting minimum confidence, and minimum 
+ * lift of top-k, are found by TopKRuleFinder instead, sequentially, minimum support being the 
+ * threshold the search starts at. Frequent itemsets are not saved to the store then.
+ *
+ * @see com.starm.processors.miners.TopKRuleFinder
+ * @see com.starm.processors.miners.FPTree
+ * @see com.starm.processors.miners.FPGrowthBasedARMiner
+ *
+ * @author Wasif Altaf
+ */
+public class NativeFPGrowthARMiner implements ARMiner {
+
+    // smallest conditional tree worth mining in a task of its own
+    private static final int MINIMUM_NODES_TO_FORK = 256;
+
+    private final float minimumSupport;
+    private final float minimumConfidence;
+    private final String datasetFilePath;
+    private final String datasetFileNameAndExtension;
+    private final String outputRulesFilePath;
+    private final String outputRulesFileNameAndExtension;
+
+    // number of threads mining frequent itemsets, 1 for sequential mining
+    private int parallelism = 1;
+
+    // frequent itemset store of the job, not saved if folder path is null
+    private String itemSetStoreFilePath = null;
+    private String jobKey = null;
+    private float itemSetStoreSupport = 0;
+
+    // bitmap TDM of the transactions, for support of items, null to count it from transactions
+    private BitmapTDM bitmapTDM = null;
+
+    // number of best rules to find, 0 to find all rules at minimum support
+    private int topK = 0;
+    private RuleMetric topKRuleMetric = RuleMetric.CONFIDENCE;
+    private float topKMinimumLift = 0;
+
+    // set by the last mining
+    private int numberOfTransactions = 0;
+    private int minimumSupportCount = 0;
+    private int miningSupportCount = 0;
+    private int topKSupportCount = 0;
+    private int numberOfFrequentItemSets = 0;
+    private int numberOfRules = 0;
+    private double averageParallelism = 1;
+
+    /**
+     * For instantiating NativeFPGrowthARMiner using minimum support and minimum confidence values
+     *
+     * @param minimumSupport minimum support value, fraction of transactions, or number of transactions if greater than 1
+     * @param minimumConfidence minimum confidence value
+     * @param datasetFilePath folder path for dataset file, sparse ARFF or CSV
+     * @param datasetFileNameAndExtension file name and extension of dataset file
+     * @param outputRulesFilePath folder path for output association rules file
+     * @param outputRulesFileNameAndExtension output association rules file name and extension
+     */
+    public NativeFPGrowthARMiner(float minimumSupport, float minimumConfidence, String datasetFilePath,
+            String datasetFileNameAndExtension, String outputRulesFilePath, String outputRulesFileNameAndExtension) {
+        this.minimumSupport = minimumSupport;
+        this.minimumConfidence = minimumConfidence;
+
+        this.datasetFilePath = datasetFilePath;
+        this.datasetFileNameAndExtension = datasetFileNameAndExtension;
+
+        this.outputRulesFilePath = outputRulesFilePath;
+        this.outputRulesFileNameAndExtension = outputRulesFileNameAndExtension;
+    }
+
+    /**
+     * For instantiating NativeFPGrowthARMiner, to mine transactions held in memory,
+     * using minimum support and minimum confidence values
+     *
+     * @see #mine(int[][], java.util.List)
+     *
+     * @param minimumSupport minimum support value, fraction of transactions, or number of transactions if greater than 1
+     * @param minimumConfidence minimum confidence value
+     * @param outputRulesFilePath folder path for output association rules file
+     * @param outputRulesFileNameAndExtension output association rules file name and extension
+     */
+    public NativeFPGrowthARMiner(float minimumSupport, float minimumConfidence, String outputRulesFilePath,
+            String outputRulesFileNameAndExtension) {
+        this(minimumSupport, minimumConfidence, null, null, outputRulesFilePath, outputRulesFileNameAndExtension);
+    }
+
+    /**
+     * Loads dataset file as int-encoded transactions and mines it
+     *
+     * @see #mine(int[][], java.util.List)
+     *
+     * @return true if mining was successful and association rules were written to disk successfully, false otherwise
+     */
+    @Override
+    public boolean mine() {
+        TransactionDataset dataset;
+
+        try {
+            // validate parameters
+            if (datasetFilePath == null || datasetFileNameAndExtension == null) {
+                return false;
+            }
+
+            System.out.println(new Date().toString() + ": Loading dataset... ");
+
+            if (datasetFilePath.endsWith("\\")) {
+                dataset = TransactionDataset.read(FileSystems.getDefault().getPath(datasetFilePath + datasetFileNameAndExtension));
+            } else {
+                dataset = TransactionDataset.read(FileSystems.getDefault().getPath(datasetFilePath
+                        + File.separator + datasetFileNameAndExtension));
+            }
+        } catch (Exception e) {
+            System.err.println("Exception in mine() : " + e.getMessage());
+
+            e.printStackTrace();
+
+            return false;
+        }
+
+        return mine(dataset.getTransactions(), dataset.getItemNames());
+    }
+
+    /**
+     * Carries out the mining process using FP-Growth algorithm on int-encoded transactions
+     *
+     * <br />
+     * <br />
+     *
+     * <ul>
+     * <li>Ranks items by descending support</li>
+     * <li>Constructs FP Tree</li>
+     * <li>Finds frequent itemsets</li>
+     * <li>Builds association rules from itemsets</li>
+     * <li>Saves the association rules</li>
+     * </ul>
+     *
+     * @param transactions sorted column indexes of items of each transaction
+     * @param itemNames names of items, in column order
+     * @return true if mining was successful and association rules were written to disk successfully, false otherwise
+     */
+    public boolean mine(int[][] transactions, List<String> itemNames) {
+        int[] supportOfColumn;
+        int[] rankOfColumn;
+        Integer[] columnsByRank;
+        int numberOfFrequentItems = 0;
+        FPTree fpTree;
+        FrequentItemSets frequentItemSets;
+        List<String> itemNamesByRank;
+        AssociationRuleGenerator ruleGenerator;
+
+        try {
+            if (transactions == null || itemNames == null) {
+                System.err.println("Could not load dataset for mining.");
+
+                throw new NullPointerException("Could not load dataset, it is null.");
+            }
+
+            System.out.println(new Date().toString() + ": Starting building associations...");
+
+            numberOfTransactions = transactions.length;
+            minimumSupportCount = toSupportCount(minimumSupport, numberOfTransactions);
+
+            // mine at support of the store, to regenerate rules of lower support from it
+            miningSupportCount = minimumSupportCount;
+            if (itemSetStoreFilePath != null && itemSetStoreSupport > 0 && topK == 0) {
+                miningSupportCount = Math.min(miningSupportCount, toSupportCount(itemSetStoreSupport, numberOfTransactions));
+            }
+
+            if (bitmapTDM != null && (bitmapTDM.getNumberOfRows() != transactions.length
+                    || bitmapTDM.getNumberOfColumns() != itemNames.size())) {
+                System.out.println(new Date().toString() + ": Bitmap TDM does not match the transactions, not used.");
+                bitmapTDM = null;
+            }
+
+            // count support of items, or look it up from column bitmaps
+            supportOfColumn = new int[itemNames.size()];
+            if (bitmapTDM != null) {
+                for (int j = 0; j < supportOfColumn.length; j++) {
+                    supportOfColumn[j] = bitmapTDM.getSupport(j);
+                }
+            } else {
+                for (int[] transaction : transactions) {
+                    for (int column : transaction) {
+                        ++supportOfColumn[column];
+                    }
+                }
+            }
+
+            // rank frequent items by descending support, ties in column order
+            columnsByRank = new Integer[itemNames.size()];
+            for (int j = 0; j < columnsByRank.length; j++) {
+                columnsByRank[j] = j;
+            }
+            Arrays.sort(columnsByRank, (a, b) -> supportOfColumn[a] != supportOfColumn[b]
+                    ? Integer.compare(supportOfColumn[b], supportOfColumn[a]) : Integer.compare(a, b));
+
+            rankOfColumn = new int[itemNames.size()];
+            Arrays.fill(rankOfColumn, -1);
+            while (numberOfFrequentItems < columnsByRank.length
+                    && supportOfColumn[columnsByRank[numberOfFrequentItems]] >= miningSupportCount) {
+                rankOfColumn[columnsByRank[numberOfFrequentItems]] = numberOfFrequentItems;
+                ++numberOfFrequentItems;
+            }
+
+            // construct FP tree
+            fpTree = buildFPTree(transactions, rankOfColumn, numberOfFrequentItems);
+
+            itemNamesByRank = new ArrayList<>(numberOfFrequentItems);
+            for (int rank = 0; rank < numberOfFrequentItems; rank++) {
+                itemNamesByRank.add(itemNames.get(columnsByRank[rank]));
+            }
+
+            if (topK > 0) {
+                return findTopKRules(fpTree, itemNamesByRank);
+            }
+
+            // find frequent itemsets
+            frequentItemSets = findFrequentItemSets(fpTree);
+            numberOfFrequentItemSets = frequentItemSets.size();
+
+            System.out.println(new Date().toString() + ": Found " + numberOfFrequentItemSets
+                    + " frequent itemsets, over FP tree of " + fpTree.getNumberOfNodes() + " nodes, using "
+                    + parallelism + " threads, average parallelism " + Utils.doubleToString(averageParallelism, 2) + ".");
+
+            if (itemSetStoreFilePath != null) {
+                new FrequentItemSetStore(jobKey, numberOfTransactions, miningSupportCount, itemNamesByRank,
+                        frequentItemSets).save(FrequentItemSetStore.getPath(itemSetStoreFilePath, jobKey));
+
+                System.out.println(new Date().toString() + ": Saved frequent itemsets of job " + jobKey + ".");
+            }
+
+            // build and save association rules
+            System.out.println(new Date().toString() + ": Saving association rules...");
+
+            ruleGenerator = new AssociationRuleGenerator(frequentItemSets, itemNamesByRank, numberOfTransactions);
+            ruleGenerator.setParallelism(parallelism);
+
+            numberOfRules = ruleGenerator.generate(minimumSupportCount, minimumConfidence, 0, 0,
+                    FileSystems.getDefault().getPath(outputRulesFilePath, outputRulesFileNameAndExtension));
+
+            System.out.println(new Date().toString() + ": Saved " + numberOfRules + " association rules...");
+
+            return true;
+        } catch (Exception e) {
+            System.err.println("Exception in mine() : " + e.getMessage());
+
+            e.printStackTrace();
+
+            return false;
+        }
+    }
+
+    /**
+     * Finds and saves the topK best rules of the FP tree by the top-k rule metric, 
+     * the search starting at minimum support
+     */
+    private boolean findTopKRules(FPTree fpTree, List<String> itemNamesByRank) throws IOException {
+        TopKRuleFinder topKRuleFinder = new TopKRuleFinder(topK, topKRuleMetric, minimumSupportCount,
+                minimumConfidence, topKMinimumLift, numberOfTransactions);
+
+        topKRuleFinder.find(fpTree);
+        numberOfFrequentItemSets = topKRuleFinder.getNumberOfFrequentItemSets();
+        topKSupportCount = topKRuleFinder.getSupportThreshold();
+        averageParallelism = 1;
+
+        System.out.println(new Date().toString() + ": Found " + topKRuleFinder.getNumberOfRules() + " best rules by "
+                + topKRuleMetric + ", over " + numberOfFrequentItemSets + " itemsets, at most "
+                + topKRuleFinder.getMaximumNumberOfItemSetsKept() + " kept at a time, support threshold raised from "
+                + minimumSupportCount + " to " + topKSupportCount + " transactions.");
+
+        numberOfRules = topKRuleFinder.save(itemNamesByRank,
+                FileSystems.getDefault().getPath(outputRulesFilePath, outputRulesFileNameAndExtension));
+
+        System.out.println(new Date().toString() + ": Saved " + numberOfRules + " association rules...");
+
+        return true;
+    }
+
+    /**
+     * Inserts frequent items of each transaction into FP tree, as item ranks in ascending order
+     */
+    private static FPTree buildFPTree(int[][] transactions, int[] rankOfColumn, int numberOfFrequentItems) {
+        FPTree fpTree;
+        int[] ranks = new int[16];
+        int numberOfRanks;
+        long numberOfEntries = 0;
+
+        for (int[] transaction : transactions) {
+            numberOfEntries += transaction.length;
+        }
+
+        fpTree = new FPTree(numberOfFrequentItems, (int) Math.min(numberOfEntries, Integer.MAX_VALUE - 16));
+
+        for (int[] transaction : transactions) {
+            if (ranks.length < transaction.length) {
+                ranks = new int[transaction.length];
+            }
+
+            numberOfRanks = 0;
+            for (int column : transaction) {
+                if (rankOfColumn[column] >= 0) {
+                    ranks[numberOfRanks++] = rankOfColumn[column];
+                }
+            }
+
+            if (numberOfRanks > 0) {
+                Arrays.sort(ranks, 0, numberOfRanks);
+                fpTree.insert(ranks, numberOfRanks, 1);
+            }
+        }
+
+        return fpTree;
+    }
+
+    /**
+     * Finds frequent itemsets of the FP tree, sequentially or in a pool of parallelism threads. 
+     * Average parallelism is the time spent mining by all threads over the elapsed time, 
+     * the average number of threads busy, rather than a speedup over sequential mining.
+     */
+    private FrequentItemSets findFrequentItemSets(FPTree fpTree) {
+        FrequentItemSets frequentItemSetsToReturn;
+        LongAdder busyTimeInNanos;
+        ForkJoinPool pool;
+        long startTime;
+
+        if (parallelism == 1) {
+            frequentItemSetsToReturn = new FrequentItemSets();
+            mineFPTree(fpTree, new int[0], frequentItemSetsToReturn);
+            averageParallelism = 1;
+
+            return frequentItemSetsToReturn;
+        }
+
+        busyTimeInNanos = new LongAdder();
+        pool = new ForkJoinPool(parallelism);
+        startTime = System.nanoTime();
+
+        try {
+            frequentItemSetsToReturn = pool.invoke(new ConditionalTreeTask(fpTree, new int[0], busyTimeInNanos));
+        } finally {
+            pool.shutdown();
+        }
+
+        averageParallelism = (double) busyTimeInNanos.sum() / Math.max(System.nanoTime() - startTime, 1);
+
+        return frequentItemSetsToReturn;
+    }
+
+    /**
+     * Adds each frequent item of the tree, appended to the suffix, as frequent itemset,
+     * and mines its conditional tree for longer itemsets ending with it
+     */
+    private void mineFPTree(FPTree fpTree, int[] suffix, FrequentItemSets frequentItemSets) {
+        FPTree conditionalTree;
+        int[] itemSet;
+
+        for (int item = fpTree.getNumberOfItems() - 1; item >= 0; item--) {
+            if (fpTree.getSupport(item) < miningSupportCount) {
+                continue;
+            }
+
+            // items of conditional trees rank below the suffix, itemset stays sorted
+            itemSet = new int[suffix.length + 1];
+            itemSet[0] = item;
+            System.arraycopy(suffix, 0, itemSet, 1, suffix.length);
+            frequentItemSets.add(itemSet, fpTree.getSupport(item));
+
+            conditionalTree = fpTree.buildConditionalTree(item, miningSupportCount);
+            if (conditionalTree != null) {
+                mineFPTree(conditionalTree, itemSet, frequentItemSets);
+            }
+        }
+    }
+
+    /**
+     * Mines frequent items of the tree as mineFPTree() does, forking conditional trees of 
+     * at least MINIMUM_NODES_TO_FORK nodes as tasks, and returns the itemsets in the order 
+     * mineFPTree() would add them
+     */
+    private class ConditionalTreeTask extends RecursiveTask<FrequentItemSets> {
+
+        private static final long serialVersionUID = 1L;
+        private final FPTree fpTree;
+        private final int[] suffix;
+        private final LongAdder busyTimeInNanos;
+
+        ConditionalTreeTask(FPTree fpTree, int[] suffix, LongAdder busyTimeInNanos) {
+            this.fpTree = fpTree;
+            this.suffix = suffix;
+            this.busyTimeInNanos = busyTimeInNanos;
+        }
+
+        @Override
+        protected FrequentItemSets compute() {
+            List<Object> parts = new ArrayList<>();
+            FrequentItemSets part = new FrequentItemSets();
+            FrequentItemSets frequentItemSetsToReturn = new FrequentItemSets();
+            FrequentItemSets[] joined;
+            FPTree conditionalTree;
+            int[] itemSet;
+            long startTime = System.nanoTime();
+
+            for (int item = fpTree.getNumberOfItems() - 1; item >= 0; item--) {
+                if (fpTree.getSupport(item) < miningSupportCount) {
+                    continue;
+                }
+
+                itemSet = new int[suffix.length + 1];
+                itemSet[0] = item;
+                System.arraycopy(suffix, 0, itemSet, 1, suffix.length);
+                part.add(itemSet, fpTree.getSupport(item));
+
+                conditionalTree = fpTree.buildConditionalTree(item, miningSupportCount);
+                if (conditionalTree == null) {
+                    continue;
+                }
+
+                if (conditionalTree.getNumberOfNodes() >= MINIMUM_NODES_TO_FORK) {
+                    ConditionalTreeTask task = new ConditionalTreeTask(conditionalTree, itemSet, busyTimeInNanos);
+
+                    task.fork();
+                    parts.add(part);
+                    parts.add(task);
+                    part = new FrequentItemSets();
+                } else {
+                    mineFPTree(conditionalTree, itemSet, part);
+                }
+            }
+            parts.add(part);
+
+            busyTimeInNanos.add(System.nanoTime() - startTime);
+
+            // join in reverse order of forking, merge in order of items
+            joined = new FrequentItemSets[parts.size()];
+            for (int i = parts.size() - 1; i >= 0; i--) {
+                if (parts.get(i) instanceof ConditionalTreeTask) {
+                    joined[i] = ((ConditionalTreeTask) parts.get(i)).join();
+                } else {
+                    joined[i] = (FrequentItemSets) parts.get(i);
+                }
+            }
+
+            startTime = System.nanoTime();
+            for (FrequentItemSets joinedPart : joined) {
+                frequentItemSetsToReturn.addAll(joinedPart);
+            }
+            busyTimeInNanos.add(System.nanoTime() - startTime);
+
+            return frequentItemSetsToReturn;
+        }
+    }
+
+    /**
+     * Converts support value to number of transactions
+     *
+     * @param support support value, fraction of transactions, or number of transactions if greater than 1
+     * @param numberOfTransactions number of transactions
+     * @return minimum number of transactions, at least 1
+     */
+    public static int toSupportCount(float support, int numberOfTransactions) {
+        int supportCount = support > 1 ? (int) support : (int) Math.ceil((double) support * numberOfTransactions);
+
+        return Math.max(supportCount, 1);
+    }
+
+    /**
+     * Sets frequent itemset store of the job, itemsets being mined at the lower of store 
+     * support and minimum support
+     *
+     * @param itemSetStoreFilePath folder path of store files, null not to save itemsets
+     * @param jobKey key of the mining job
+     * @param itemSetStoreSupport support to mine itemsets of the store at, 0 for minimum support
+     */
+    public void setItemSetStore(String itemSetStoreFilePath, String jobKey, float itemSetStoreSupport) {
+        this.itemSetStoreFilePath = itemSetStoreFilePath;
+        this.jobKey = jobKey;
+        this.itemSetStoreSupport = itemSetStoreSupport;
+    }
+
+    /**
+     * Sets bitmap TDM of the transactions to be mined, for support of items by column bitmaps
+     *
+     * @param bitmapTDM bitmap TDM whose rows are the transactions and columns the items, null to 
+     * count support from transactions
+     */
+    public void setBitmapTDM(BitmapTDM bitmapTDM) {
+        this.bitmapTDM = bitmapTDM;
+    }
+
+    public BitmapTDM getBitmapTDM() {
+        return bitmapTDM;
+    }
+
+    /**
+     * Sets top-k mining, in which the k best rules by the metric, meeting minimum confidence and 
+     * minimum lift, are found, minimum support being the threshold the search starts at, instead 
+     * of all rules at minimum support
+     *
+     * @param topK number of best rules to find, 0 to find all rules at minimum support
+     * @param topKRuleMetric metric by which rules are ranked
+     * @param topKMinimumLift minimum lift of rules, 0 for no threshold
+     */
+    public void setTopK(int topK, RuleMetric topKRuleMetric, float topKMinimumLift) {
+        this.topK = Math.max(0, topK);
+        this.topKRuleMetric = topKRuleMetric;
+        this.topKMinimumLift = topKMinimumLift;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public RuleMetric getTopKRuleMetric() {
+        return topKRuleMetric;
+    }
+
+    public float getTopKMinimumLift() {
+        return topKMinimumLift;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism number of threads mining frequent itemsets, 1 for sequential mining
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @return time spent finding frequent itemsets by all threads over the elapsed time, 
+     * i.e. average number of threads busy, for the last mining, 1 for sequential mining
+     */
+    public double getAverageParallelism() {
+        return averageParallelism;
+    }
+
+    /**
+     * @return number of transactions mined by the last mining
+     */
+    public int getNumberOfTransactions() {
+        return numberOfTransactions;
+    }
+
+    /**
+     * @return minimum number of transactions of itemsets of rules, for the last mining
+     */
+    public int getMinimumSupportCount() {
+        return minimumSupportCount;
+    }
+
+    /**
+     * @return minimum number of transactions of a frequent itemset, the last mining mined at, 
+     * lower than minimum support count if frequent itemset store of lower support is set
+     */
+    public int getMiningSupportCount() {
+        return miningSupportCount;
+    }
+
+    /**
+     * @return support threshold, in number of transactions, the last top-k mining ended at
+     */
+    public int getTopKSupportCount() {
+        return topKSupportCount;
+    }
+
+    /**
+     * @return number of frequent itemsets found by the last mining
+     */
+    public int getNumberOfFrequentItemSets() {
+        return numberOfFrequentItemSets;
+    }
+
+    /**
+     * @return number of association rules saved by the last mining
+     */
+    public int getNumberOfRules() {
+        return numberOfRules;
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+/**
+ * Metrics by which the k best rules are found in top-k mining
+ * 
+ * <ul>
+ * <li>CONFIDENCE: confidence, ties broken by higher support, the support threshold 
+ * being raised once the k best rules all have confidence of 1</li>
+ * <li>LIFT: lift, ties broken by higher support, searched at the minimum support</li>
+ * </ul>
+ * 
+ * @see com.starm.processors.miners.TopKRuleFinder
+ * 
+ * @author Wasif Altaf
+ */
+public enum RuleMetric {
+    CONFIDENCE, LIFT
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the k best association rules of an FP tree by confidence or lift, meeting minimum 
+ * confidence and minimum lift, in TopKRules style. <br /><br />
+ *
+ * The search starts at minimum support, as the floor. Itemsets are mined depth first, items of 
+ * each tree in ascending item id, that is most frequent first, so that every subset of an itemset 
+ * is found before it, and rules of each itemset are built as soon as it is found. The k best rules 
+ * found so far are kept in a heap, ranked by the metric, then by support, then by order found. 
+ * <br /><br />
+ *
+ * Confidence is at most 1, so once the heap holds k rules and the k-th best rule has confidence 
+ * of 1, a rule of no higher support than it can not enter the heap, and as support of an itemset 
+ * is at most that of its subsets, neither can a rule of any itemset of lower support. The support 
+ * threshold is then raised above support of the k-th best rule, and conditional trees are built 
+ * at the raised threshold only. Itemsets below the threshold can not be subsets of itemsets found 
+ * later, so they are removed as the threshold rises, and only itemsets still needed for looking 
+ * up supports of premises and consequences are kept. <br /><br />
+ *
+ * Lift of a rule of an itemset of support s is at most N / s, which rises as support falls, so 
+ * the threshold is never raised by lift. Itemsets whose rules can not enter the heap are only 
+ * skipped without building rules, the search being bounded by minimum support.
+ *
+ * @author Wasif Altaf
+ */
+public class TopKRuleFinder {
+
+    // worst of the k best rules at head of the heap
+    private static final Comparator<Rule> WORST_FIRST = (a, b) -> compare(b, a);
+
+    // itemsets kept before the first removal of itemsets below the threshold
+    private static final int MINIMUM_ITEMSETS_TO_REMOVE = 4096;
+
+    private final int k;
+    private final RuleMetric ruleMetric;
+    private final double minimumConfidence;
+    private final double minimumLift;
+    private final int numberOfTransactions;
+    private final FrequentItemSets frequentItemSets = new FrequentItemSets();
+    private final PriorityQueue<Rule> bestRules;
+    private int supportThreshold;
+    private int itemSetsToRemoveAt = MINIMUM_ITEMSETS_TO_REMOVE;
+    private int numberOfItemSetsFound = 0;
+    private int maximumNumberOfItemSetsKept = 0;
+    private long numberOfRulesFound = 0;
+
+    /**
+     * @param k number of rules to find
+     * @param ruleMetric metric by which rules are ranked
+     * @param minimumSupportCount support the search starts at, in number of transactions
+     * @param minimumConfidence minimum confidence of rules
+     * @param minimumLift minimum lift of rules, 0 for no threshold
+     * @param numberOfTransactions number of transactions of the tree
+     */
+    public TopKRuleFinder(int k, RuleMetric ruleMetric, int minimumSupportCount, double minimumConfidence,
+            double minimumLift, int numberOfTransactions) {
+        this.k = Math.max(1, k);
+        this.ruleMetric = ruleMetric;
+        this.supportThreshold = Math.max(1, minimumSupportCount);
+        this.minimumConfidence = minimumConfidence;
+        this.minimumLift = minimumLift;
+        this.numberOfTransactions = numberOfTransactions;
+        this.bestRules = new PriorityQueue<>(this.k + 1, WORST_FIRST);
+    }
+
+    /**
+     * Finds the k best rules of the tree
+     *
+     * @param fpTree FP tree of transactions, of item ids ranked by descending support, 
+     * holding all items of at least minimum support
+     */
+    public void find(FPTree fpTree) {
+        mineFPTree(fpTree, new int[0]);
+    }
+
+    /**
+     * Adds each item of the tree at or above the support threshold, prepended to the suffix,
+     * as itemset, builds its rules, and mines its conditional tree at the current threshold
+     */
+    private void mineFPTree(FPTree fpTree, int[] suffix) {
+        FPTree conditionalTree;
+        int[] itemSet;
+
+        for (int item = 0; item < fpTree.getNumberOfItems(); item++) {
+            // threshold may have been raised by rules of earlier items
+            if (fpTree.getSupport(item) < supportThreshold) {
+                continue;
+            }
+
+            // items of conditional trees rank below the suffix, itemset stays sorted
+            itemSet = new int[suffix.length + 1];
+            itemSet[0] = item;
+            System.arraycopy(suffix, 0, itemSet, 1, suffix.length);
+            frequentItemSets.add(itemSet, fpTree.getSupport(item));
+            ++numberOfItemSetsFound;
+
+            addRules(itemSet, fpTree.getSupport(item));
+            removeItemSetsBelowThreshold();
+
+            conditionalTree = fpTree.buildConditionalTree(item, supportThreshold);
+            if (conditionalTree != null) {
+                mineFPTree(conditionalTree, itemSet);
+            }
+        }
+    }
+
+    /**
+     * Offers rules of each split of the itemset to the heap, raising the support threshold if the 
+     * heap is full of rules of confidence of 1, for confidence
+     */
+    private void addRules(int[] items, int totalSupport) {
+        double n = numberOfTransactions;
+        int[] premise;
+        int[] consequence;
+        int premiseSupport;
+        int consequenceSupport;
+        double confidence;
+        double lift;
+
+        // confidence is at most 1, and lift at most 1 / (support of consequence / N), support of consequence 
+        // being at least support of the itemset, bound computed as lift is, to round alike at the bound
+        if (items.length < 2 || items.length > 62
+                || !canEnter(ruleMetric == RuleMetric.CONFIDENCE ? 1 : 1 / (totalSupport / n), totalSupport)) {
+            return;
+        }
+
+        for (long mask = 1; mask < (1L << items.length) - 1; mask++) {
+            premise = new int[Long.bitCount(mask)];
+            consequence = new int[items.length - premise.length];
+
+            for (int j = 0, p = 0, c = 0; j < items.length; j++) {
+                if ((mask & (1L << j)) != 0) {
+                    premise[p++] = items[j];
+                } else {
+                    consequence[c++] = items[j];
+                }
+            }
+
+            // subsets are found before the itemset, at a threshold no higher than its support
+            premiseSupport = frequentItemSets.getSupport(premise);
+            confidence = (double) totalSupport / premiseSupport;
+
+            if (confidence < minimumConfidence
+                    || (ruleMetric == RuleMetric.CONFIDENCE && !canEnter(confidence, totalSupport))) {
+                continue;
+            }
+
+            consequenceSupport = frequentItemSets.getSupport(consequence);
+            lift = confidence / (consequenceSupport / n);
+            if ((minimumLift > 0 && lift < minimumLift)
+                    || (ruleMetric == RuleMetric.LIFT && !canEnter(lift, totalSupport))) {
+                continue;
+            }
+
+            bestRules.add(new Rule(premise, consequence, premiseSupport, consequenceSupport, totalSupport,
+                    ruleMetric == RuleMetric.CONFIDENCE ? confidence : lift, numberOfRulesFound++));
+            if (bestRules.size() > k) {
+                bestRules.poll();
+            }
+        }
+
+        // rules of no higher support can not beat the k-th best rule, if it has confidence of 1
+        if (ruleMetric == RuleMetric.CONFIDENCE && bestRules.size() == k && bestRules.peek().value >= 1) {
+            supportThreshold = Math.max(supportThreshold, bestRules.peek().totalSupport + 1);
+        }
+    }
+
+    /**
+     * Removes itemsets below the support threshold, once the itemsets kept have doubled since last removal
+     */
+    private void removeItemSetsBelowThreshold() {
+        maximumNumberOfItemSetsKept = Math.max(maximumNumberOfItemSetsKept, frequentItemSets.size());
+
+        if (frequentItemSets.size() < itemSetsToRemoveAt) {
+            return;
+        }
+
+        frequentItemSets.removeItemSetsBelowSupport(supportThreshold);
+        itemSetsToRemoveAt = Math.max(MINIMUM_ITEMSETS_TO_REMOVE, frequentItemSets.size() * 2);
+    }
+
+    /**
+     * @return true if a rule of the metric value and support, found now, would be among the k best
+     */
+    private boolean canEnter(double value, int totalSupport) {
+        Rule worst = bestRules.peek();
+
+        return bestRules.size() < k || value > worst.value
+                || (value == worst.value && totalSupport > worst.totalSupport);
+    }
+
+    /**
+     * Ranks rules by descending metric value, then descending support, then order found
+     */
+    private static int compare(Rule a, Rule b) {
+        if (a.value != b.value) {
+            return Double.compare(b.value, a.value);
+        }
+        if (a.totalSupport != b.totalSupport) {
+            return Integer.compare(b.totalSupport, a.totalSupport);
+        }
+
+        return Long.compare(a.order, b.order);
+    }
+
+    /**
+     * Saves the rules found, best first, to the output file and its association rule store, replacing them
+     *
+     * @param itemNames names of items, by item id
+     * @param outputFilePath path of output association rules file
+     * @return number of rules saved
+     * @throws IOException if the rules could not be saved
+     */
+    public int save(List<String> itemNames, Path outputFilePath) throws IOException {
+        List<Rule> rules = new ArrayList<>(bestRules);
+        StringBuilder ruleText = new StringBuilder(128);
+        int[] storeItemIds;
+        boolean[] negated;
+
+        rules.sort(TopKRuleFinder::compare);
+
+        Files.deleteIfExists(outputFilePath);
+
+        // store is closed after the rules file, so that it is not taken for older than the rules file
+        try (AssociationRuleStoreWriter storeWriter = new AssociationRuleStoreWriter(
+                AssociationRuleStore.getPath(outputFilePath), numberOfTransactions);
+                BufferedWriter writer = Files.newBufferedWriter(outputFilePath, Charset.defaultCharset(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            storeItemIds = new int[itemNames.size()];
+            negated = new boolean[itemNames.size()];
+            for (int j = 0; j < itemNames.size(); j++) {
+                storeItemIds[j] = storeWriter.getItemId(itemNames.get(j));
+                negated[j] = AssociationRuleStore.isNegated(itemNames.get(j));
+            }
+
+            for (Rule rule : rules) {
+                ruleText.setLength(0);
+                appendItems(ruleText, rule.premise, itemNames);
+                ruleText.append(": ").append(rule.premiseSupport).append(" ==> ");
+                appendItems(ruleText, rule.consequence, itemNames);
+                ruleText.append(": ").append(rule.totalSupport).append("   ");
+                AssociationRuleFormatter.appendMetrics(ruleText, rule.premiseSupport, rule.consequenceSupport,
+                        rule.totalSupport, numberOfTransactions);
+                ruleText.append('\n');
+                writer.append(ruleText);
+
+                storeWriter.write(toStoreItemIds(rule.premise, storeItemIds), toNegations(rule.premise, negated),
+                        toStoreItemIds(rule.consequence, storeItemIds), toNegations(rule.consequence, negated),
+                        rule.premiseSupport, rule.consequenceSupport, rule.totalSupport, numberOfTransactions);
+            }
+        }
+
+        return rules.size();
+    }
+
+    private static void appendItems(StringBuilder builder, int[] items, List<String> itemNames) {
+        builder.append('[');
+
+        for (int j = 0; j < items.length; j++) {
+            if (j > 0) {
+                builder.append(", ");
+            }
+            builder.append(itemNames.get(items[j])).append("=y");
+        }
+
+        builder.append(']');
+    }
+
+    private static int[] toStoreItemIds(int[] items, int[] storeItemIds) {
+        int[] itemIds = new int[items.length];
+
+        for (int j = 0; j < items.length; j++) {
+            itemIds[j] = storeItemIds[items[j]];
+        }
+
+        return itemIds;
+    }
+
+    private static boolean[] toNegations(int[] items, boolean[] negated) {
+        boolean[] negations = new boolean[items.length];
+
+        for (int j = 0; j < items.length; j++) {
+            negations[j] = negated[items[j]];
+        }
+
+        return negations;
+    }
+
+    /**
+     * @return number of rules kept, at most k
+     */
+    public int getNumberOfRules() {
+        return bestRules.size();
+    }
+
+    /**
+     * @return support threshold the search ended at, in number of transactions, raised from 
+     * minimum support for confidence only
+     */
+    public int getSupportThreshold() {
+        return supportThreshold;
+    }
+
+    /**
+     * @return number of itemsets found
+     */
+    public int getNumberOfFrequentItemSets() {
+        return numberOfItemSetsFound;
+    }
+
+    /**
+     * @return largest number of itemsets kept at a time
+     */
+    public int getMaximumNumberOfItemSetsKept() {
+        return maximumNumberOfItemSetsKept;
+    }
+
+    /**
+     * Association rule of item ids, with its supports, value of the metric and order found
+     */
+    private static final class Rule {
+
+        private final int[] premise;
+        private final int[] consequence;
+        private final int premiseSupport;
+        private final int consequenceSupport;
+        private final int totalSupport;
+        private final double value;
+        private final long order;
+
+        private Rule(int[] premise, int[] consequence, int premiseSupport, int consequenceSupport, int totalSupport,
+                double value, long order) {
+            this.premise = premise;
+            this.consequence = consequence;
+            this.premiseSupport = premiseSupport;
+            this.consequenceSupport = consequenceSupport;
+            this.totalSupport = totalSupport;
+            this.value = value;
+            this.order = order;
+        }
+
+    }
+
+}
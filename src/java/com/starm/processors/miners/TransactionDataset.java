@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2014 Wasif Altaf <malikalamgirian@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.starm.processors.miners;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary term-by-document matrix loaded as int-encoded transactions, each transaction
+ * being the sorted column indexes of the items it contains. <br /><br />
+ *
+ * Reads the sparse ARFF written by TDMARFFWriter, (nominal {n,y} attributes, sparse
+ * or dense data rows), and the CSV written by TDMCSVWriter, (header of terms,
+ * cells y or empty).
+ *
+ * @see com.starm.preprocessing.tdm.TDMARFFWriter
+ * @see com.starm.preprocessing.tdm.TDMCSVWriter
+ *
+ * @author Wasif Altaf
+ */
+public class TransactionDataset {
+
+    private final List<String> itemNames;
+    private final int[][] transactions;
+
+    /**
+     * @param itemNames names of items, in column order
+     * @param transactions sorted column indexes of items of each transaction
+     */
+    public TransactionDataset(List<String> itemNames, int[][] transactions) {
+        this.itemNames = itemNames;
+        this.transactions = transactions;
+    }
+
+    /**
+     * Reads the dataset, as ARFF if file name ends with .arff, as CSV otherwise
+     *
+     * @param pathOfDatasetFile path of dataset file
+     * @return the dataset
+     * @throws IOException if the file could not be read or is malformed
+     */
+    public static TransactionDataset read(Path pathOfDatasetFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(pathOfDatasetFile, Charset.defaultCharset())) {
+            if (pathOfDatasetFile.getFileName().toString().toLowerCase().endsWith(".arff")) {
+                return readARFF(reader);
+            }
+
+            return readCSV(reader);
+        }
+    }
+
+    private static TransactionDataset readCSV(BufferedReader reader) throws IOException {
+        List<int[]> transactionsRead = new ArrayList<>();
+        List<String> itemNamesRead;
+        String line = reader.readLine();
+        int[] row = new int[16];
+        int numberOfItems;
+        int column;
+
+        if (line == null) {
+            throw new IOException("CSV dataset has no header.");
+        }
+        itemNamesRead = Arrays.asList(line.split(",", -1));
+
+        while ((line = reader.readLine()) != null) {
+            numberOfItems = 0;
+            column = 0;
+
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == ',') {
+                    ++column;
+                } else if (line.charAt(i) == 'y' && (i + 1 == line.length() || line.charAt(i + 1) == ',')) {
+                    if (numberOfItems == row.length) {
+                        row = Arrays.copyOf(row, row.length * 2);
+                    }
+                    row[numberOfItems++] = column;
+                }
+            }
+
+            transactionsRead.add(Arrays.copyOf(row, numberOfItems));
+        }
+
+        return new TransactionDataset(itemNamesRead, transactionsRead.toArray(new int[transactionsRead.size()][]));
+    }
+
+    private static TransactionDataset readARFF(BufferedReader reader) throws IOException {
+        List<String> itemNamesRead = new ArrayList<>();
+        List<int[]> transactionsRead = new ArrayList<>();
+        boolean inData = false;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith("%")) {
+                continue;
+            }
+
+            if (inData) {
+                transactionsRead.add(line.startsWith("{") ? parseSparseRow(line) : parseDenseRow(line));
+            } else if (line.regionMatches(true, 0, "@attribute", 0, 10)) {
+                itemNamesRead.add(parseAttributeName(line.substring(10).trim()));
+            } else if (line.regionMatches(true, 0, "@data", 0, 5)) {
+                inData = true;
+            }
+        }
+
+        return new TransactionDataset(itemNamesRead, transactionsRead.toArray(new int[transactionsRead.size()][]));
+    }
+
+    /**
+     * Parses attribute name, quoted as by TDMARFFWriter.quote() or unquoted
+     */
+    private static String parseAttributeName(String declaration) throws IOException {
+        StringBuilder name;
+        char quote;
+        char c;
+
+        if (declaration.isEmpty()) {
+            throw new IOException("Attribute without name in ARFF dataset.");
+        }
+
+        quote = declaration.charAt(0);
+        if (quote != '\'' && quote != '"') {
+            int end = 0;
+
+            while (end < declaration.length() && !Character.isWhitespace(declaration.charAt(end))
+                    && declaration.charAt(end) != '{') {
+                ++end;
+            }
+
+            return declaration.substring(0, end);
+        }
+
+        name = new StringBuilder(declaration.length());
+        for (int i = 1; i < declaration.length(); i++) {
+            c = declaration.charAt(i);
+
+            if (c == '\\' && i + 1 < declaration.length()) {
+                name.append(declaration.charAt(++i));
+            } else if (c == quote) {
+                return name.toString();
+            } else {
+                name.append(c);
+            }
+        }
+
+        throw new IOException("Unterminated attribute name in ARFF dataset: " + declaration);
+    }
+
+    /**
+     * Parses sparse row such as {0 y,5 y}, entries of value other than y are skipped
+     */
+    private static int[] parseSparseRow(String line) throws IOException {
+        String body = line.substring(1, line.lastIndexOf('}') < 0 ? line.length() : line.lastIndexOf('}')).trim();
+        String[] entries;
+        int[] row;
+        int numberOfItems = 0;
+        int separator;
+
+        if (body.isEmpty()) {
+            return new int[0];
+        }
+
+        entries = body.split(",");
+        row = new int[entries.length];
+
+        try {
+            for (String entry : entries) {
+                entry = entry.trim();
+                separator = entry.indexOf(' ');
+
+                if (isContained(entry.substring(separator + 1).trim())) {
+                    row[numberOfItems++] = Integer.parseInt(entry.substring(0, separator));
+                }
+            }
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IOException("Malformed sparse row in ARFF dataset: " + line, e);
+        }
+
+        row = Arrays.copyOf(row, numberOfItems);
+        Arrays.sort(row);
+
+        return row;
+    }
+
+    /**
+     * Parses dense row of comma separated values
+     */
+    private static int[] parseDenseRow(String line) {
+        String[] values = line.split(",");
+        int[] row = new int[values.length];
+        int numberOfItems = 0;
+
+        for (int j = 0; j < values.length; j++) {
+            if (isContained(values[j].trim())) {
+                row[numberOfItems++] = j;
+            }
+        }
+
+        return Arrays.copyOf(row, numberOfItems);
+    }
+
+    private static boolean isContained(String value) {
+        return value.equals("y") || value.equals("'y'") || value.equals("\"y\"");
+    }
+
+    /**
+     * @return names of items, in column order
+     */
+    public List<String> getItemNames() {
+        return itemNames;
+    }
+
+    /**
+     * @return sorted column indexes of items of each transaction
+     */
+    public int[][] getTransactions() {
+        return transactions;
+    }
+
+}